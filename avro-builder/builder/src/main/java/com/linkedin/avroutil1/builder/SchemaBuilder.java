@@ -7,6 +7,7 @@
 package com.linkedin.avroutil1.builder;
 
 import com.linkedin.avroutil1.builder.operations.codegen.CodeGenerator;
+import com.linkedin.avroutil1.builder.operations.codegen.fastserde.FastSerdeCodeGenOp;
 import com.linkedin.avroutil1.builder.operations.codegen.own.AvroUtilCodeGenOp;
 import com.linkedin.avroutil1.builder.operations.codegen.CodeGenOpConfig;
 import com.linkedin.avroutil1.builder.operations.Operation;
@@ -103,6 +104,17 @@ public class SchemaBuilder {
         .defaultsTo("false")
         .describedAs("true/false");
 
+    OptionSpec<String> generateFastSerdeOpt = parser.accepts("generateFastSerde",
+            "also generates fast serializers and deserializers for record schemas, picked up by FastSerdeCache at runtime"
+                + " instead of generating them. they are only used at runtime with the avro version used here.")
+        .withOptionalArg()
+        .defaultsTo("false")
+        .describedAs("true/false");
+    OptionSpec<String> fastSerdeResourcesOutputOpt = parser.accepts("fastSerdeResourcesOutput",
+            "Directory to put the fast serde registry service file. defaults to the output directory")
+        .withOptionalArg()
+        .describedAs("dir");
+
     //allow plugins to add CLI options
     for (BuilderPlugin plugin : plugins) {
       plugin.customizeCLI(parser);
@@ -227,6 +239,17 @@ public class SchemaBuilder {
       skipCodegenIfSchemaOnClasspath = Boolean.TRUE.equals(Boolean.parseBoolean(value));
     }
 
+    boolean generateFastSerde = false;
+    if (options.has(generateFastSerdeOpt)) {
+      String value = options.valueOf(generateFastSerdeOpt);
+      generateFastSerde = Boolean.TRUE.equals(Boolean.parseBoolean(value));
+    }
+
+    File fastSerdeResourcesOutputDir = outputDir;
+    if (options.has(fastSerdeResourcesOutputOpt)) {
+      fastSerdeResourcesOutputDir = new File(options.valueOf(fastSerdeResourcesOutputOpt));
+    }
+
     //allow plugins to parse and validate their own added options
     for (BuilderPlugin plugin : plugins) {
       plugin.parseAndValidateOptions(options);
@@ -267,6 +290,10 @@ public class SchemaBuilder {
     }
     context.add(op);
 
+    if (generateFastSerde) {
+      context.add(new FastSerdeCodeGenOp(opConfig, fastSerdeResourcesOutputDir));
+    }
+
     //allow plugins to add operations
     for (BuilderPlugin plugin : plugins) {
       plugin.createOperations(context);
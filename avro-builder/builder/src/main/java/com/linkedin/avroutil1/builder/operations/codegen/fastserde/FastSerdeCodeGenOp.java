@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 LinkedIn Corp.
+ * Licensed under the BSD 2-Clause License (the "License").
+ * See License in the project root for license information.
+ */
+
+package com.linkedin.avroutil1.builder.operations.codegen.fastserde;
+
+import com.linkedin.avro.fastserde.FastSerdeSourceGenerator;
+import com.linkedin.avroutil1.builder.operations.Operation;
+import com.linkedin.avroutil1.builder.operations.OperationContext;
+import com.linkedin.avroutil1.builder.operations.codegen.CodeGenOpConfig;
+import com.linkedin.avroutil1.builder.operations.codegen.vanilla.ClasspathSchemaSet;
+import com.linkedin.avroutil1.builder.operations.codegen.vanilla.FileSystemSchemaSetProvider;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import org.apache.avro.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * generates fast serializers and deserializers (see avro-fastserde) for the top level record schemas, along with
+ * the registry through which FastSerdeCache picks them up at runtime instead of generating and compiling them.
+ * the generated classes are only used at runtime by the same major avro version as the one used at build time.
+ */
+public class FastSerdeCodeGenOp implements Operation {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeCodeGenOp.class);
+
+  private final CodeGenOpConfig config;
+  private final File outputResourcesRoot;
+
+  /**
+   * @param config code generation config, fast serde sources are written along with the specific record classes
+   * @param outputResourcesRoot root folder for the registry service file
+   */
+  public FastSerdeCodeGenOp(CodeGenOpConfig config, File outputResourcesRoot) {
+    this.config = config;
+    this.outputResourcesRoot = outputResourcesRoot;
+  }
+
+  @Override
+  public void run(OperationContext opContext) throws Exception {
+    //mkdir any output folders that dont exist
+    if (!outputResourcesRoot.exists() && !outputResourcesRoot.mkdirs()) {
+      throw new IllegalStateException("unable to create destination folder " + outputResourcesRoot);
+    }
+
+    ClasspathSchemaSet cpLookup = null;
+    if (config.isIncludeClasspath()) {
+      cpLookup = new ClasspathSchemaSet();
+    }
+
+    FileSystemSchemaSetProvider provider = new FileSystemSchemaSetProvider(
+        config.getInputRoots(),
+        config.getNonImportableSourceRoots(),
+        FileSystemSchemaSetProvider.DEFAULT_SCHEMA_SUFFIX,
+        cpLookup
+    );
+
+    List<Schema> schemas = provider.loadSchemas(true).getAll();
+    //schemas found on the classpath come with their own fast serde classes, if any
+    schemas.removeAll(cpLookup != null ? cpLookup.getAll() : Collections.emptyList());
+
+    FastSerdeSourceGenerator generator = new FastSerdeSourceGenerator();
+    int count = 0;
+    for (Schema schema : schemas) {
+      if (schema.getType() != Schema.Type.RECORD) {
+        continue;
+      }
+      generator.addSpecificDeserializer(schema, schema);
+      generator.addGenericDeserializer(schema, schema);
+      generator.addSpecificSerializer(schema);
+      generator.addGenericSerializer(schema);
+      count++;
+    }
+
+    LOGGER.info("Writing fast serde classes for {} record schemas, registered by {}", count,
+        generator.getRegistryClassName());
+    generator.writeTo(config.getOutputSpecificRecordClassesRoot(), outputResourcesRoot);
+  }
+}
@@ -6,14 +6,21 @@
 
 package com.linkedin.avroutil1.builder;
 
+import com.linkedin.avro.fastserde.FastDeserializerGeneratorBase;
+import com.linkedin.avro.fastserde.FastSerdeSourceGenerator;
+import com.linkedin.avro.fastserde.FastSerializerGenerator;
 import com.linkedin.avroutil1.builder.operations.codegen.CodeGenerator;
 import java.io.File;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import org.apache.avro.Schema;
 import org.apache.commons.io.FileUtils;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -42,6 +49,52 @@ public class SchemaBuilderTest {
     Assert.assertEquals(javaFiles.size(), 2);
   }
 
+  @Test
+  public void testSimpleProjectWithFastSerde() throws Exception {
+    File simpleProjectRoot = new File(locateTestProjectsRoot(), "simple-project");
+    File inputFolder = new File(simpleProjectRoot, "input");
+    File outputFolder = new File(simpleProjectRoot, "output");
+    File resourcesFolder = new File(simpleProjectRoot, "output-resources");
+    for (File folder : new File[] {outputFolder, resourcesFolder}) {
+      if (folder.exists()) { //clear output
+        FileUtils.deleteDirectory(folder);
+      }
+    }
+    //run the builder
+    SchemaBuilder.main(new String[] {
+        "--input", inputFolder.getAbsolutePath(),
+        "--output", outputFolder.getAbsolutePath(),
+        "--generateFastSerde", Boolean.toString(true),
+        "--fastSerdeResourcesOutput", resourcesFolder.getAbsolutePath()
+    });
+    //see the registry was written to the resources folder
+    File serviceFile = new File(resourcesFolder, FastSerdeSourceGenerator.REGISTRY_SERVICE_FILE);
+    Assert.assertTrue(serviceFile.isFile());
+    String registryClassName = new String(Files.readAllBytes(serviceFile.toPath()), StandardCharsets.UTF_8).trim();
+    File registrySource = new File(outputFolder, registryClassName.replace('.', File.separatorChar) + ".java");
+    Assert.assertTrue(registrySource.isFile());
+    //see the registered classes were generated along with the specific records
+    Set<String> fastSerdeClassNames = new HashSet<>();
+    Schema.Parser parser = new Schema.Parser();
+    for (String schemaFile : new String[] {"NestedRecord.avsc", "SimpleRecord.avsc"}) {
+      Schema schema = parser.parse(new File(inputFolder, schemaFile));
+      fastSerdeClassNames.add(FastDeserializerGeneratorBase.getClassFullName(schema, schema, "Specific"));
+      fastSerdeClassNames.add(FastDeserializerGeneratorBase.getClassFullName(schema, schema, "Generic"));
+      fastSerdeClassNames.add(FastSerializerGenerator.getClassFullName(schema, "Specific"));
+      fastSerdeClassNames.add(FastSerializerGenerator.getClassFullName(schema, "Generic"));
+    }
+    String registry = new String(Files.readAllBytes(registrySource.toPath()), StandardCharsets.UTF_8);
+    for (String className : fastSerdeClassNames) {
+      Assert.assertTrue(registry.contains("\"" + className + "\""), className + " is not registered");
+      Assert.assertTrue(new File(outputFolder, className.replace('.', File.separatorChar) + ".java").isFile(),
+          className + " was not generated");
+    }
+    List<Path> javaFiles = Files.find(outputFolder.toPath(), 10,
+        (path, basicFileAttributes) -> path.getFileName().toString().endsWith(".java")
+    ).collect(Collectors.toList());
+    Assert.assertEquals(javaFiles.size(), 2 + fastSerdeClassNames.size() + 1);
+  }
+
   @Test
   public void testSimpleProjectWithPlugin() throws Exception {
     File simpleProjectRoot = new File(locateTestProjectsRoot(), "simple-project");
@@ -38,4 +38,51 @@ public class BufferBackedPrimitiveFloatListTest {
     //invalidate cache and return value, we need to make sure we read values correctly
     Assert.assertEquals(list.remove(2), 3.0f);
     }
+
+  @Test
+  public void testPrimitiveDoubleArrayReadInBlocks() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Encoder binaryEncoder = AvroCompatibilityHelper.newBinaryEncoder(baos, true, null);
+    binaryEncoder.writeArrayStart();
+    binaryEncoder.setItemCount(2);
+    binaryEncoder.startItem();
+    binaryEncoder.writeDouble(1.0);
+    binaryEncoder.startItem();
+    binaryEncoder.writeDouble(2.0);
+    binaryEncoder.setItemCount(1);
+    binaryEncoder.startItem();
+    binaryEncoder.writeDouble(3.0);
+    binaryEncoder.writeArrayEnd();
+    binaryEncoder.flush();
+
+    BinaryDecoder decoder = DecoderFactory.defaultFactory().createBinaryDecoder(baos.toByteArray(), null);
+    BufferBackedPrimitiveDoubleList list = (BufferBackedPrimitiveDoubleList) BufferBackedPrimitiveDoubleList
+        .readPrimitiveDoubleArray(new Object(), decoder);
+    // elements of every block are read from the byte buffers, before and after being cached
+    Assert.assertEquals(list.getPrimitive(2), 3.0);
+    Assert.assertEquals(list.getPrimitive(1), 2.0);
+    Assert.assertEquals(list.remove(0), Double.valueOf(1.0));
+    Assert.assertEquals(list, Arrays.asList(2.0, 3.0));
+  }
+
+  @Test
+  public void testReverseAndPeekOnlyTouchTheElementsOfTheList() {
+    BufferBackedPrimitiveDoubleList list = new BufferBackedPrimitiveDoubleList(4);
+    list.addPrimitive(1.0);
+    list.addPrimitive(2.0);
+    list.addPrimitive(3.0);
+    list.reverse();
+    Assert.assertEquals(list, Arrays.asList(3.0, 2.0, 1.0));
+
+    list.addPrimitive(4.0);
+    // the list is full, so there is no element to peek
+    Assert.assertNull(list.peek());
+    Assert.assertEquals(list.peekPrimitive(), 0.0);
+
+    BufferBackedPrimitiveFloatList floatList = new BufferBackedPrimitiveFloatList(Arrays.asList(1.0f, 2.0f));
+    floatList.reverse();
+    Assert.assertEquals(floatList, Arrays.asList(2.0f, 1.0f));
+    Assert.assertNull(floatList.peek());
+    Assert.assertEquals(floatList.peekPrimitive(), 0.0f);
+  }
 }
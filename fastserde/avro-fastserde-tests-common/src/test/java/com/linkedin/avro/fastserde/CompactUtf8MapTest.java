@@ -0,0 +1,49 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.avro.util.Utf8;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class CompactUtf8MapTest {
+  @Test
+  public void testBehavesLikeHashMap() {
+    Map<Utf8, Integer> compactMap = new CompactUtf8Map<>(1);
+    Map<Utf8, Integer> expectedMap = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      compactMap.put(new Utf8("key" + i), i);
+      expectedMap.put(new Utf8("key" + i), i);
+    }
+    for (int i = 0; i < 1000; i += 3) {
+      Assert.assertEquals(compactMap.remove(new Utf8("key" + i)), expectedMap.remove(new Utf8("key" + i)));
+    }
+    compactMap.put(new Utf8("key1"), -1);
+    expectedMap.put(new Utf8("key1"), -1);
+
+    Assert.assertEquals(compactMap, expectedMap);
+    Assert.assertEquals(compactMap.hashCode(), expectedMap.hashCode());
+    Assert.assertEquals(compactMap.get("key1"), Integer.valueOf(-1));
+    Assert.assertNull(compactMap.get(new Utf8("key0")));
+  }
+
+  @Test
+  public void testRefillDropsTheEntriesNotPutAgain() {
+    CompactUtf8Map<Integer> compactMap = new CompactUtf8Map<>();
+    for (int i = 0; i < 100; i++) {
+      compactMap.put(new Utf8("key" + i), i);
+    }
+
+    compactMap.startRefill();
+    for (int i = 0; i < 100; i += 2) {
+      compactMap.put(new Utf8("key" + i), -i);
+    }
+    compactMap.endRefill();
+
+    Assert.assertEquals(compactMap.size(), 50);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(compactMap.get(new Utf8("key" + i)), i % 2 == 0 ? Integer.valueOf(-i) : null);
+    }
+  }
+}
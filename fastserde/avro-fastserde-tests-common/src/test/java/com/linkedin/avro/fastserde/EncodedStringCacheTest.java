@@ -0,0 +1,36 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.util.Utf8;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class EncodedStringCacheTest {
+  @Test
+  public void testWritesTheSameBytesAsTheEncoder() throws IOException {
+    String[] strings = {"", "active", "\u00e9t\u00e9", new String(new char[100]).replace('\0', 'x'),
+        new String(new char[1000]).replace('\0', 'y')};
+    EncodedStringCache cache = new EncodedStringCache(2);
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    BinaryEncoder expectedEncoder = AvroCompatibilityHelper.newBinaryEncoder(expected, false, null);
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    BinaryEncoder actualEncoder = AvroCompatibilityHelper.newBinaryEncoder(actual, false, null);
+    for (int i = 0; i < 2; i++) {
+      for (String string : strings) {
+        expectedEncoder.writeString(string);
+        cache.writeString(string, actualEncoder);
+        cache.writeString(new Utf8(string), actualEncoder);
+        expectedEncoder.writeString(new Utf8(string));
+      }
+    }
+    expectedEncoder.flush();
+    actualEncoder.flush();
+
+    Assert.assertEquals(actual.toByteArray(), expected.toByteArray());
+  }
+}
@@ -5,9 +5,12 @@ import com.linkedin.avro.fastserde.generated.avro.TestRecord;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
 import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
@@ -80,4 +83,49 @@ public class FastDatumWriterTest {
     Assert.assertTrue(fastGenericDatumWriter.isFastSerializerUsed(), "FastGenericDatumWriter should be using"
         + " Fast Serializer when the fast deserializer generation is done.");
   }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteAndReadBatches() throws Exception {
+    // given
+    Schema recordSchema = createRecord("BatchSchema", createPrimitiveFieldSchema("id", Schema.Type.INT),
+        createPrimitiveUnionFieldSchema("name", Schema.Type.STRING));
+    FastSerializer<?> fastSerializer = cache.buildFastGenericSerializer(recordSchema);
+    FastDeserializer<?> fastDeserializer = cache.buildFastGenericDeserializer(recordSchema, recordSchema);
+    // the batch loops are generated into the classes, rather than inherited from the interfaces
+    Assert.assertEquals(fastSerializer.getClass().getMethod("serializeBatch", List.class).getDeclaringClass(),
+        fastSerializer.getClass());
+    Assert.assertEquals(
+        fastDeserializer.getClass().getMethod("deserializeBatch", List.class, List.class).getDeclaringClass(),
+        fastDeserializer.getClass());
+    FastGenericDatumWriter<GenericRecord> fastGenericDatumWriter = new FastGenericDatumWriter<>(recordSchema, cache);
+    FastGenericDatumReader<GenericRecord> fastGenericDatumReader = new FastGenericDatumReader<>(recordSchema, cache);
+    List<GenericRecord> records = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      GenericRecord record = new GenericData.Record(recordSchema);
+      record.put("id", i);
+      record.put("name", i % 2 == 0 ? null : "record" + i);
+      records.add(record);
+    }
+
+    // when
+    List<byte[]> serializedRecords = fastGenericDatumWriter.writeBatch(records);
+    List<GenericRecord> firstBatch = fastGenericDatumReader.readBatch(serializedRecords, null);
+    List<GenericRecord> secondBatch = fastGenericDatumReader.readBatch(serializedRecords, firstBatch.subList(0, 5));
+
+    // then
+    Assert.assertEquals(serializedRecords.size(), records.size());
+    Assert.assertEquals(secondBatch.size(), records.size());
+    for (int i = 0; i < records.size(); i++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, null);
+      fastGenericDatumWriter.write(records.get(i), encoder);
+      encoder.flush();
+      Assert.assertEquals(serializedRecords.get(i), out.toByteArray());
+      Assert.assertEquals(firstBatch.get(i).get("id"), i);
+      Assert.assertEquals(String.valueOf(secondBatch.get(i).get("name")), i % 2 == 0 ? "null" : "record" + i);
+      if (i < 5) {
+        Assert.assertSame(secondBatch.get(i), firstBatch.get(i));
+      }
+    }
+  }
 }
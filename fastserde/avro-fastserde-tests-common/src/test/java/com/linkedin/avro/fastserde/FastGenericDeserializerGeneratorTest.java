@@ -1396,6 +1396,314 @@ public class FastGenericDeserializerGeneratorTest {
     Assert.assertEquals(mapA.get(new Utf8("two")).get("someInt"), 1);
   }
 
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadTopLevelSimpleTypes(Implementation implementation) {
+    // given
+    Schema longSchema = Schema.create(Schema.Type.LONG);
+    Schema stringSchema = Schema.create(Schema.Type.STRING);
+    Schema enumSchema = createEnumSchema("topLevelEnum", new String[]{"A", "B"});
+    Schema fixedSchema = createFixedSchema("topLevelFixed", 2);
+    Schema unionSchema = createUnionSchema(longSchema, stringSchema);
+
+    // when & then
+    Assert.assertEquals(implementation.decode(longSchema, longSchema, genericDataAsDecoder(42L, longSchema)),
+        Long.valueOf(42L));
+    Assert.assertEquals(
+        implementation.decode(stringSchema, stringSchema, genericDataAsDecoder(new Utf8("key"), stringSchema)).toString(),
+        "key");
+    Assert.assertEquals(implementation.decode(enumSchema, enumSchema,
+        genericDataAsDecoder(AvroCompatibilityHelper.newEnumSymbol(enumSchema, "B"), enumSchema)).toString(), "B");
+    GenericData.Fixed fixed = implementation.decode(fixedSchema, fixedSchema,
+        genericDataAsDecoder(newFixed(fixedSchema, new byte[]{0x01, 0x02}), fixedSchema));
+    Assert.assertEquals(fixed.bytes(), new byte[]{0x01, 0x02});
+    Assert.assertEquals(implementation.decode(unionSchema, unionSchema, genericDataAsDecoder(42L, unionSchema)),
+        Long.valueOf(42L));
+    Assert.assertEquals(
+        implementation.decode(unionSchema, unionSchema, genericDataAsDecoder(new Utf8("key"), unionSchema)).toString(),
+        "key");
+    Assert.assertEquals(implementation.decode(stringSchema, unionSchema, genericDataAsDecoder(new Utf8("key"), stringSchema)).toString(),
+        "key");
+  }
+
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadBytesAsSlicesOfTheSourceWithZeroCopyDecoder(Implementation implementation) {
+    // given
+    Schema fixedSchema = createFixedSchema("testFixed", 2);
+    Schema recordSchema = createRecord(
+        createPrimitiveFieldSchema("testString", Schema.Type.STRING),
+        createField("testBytes", Schema.create(Schema.Type.BYTES)),
+        createPrimitiveUnionFieldSchema("testBytesUnion", Schema.Type.BYTES),
+        createField("testFixed", fixedSchema),
+        createPrimitiveFieldSchema("testLong", Schema.Type.LONG));
+
+    GenericRecord record = new GenericData.Record(recordSchema);
+    record.put("testString", "aaa");
+    record.put("testBytes", ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+    record.put("testBytesUnion", ByteBuffer.wrap(new byte[]{0x03, 0x04, 0x05}));
+    record.put("testFixed", newFixed(fixedSchema, new byte[]{0x06, 0x07}));
+    record.put("testLong", -100_000_000_000L);
+    byte[] source = genericDataAsBytes(record, recordSchema);
+
+    // when
+    GenericRecord decodedRecord = implementation.decode(recordSchema, recordSchema, new ZeroCopyBinaryDecoder(source));
+
+    // then
+    Assert.assertEquals(decodedRecord.get("testString").toString(), "aaa");
+    Assert.assertEquals(decodedRecord.get("testBytes"), ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+    Assert.assertEquals(decodedRecord.get("testBytesUnion"), ByteBuffer.wrap(new byte[]{0x03, 0x04, 0x05}));
+    Assert.assertEquals(((GenericData.Fixed) decodedRecord.get("testFixed")).bytes(), new byte[]{0x06, 0x07});
+    Assert.assertEquals(decodedRecord.get("testLong"), -100_000_000_000L);
+
+    ByteBuffer bytes = (ByteBuffer) decodedRecord.get("testBytes");
+    ByteBuffer copy = ZeroCopyBinaryDecoder.copyOf(bytes);
+    Assert.assertTrue(bytes.isReadOnly());
+    // the slice sees changes of the source, its copy doesn't
+    Arrays.fill(source, (byte) 0);
+    Assert.assertEquals(bytes, ByteBuffer.wrap(new byte[]{0x00, 0x00}));
+    Assert.assertEquals(copy, ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldRefillReusedStringsWithZeroCopyDecoder() throws IOException {
+    // given
+    Utf8 reusedString = new Utf8("a longer string than the next one");
+    byte[] source = genericDataAsBytes("short", Schema.create(Schema.Type.STRING));
+
+    // when
+    Utf8 decodedString = new ZeroCopyBinaryDecoder(source).readString(reusedString);
+
+    // then
+    Assert.assertSame(decodedString, reusedString);
+    Assert.assertEquals(decodedString.toString(), "short");
+    Assert.assertEquals(new ZeroCopyBinaryDecoder(source).readString(null), new Utf8("short"));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldNotDecodeIntoReadOnlyBytesWhenReusing() throws IOException {
+    // given
+    Schema recordSchema = createRecord(createField("testBytes", Schema.create(Schema.Type.BYTES)));
+    GenericRecord record = new GenericData.Record(recordSchema);
+    record.put("testBytes", ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+    FastDeserializer<GenericRecord> deserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader,
+            null).generateDeserializer();
+    GenericRecord reuse = deserializer.deserialize(null,
+        new ZeroCopyBinaryDecoder(genericDataAsBytes(record, recordSchema)));
+
+    // when
+    GenericRecord decodedRecord = deserializer.deserialize(reuse, genericDataAsDecoder(record));
+
+    // then
+    Assert.assertEquals(decodedRecord.get("testBytes"), ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldRefillReusedCompactMaps() throws IOException {
+    // given
+    Schema recordSchema = Schema.parse("{\"type\":\"record\",\"name\":\"compactMapRecord\",\"fields\":["
+        + "{\"name\":\"attributes\",\"type\":{\"type\":\"map\",\"values\":\"string\","
+        + "\"" + SchemaAssistant.COMPACT_MAP_PROP + "\":\"true\"}}]}");
+    Map<String, String> firstAttributes = new HashMap<>();
+    firstAttributes.put("kept", "first");
+    firstAttributes.put("dropped", "first");
+    Map<String, String> secondAttributes = new HashMap<>();
+    secondAttributes.put("kept", "second");
+    secondAttributes.put("added", "second");
+    GenericRecord firstRecord = new GenericData.Record(recordSchema);
+    firstRecord.put("attributes", firstAttributes);
+    GenericRecord secondRecord = new GenericData.Record(recordSchema);
+    secondRecord.put("attributes", secondAttributes);
+    FastDeserializer<GenericRecord> deserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader,
+            null).generateDeserializer();
+
+    // when
+    GenericRecord reuse = deserializer.deserialize(null, genericDataAsDecoder(firstRecord));
+    Map<?, ?> firstMap = (Map<?, ?>) reuse.get("attributes");
+    Object keptKey = firstMap.keySet().stream().filter(key -> key.toString().equals("kept")).findFirst().get();
+    Object keptValue = firstMap.get(new Utf8("kept"));
+    GenericRecord decodedRecord = deserializer.deserialize(reuse, genericDataAsDecoder(secondRecord));
+
+    // then
+    Map<?, ?> secondMap = (Map<?, ?>) decodedRecord.get("attributes");
+    GenericRecord expectedRecord = decodeRecordSlow(recordSchema, recordSchema, genericDataAsDecoder(secondRecord));
+    Assert.assertTrue(firstMap instanceof CompactUtf8Map);
+    Assert.assertSame(secondMap, firstMap);
+    Assert.assertEquals(secondMap, expectedRecord.get("attributes"));
+    Assert.assertSame(secondMap.keySet().stream().filter(key -> key.toString().equals("kept")).findFirst().get(),
+        keptKey);
+    Assert.assertSame(secondMap.get(new Utf8("kept")), keptValue);
+    Assert.assertEquals(secondMap.get(new Utf8("kept")), new Utf8("second"));
+    Assert.assertFalse(secondMap.containsKey(new Utf8("dropped")));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldReuseValuesOfReusedMaps() throws IOException {
+    // given
+    Schema valueSchema = createRecord("mapValue", createField("count", Schema.create(Schema.Type.INT)));
+    Schema recordSchema = createRecord("mapRecord", createField("attributes", Schema.createMap(valueSchema)));
+    GenericRecord firstRecord = new GenericData.Record(recordSchema);
+    firstRecord.put("attributes", mapOfCounts(valueSchema, "kept", 1, "dropped", 2));
+    GenericRecord secondRecord = new GenericData.Record(recordSchema);
+    secondRecord.put("attributes", mapOfCounts(valueSchema, "kept", 3, "added", 4));
+    FastDeserializer<GenericRecord> deserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader,
+            null).generateDeserializer();
+
+    // when
+    GenericRecord reuse = deserializer.deserialize(null, genericDataAsDecoder(firstRecord));
+    Map<?, ?> firstMap = (Map<?, ?>) reuse.get("attributes");
+    Object keptValue = firstMap.get(new Utf8("kept"));
+    Object droppedValue = firstMap.get(new Utf8("dropped"));
+    GenericRecord decodedRecord = deserializer.deserialize(reuse, genericDataAsDecoder(secondRecord));
+
+    // then
+    Map<?, ?> secondMap = (Map<?, ?>) decodedRecord.get("attributes");
+    GenericRecord expectedRecord = decodeRecordSlow(recordSchema, recordSchema, genericDataAsDecoder(secondRecord));
+    Assert.assertSame(secondMap, firstMap);
+    Assert.assertEquals(secondMap, expectedRecord.get("attributes"));
+    Assert.assertSame(secondMap.get(new Utf8("kept")), keptValue);
+    Assert.assertEquals(((GenericRecord) keptValue).get("count"), 3);
+    Assert.assertNotSame(secondMap.get(new Utf8("added")), droppedValue);
+    Assert.assertFalse(secondMap.containsKey(new Utf8("dropped")));
+  }
+
+  private static Map<String, GenericRecord> mapOfCounts(Schema valueSchema, String firstKey, int firstCount,
+      String secondKey, int secondCount) {
+    Map<String, GenericRecord> map = new HashMap<>();
+    GenericRecord firstValue = new GenericData.Record(valueSchema);
+    firstValue.put("count", firstCount);
+    map.put(firstKey, firstValue);
+    GenericRecord secondValue = new GenericData.Record(valueSchema);
+    secondValue.put("count", secondCount);
+    map.put(secondKey, secondValue);
+    return map;
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldReadInternedStringsAsSharedInstances() throws IOException {
+    // given
+    Schema writerSchema = createRecord("internedRecord", createField("status", Schema.create(Schema.Type.STRING)),
+        createField("name", Schema.create(Schema.Type.STRING)));
+    Schema readerSchema = Schema.parse("{\"type\":\"record\",\"name\":\"internedRecord\",\"fields\":["
+        + "{\"name\":\"status\",\"type\":{\"type\":\"string\",\"" + SchemaAssistant.INTERNED_STRING_PROP + "\":\"true\"}},"
+        + "{\"name\":\"name\",\"type\":\"string\"}]}");
+    GenericRecord firstRecord = new GenericData.Record(writerSchema);
+    firstRecord.put("status", "active");
+    firstRecord.put("name", "first");
+    GenericRecord secondRecord = new GenericData.Record(writerSchema);
+    secondRecord.put("status", "active");
+    secondRecord.put("name", "second");
+    FastDeserializer<GenericRecord> deserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(writerSchema, readerSchema, tempDir, classLoader,
+            null).generateDeserializer();
+
+    // when
+    GenericRecord firstDecodedRecord = deserializer.deserialize(null, genericDataAsDecoder(firstRecord));
+    Object firstStatus = firstDecodedRecord.get("status");
+    GenericRecord secondDecodedRecord = deserializer.deserialize(firstDecodedRecord, genericDataAsDecoder(secondRecord));
+
+    // then
+    GenericRecord expectedRecord = decodeRecordSlow(writerSchema, readerSchema, genericDataAsDecoder(secondRecord));
+    Assert.assertSame(secondDecodedRecord.get("status"), firstStatus);
+    Assert.assertEquals(secondDecodedRecord.get("status"), expectedRecord.get("status"));
+    Assert.assertEquals(secondDecodedRecord.get("name"), expectedRecord.get("name"));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldReadLazyRecordsLikeVanilla() throws IOException {
+    // given
+    Schema writerSchema = Schema.parse("{\"type\":\"record\",\"name\":\"lazyRecord\",\"fields\":["
+        + "{\"name\":\"testInt\",\"type\":\"int\"},"
+        + "{\"name\":\"testDropped\",\"type\":{\"type\":\"array\",\"items\":\"string\"}},"
+        + "{\"name\":\"testBytes\",\"type\":\"bytes\"},"
+        + "{\"name\":\"testUnion\",\"type\":[\"null\",\"string\"]},"
+        + "{\"name\":\"testRecord\",\"type\":{\"type\":\"record\",\"name\":\"subRecord\",\"fields\":["
+        + "{\"name\":\"subField\",\"type\":\"long\"}]}},"
+        + "{\"name\":\"testMap\",\"type\":{\"type\":\"map\",\"values\":\"double\"}}]}");
+    Schema readerSchema = Schema.parse("{\"type\":\"record\",\"name\":\"lazyRecord\",\"fields\":["
+        + "{\"name\":\"testMap\",\"type\":{\"type\":\"map\",\"values\":\"double\"}},"
+        + "{\"name\":\"testInt\",\"type\":\"long\"},"
+        + "{\"name\":\"testBytes\",\"type\":\"bytes\"},"
+        + "{\"name\":\"testUnion\",\"type\":[\"null\",\"string\"]},"
+        + "{\"name\":\"testDefault\",\"type\":\"int\",\"default\":42},"
+        + "{\"name\":\"testRecord\",\"type\":{\"type\":\"record\",\"name\":\"subRecord\",\"fields\":["
+        + "{\"name\":\"subField\",\"type\":\"long\"}]}}]}");
+
+    GenericRecord subRecord = new GenericData.Record(writerSchema.getField("testRecord").schema());
+    subRecord.put("subField", 7L);
+    GenericRecord record = new GenericData.Record(writerSchema);
+    record.put("testInt", 1);
+    record.put("testDropped", Arrays.asList("a", "b"));
+    record.put("testBytes", ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+    record.put("testUnion", "aaa");
+    record.put("testRecord", subRecord);
+    record.put("testMap", Collections.singletonMap("key", 1.0));
+    byte[] source = genericDataAsBytes(record, writerSchema);
+
+    FastDeserializer<GenericRecord> deserializer =
+        new FastLazyGenericDeserializerGenerator<GenericRecord>(writerSchema, readerSchema, tempDir, classLoader,
+            null).generateDeserializer();
+
+    // when
+    ZeroCopyBinaryDecoder decoder = new ZeroCopyBinaryDecoder(source);
+    LazyGenericRecord lazyRecord = (LazyGenericRecord) deserializer.deserialize(null, decoder);
+
+    // then
+    Assert.assertTrue(decoder.isEnd());
+    Assert.assertEquals(lazyRecord.get("testUnion").toString(), "aaa");
+    Assert.assertTrue(lazyRecord.isDecoded(readerSchema.getField("testUnion").pos()));
+    Assert.assertFalse(lazyRecord.isDecoded(readerSchema.getField("testRecord").pos()));
+    Assert.assertEquals(lazyRecord.get("testInt"), 1L);
+    Assert.assertEquals(lazyRecord.get("testDefault"), 42);
+    Assert.assertEquals(((GenericRecord) lazyRecord.get("testRecord")).get("subField"), 7L);
+    GenericRecord vanillaRecord = decodeRecordSlow(writerSchema, readerSchema, genericDataAsDecoder(record));
+    Assert.assertEquals(lazyRecord.toString(), vanillaRecord.toString());
+    // equality is symmetric, so lazy records are only equal to other lazy records
+    Assert.assertFalse(lazyRecord.equals(vanillaRecord));
+    Assert.assertFalse(vanillaRecord.equals(lazyRecord));
+    Assert.assertEquals(lazyRecord, deserializer.deserialize(null, new ZeroCopyBinaryDecoder(source)));
+  }
+
+  @Test(groups = {"deserializationTest"}, expectedExceptions = IllegalArgumentException.class)
+  public void shouldOnlyReadLazyRecordsWithZeroCopyDecoder() throws IOException {
+    Schema recordSchema = createRecord(createField("testInt", Schema.create(Schema.Type.INT)));
+    GenericRecord record = new GenericData.Record(recordSchema);
+    record.put("testInt", 1);
+
+    new FastLazyGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader, null)
+        .generateDeserializer()
+        .deserialize(null, genericDataAsDecoder(record));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldReadLazyRecordsInBatches() throws IOException {
+    // given
+    Schema recordSchema = createRecord(createField("testInt", Schema.create(Schema.Type.INT)),
+        createField("testString", Schema.create(Schema.Type.STRING)));
+    List<byte[]> sources = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      GenericRecord record = new GenericData.Record(recordSchema);
+      record.put("testInt", i);
+      record.put("testString", "str" + i);
+      sources.add(genericDataAsBytes(record, recordSchema));
+    }
+    FastDeserializer<GenericRecord> deserializer =
+        new FastLazyGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader,
+            null).generateDeserializer();
+
+    // when
+    List<GenericRecord> records = deserializer.deserializeBatch(sources, null);
+
+    // then, each record is decoded lazily from its own source, after the whole batch was read
+    Assert.assertEquals(records.size(), 3);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(records.get(i) instanceof LazyGenericRecord);
+      Assert.assertEquals(records.get(i).get("testInt"), i);
+      Assert.assertEquals(records.get(i).get("testString").toString(), "str" + i);
+    }
+  }
+
   @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
   public void shouldBidirectionallyReadPrimitiveWithUnionPrimitive(Implementation implementation) {
     // given
@@ -168,6 +168,23 @@ public class FastGenericSerializerGeneratorTest {
     Assert.assertEquals("A", ((List<GenericData.EnumSymbol>) record.get("testEnumUnionArray")).get(0).toString());
   }
 
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteTopLevelSimpleTypes() {
+    // given
+    Schema longSchema = Schema.create(Schema.Type.LONG);
+    Schema stringSchema = Schema.create(Schema.Type.STRING);
+    Schema enumSchema = createEnumSchema("topLevelEnum", new String[]{"A", "B"});
+    Schema unionSchema = createUnionSchema(longSchema, stringSchema);
+
+    // when & then
+    Assert.assertEquals(decodeRecord(longSchema, dataAsBinaryDecoder(42L, longSchema)), Long.valueOf(42L));
+    Assert.assertEquals(decodeRecord(stringSchema, dataAsBinaryDecoder("key", stringSchema)).toString(), "key");
+    Assert.assertEquals(decodeRecord(enumSchema,
+        dataAsBinaryDecoder(AvroCompatibilityHelper.newEnumSymbol(enumSchema, "B"), enumSchema)).toString(), "B");
+    Assert.assertEquals(decodeRecord(unionSchema, dataAsBinaryDecoder(42L, unionSchema)), Long.valueOf(42L));
+    Assert.assertEquals(decodeRecord(unionSchema, dataAsBinaryDecoder("key", unionSchema)).toString(), "key");
+  }
+
   @Test(groups = {"serializationTest"})
   public void shouldWriteSubRecordField() {
     // given
@@ -218,6 +235,36 @@ public class FastGenericSerializerGeneratorTest {
     Assert.assertEquals(unionRecord.getSchema().getName(), "record2");
   }
 
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteRightUnionIndexWhetherOrNotTheBranchSchemaIsTheSameInstance() {
+    // given
+    Schema recordSchema1 = createRecord("record1", createField("record1_field1", Schema.create(Schema.Type.STRING)));
+    Schema recordSchema2 = createRecord("record2", createField("record2_field1", Schema.create(Schema.Type.STRING)));
+    Schema recordSchema3 = createRecord("record3", createField("record3_field1", Schema.create(Schema.Type.STRING)));
+    Schema recordWrapperSchema = createRecord(
+        createField("union_field", createUnionSchema(recordSchema1, recordSchema2, recordSchema3)),
+        createField("other_union_field", createUnionSchema(recordSchema1, recordSchema2, recordSchema3)));
+
+    GenericData.Record sameInstanceRecord = new GenericData.Record(recordSchema3);
+    sameInstanceRecord.put("record3_field1", "abc");
+    GenericData.Record equalCopyRecord = new GenericData.Record(Schema.parse(recordSchema2.toString()));
+    equalCopyRecord.put("record2_field1", "def");
+    GenericData.Record wrapperObject = new GenericData.Record(recordWrapperSchema);
+    wrapperObject.put("union_field", sameInstanceRecord);
+    wrapperObject.put("other_union_field", equalCopyRecord);
+
+    // when
+    GenericRecord record = decodeRecord(recordWrapperSchema, dataAsBinaryDecoder(wrapperObject));
+
+    // then
+    GenericRecord unionRecord = (GenericRecord) record.get("union_field");
+    Assert.assertEquals(unionRecord.getSchema().getName(), "record3");
+    Assert.assertEquals(unionRecord.get("record3_field1").toString(), "abc");
+    GenericRecord otherUnionRecord = (GenericRecord) record.get("other_union_field");
+    Assert.assertEquals(otherUnionRecord.getSchema().getName(), "record2");
+    Assert.assertEquals(otherUnionRecord.get("record2_field1").toString(), "def");
+  }
+
   @Test(groups = {"serializationTest"})
   public void shouldWriteSubRecordCollectionsField() {
     // given
@@ -558,6 +605,124 @@ public class FastGenericSerializerGeneratorTest {
     }
   }
 
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteCompactMapsLikeOtherMaps() {
+    // given
+    Schema mapSchema = Schema.parse("{\"type\":\"map\",\"values\":\"string\",\""
+        + SchemaAssistant.COMPACT_MAP_PROP + "\":\"true\"}");
+    Map<CharSequence, CharSequence> hashMap = new HashMap<>();
+    CompactUtf8Map<CharSequence> compactMap = new CompactUtf8Map<>();
+    for (int i = 0; i < 100; i++) {
+      hashMap.put("key" + i, "value" + i);
+      compactMap.put(new Utf8("key" + i), new Utf8("value" + i));
+    }
+
+    // when
+    Map<Utf8, Utf8> resultFromHashMap = decodeRecord(mapSchema, dataAsBinaryDecoder(hashMap, mapSchema));
+    Map<Utf8, Utf8> resultFromCompactMap = decodeRecord(mapSchema, dataAsBinaryDecoder(compactMap, mapSchema));
+
+    // then
+    Assert.assertEquals(resultFromHashMap.size(), 100);
+    Assert.assertEquals(resultFromCompactMap, resultFromHashMap);
+    Assert.assertEquals(resultFromCompactMap.get(new Utf8("key42")), new Utf8("value42"));
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteImmutableRecordsAndCachedStringsLikeOtherValues() {
+    // given
+    Schema headerSchema = createRecord("header", createField("source", Schema.create(Schema.Type.STRING)),
+        createPrimitiveFieldSchema("timestamp", Schema.Type.LONG));
+    Schema recordSchema = Schema.parse("{\"type\":\"record\",\"name\":\"message\",\"fields\":["
+        + "{\"name\":\"header\",\"type\":" + headerSchema + "},"
+        + "{\"name\":\"status\",\"type\":{\"type\":\"string\",\"" + SchemaAssistant.CACHED_ENCODING_PROP + "\":\"true\"}},"
+        + "{\"name\":\"tags\",\"type\":{\"type\":\"map\",\"values\":\"int\",\""
+        + SchemaAssistant.CACHED_ENCODING_PROP + "\":\"true\"}}]}");
+    Schema nestedHeaderSchema = recordSchema.getField("header").schema();
+    GenericData.Record header = new GenericData.Record(nestedHeaderSchema);
+    header.put("source", "fanout");
+    header.put("timestamp", 42L);
+    ImmutableGenericRecord immutableHeader = new ImmutableGenericRecord(header);
+    Map<String, Integer> tags = new HashMap<>();
+    tags.put("first", 1);
+    tags.put("second", 2);
+
+    // when
+    List<GenericRecord> decodedRecords = new ArrayList<>();
+    List<byte[]> encodedHeaders = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      GenericData.Record record = new GenericData.Record(recordSchema);
+      record.put("header", immutableHeader);
+      record.put("status", "active");
+      record.put("tags", tags);
+      decodedRecords.add(decodeRecord(recordSchema, dataAsBinaryDecoder(record)));
+      encodedHeaders.add(immutableHeader.getEncoded(nestedHeaderSchema));
+    }
+
+    // then
+    Assert.assertNotNull(encodedHeaders.get(0), "The header should be memoized by the first write");
+    Assert.assertSame(encodedHeaders.get(1), encodedHeaders.get(0), "The second write should reuse the memoized header");
+    Assert.assertThrows(UnsupportedOperationException.class, () -> immutableHeader.put("timestamp", 0L));
+    for (GenericRecord decodedRecord : decodedRecords) {
+      GenericRecord decodedHeader = (GenericRecord) decodedRecord.get("header");
+      Assert.assertEquals(decodedHeader.get("source").toString(), "fanout");
+      Assert.assertEquals(decodedHeader.get("timestamp"), 42L);
+      Assert.assertEquals(decodedRecord.get("status").toString(), "active");
+      Map<?, ?> decodedTags = (Map<?, ?>) decodedRecord.get("tags");
+      Assert.assertEquals(decodedTags.size(), 2);
+      Assert.assertEquals(decodedTags.get(new Utf8("second")), 2);
+    }
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteBlockedArraysAndMapsWhichCanBeSkippedAtOnce() throws Exception {
+    // given
+    Schema writerSchema = createRecord("BlockedRecord",
+        createPrimitiveFieldSchema("id", Schema.Type.INT),
+        createArrayFieldSchema("events", Schema.create(Schema.Type.LONG)),
+        createMapFieldSchema("tags", Schema.create(Schema.Type.STRING)),
+        createPrimitiveFieldSchema("name", Schema.Type.STRING));
+    Schema readerSchema = createRecord("BlockedRecord",
+        createPrimitiveFieldSchema("id", Schema.Type.INT),
+        createPrimitiveFieldSchema("name", Schema.Type.STRING));
+
+    List<Long> events = new ArrayList<>();
+    for (long i = 0; i < 10000; i++) {
+      events.add(i);
+    }
+    Map<String, String> tags = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      tags.put("key" + i, "value" + i);
+    }
+    GenericRecord record = new GenericData.Record(writerSchema);
+    record.put("id", 42);
+    record.put("events", events);
+    record.put("tags", tags);
+    record.put("name", "blocked");
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Encoder blockingEncoder = Utils.newBlockingBinaryEncoder(baos);
+    FastSerializer<GenericRecord> fastSerializer =
+        new FastGenericSerializerGenerator<GenericRecord>(writerSchema, tempDir, classLoader, null).generateSerializer();
+    fastSerializer.serialize(record, blockingEncoder);
+    blockingEncoder.flush();
+    byte[] bytes = baos.toByteArray();
+
+    // when
+    FastDeserializer<GenericRecord> projectingDeserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(writerSchema, readerSchema, tempDir, classLoader, null)
+            .generateDeserializer();
+    ZeroCopyBinaryDecoder decoder = new ZeroCopyBinaryDecoder(bytes);
+    GenericRecord projectedRecord = projectingDeserializer.deserialize(null, decoder);
+    GenericRecord wholeRecord = decodeRecord(writerSchema, DecoderFactory.defaultFactory().createBinaryDecoder(bytes, null));
+
+    // then
+    Assert.assertEquals(projectedRecord.get("id"), 42);
+    Assert.assertEquals(projectedRecord.get("name").toString(), "blocked");
+    Assert.assertTrue(decoder.isEnd());
+    Assert.assertEquals((List<?>) wholeRecord.get("events"), events);
+    Assert.assertEquals(((Map<?, ?>) wholeRecord.get("tags")).size(), tags.size());
+  }
+
   public <T extends GenericContainer> Decoder dataAsBinaryDecoder(T data) {
     return dataAsBinaryDecoder(data, data.getSchema());
   }
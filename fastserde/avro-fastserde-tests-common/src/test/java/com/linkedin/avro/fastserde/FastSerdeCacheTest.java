@@ -1,11 +1,25 @@
 package com.linkedin.avro.fastserde;
 
 import com.linkedin.avro.fastserde.generated.avro.TestRecord;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -14,10 +28,8 @@ public class FastSerdeCacheTest {
 
   @Test(groups = "deserializationTest")
   public void testIsSupportedForFastDeserializer() {
-    Set<Schema.Type> supportedSchemaTypes = new HashSet<>();
-    supportedSchemaTypes.add(Schema.Type.RECORD);
-    supportedSchemaTypes.add(Schema.Type.MAP);
-    supportedSchemaTypes.add(Schema.Type.ARRAY);
+    Set<Schema.Type> supportedSchemaTypes = EnumSet.allOf(Schema.Type.class);
+    supportedSchemaTypes.remove(Schema.Type.NULL);
 
     Map<Schema.Type, Schema> schemaTypes = new HashMap<>();
     /**
@@ -56,6 +68,14 @@ public class FastSerdeCacheTest {
     cache.buildFastGenericDeserializer(testRecord, testRecord);
   }
 
+  @Test(groups = "deserializationTest")
+  public void testFastLazyGenericDeserializerIsCachedPerSchemaPair() {
+    FastSerdeCache cache = new FastSerdeCache(null, (File) null);
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"test_record\", \"fields\":[]}");
+    FastDeserializer<?> deserializer = cache.buildFastLazyGenericDeserializer(testRecord, testRecord);
+    Assert.assertSame(cache.buildFastLazyGenericDeserializer(testRecord, testRecord), deserializer);
+  }
+
   @Test(groups = "deserializationTest")
   public void testBuildFastSpecificDeserializerSurviveFromWrongClasspath() throws Exception {
     String wrongClasspath = ".";
@@ -68,4 +88,344 @@ public class FastSerdeCacheTest {
     FastSerdeCache cache = FastSerdeCache.getDefaultInstance();
     cache.buildFastSpecificDeserializer(TestRecord.SCHEMA$, TestRecord.SCHEMA$);
   }
+
+  @Test(groups = "deserializationTest")
+  public void testBuildFastGenericDeserializerFromPersistentClassesDir() throws Exception {
+    File classesDir = Files.createTempDirectory("persistent-generated").toFile();
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"test_record\", \"fields\":[]}");
+    String classFullName = FastDeserializerGeneratorBase.getClassFullName(testRecord, testRecord, "Generic");
+
+    FastDeserializer<?> generated = new FastSerdeCache(null, classesDir).buildFastGenericDeserializer(testRecord, testRecord);
+    Assert.assertEquals(generated.getClass().getName(), classFullName);
+    File classFile = new File(new File(classesDir, "v" + FastSerdeBase.GENERATOR_VERSION),
+        classFullName.replace('.', File.separatorChar) + ".class");
+    Assert.assertTrue(classFile.isFile());
+
+    // a new cache (as after JVM restart) picks up the compiled class without generating it again
+    long lastModified = classFile.lastModified();
+    FastSerdeCache cache = new FastSerdeCache(null, classesDir);
+    FastDeserializer<?> loaded = cache.buildFastGenericDeserializer(testRecord, testRecord);
+    Assert.assertEquals(loaded.getClass().getName(), classFullName);
+    Assert.assertNotSame(loaded.getClass(), generated.getClass());
+    Assert.assertEquals(classFile.lastModified(), lastModified);
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer((FastDeserializer) cache.getFastGenericDeserializer(testRecord, testRecord)));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testBuildFastGenericDeserializerWithCustomCompiler() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(null, "", null, ToolProvider.getSystemJavaCompiler());
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"test_record\", \"fields\":[]}");
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.buildFastGenericDeserializer(testRecord, testRecord)));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testBuildFastGenericDeserializerWithServiceLoadedCompiler() throws Exception {
+    // as on runtimes without a system java compiler, the compiler is looked up among the registered services
+    JavaCompiler javaCompiler = FastSerdeCompiler.findJavaCompiler(null, getClass().getClassLoader());
+    Assert.assertNotNull(javaCompiler);
+
+    FastSerdeCache cache = new FastSerdeCache(null, "", null, javaCompiler);
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"service_loaded_record\", \"fields\":[]}");
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.buildFastGenericDeserializer(testRecord, testRecord)));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testVanillaDeserializerIsUsedWithoutAnyCompiler() {
+    // no system java compiler, and no compiler service visible from the bootstrap class loader
+    JavaCompiler javaCompiler = FastSerdeCompiler.findJavaCompiler(null, new URLClassLoader(new URL[0], null));
+    Assert.assertNull(javaCompiler);
+
+    List<Runnable> scheduledTasks = new ArrayList<>();
+    FastSerdeCache cache = new FastSerdeCache(scheduledTasks::add);
+    cache.setCompiler(new FastSerdeCompiler(javaCompiler));
+    List<Throwable> fallbacks = new ArrayList<>();
+    cache.setListener(new FastSerdeCacheListener() {
+      @Override
+      public void onFallback(CacheType cacheType, Schema writerSchema, Schema readerSchema, Throwable cause) {
+        fallbacks.add(cause);
+      }
+    });
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"no_compiler_record\", \"fields\":[]}");
+
+    Assert.assertFalse(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(testRecord, testRecord)));
+    // nothing gets generated nor scheduled, the fallback is immediate
+    Assert.assertTrue(scheduledTasks.isEmpty());
+    Assert.assertEquals(fallbacks.size(), 1);
+    Assert.assertTrue(fallbacks.get(0) instanceof FastSerdeGeneratorException);
+    Assert.assertFalse(cache.getFastGenericDeserializer(testRecord, testRecord).getClass().getName()
+        .startsWith(FastSerdeBase.GENERATED_PACKAGE_NAME_PREFIX));
+    Assert.assertThrows(FastDeserializerGeneratorException.class,
+        () -> cache.buildFastGenericDeserializer(testRecord, testRecord));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testFastDeserializersRequestedTogetherAreCompiledInOneBatch() {
+    List<Runnable> scheduledTasks = new ArrayList<>();
+    FastSerdeCache cache = new FastSerdeCache(scheduledTasks::add);
+    List<Schema> schemas = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      schemas.add(Schema.parse("{\"type\": \"record\", \"name\": \"batch_record_" + i + "\", \"fields\":[]}"));
+    }
+
+    for (Schema schema : schemas) {
+      Assert.assertFalse(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schema, schema)));
+    }
+    Assert.assertEquals(scheduledTasks.size(), 1);
+
+    scheduledTasks.get(0).run();
+    for (Schema schema : schemas) {
+      Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schema, schema)));
+    }
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testFastDeserializersAreEvictedBeyondMaxSize() {
+    // generated classes are never compiled, so that only the cold deserializers get cached
+    FastSerdeCache cache = new FastSerdeCache(task -> { }, "", null, null, 2);
+    List<Schema> schemas = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      schemas.add(Schema.parse("{\"type\": \"record\", \"name\": \"evicted_record_" + i + "\", \"fields\":[]}"));
+    }
+
+    for (Schema schema : schemas) {
+      cache.getFastGenericDeserializer(schema, schema);
+    }
+    Assert.assertEquals(cache.getEvictionCount(), 3);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testListenerIsNotifiedOfCacheLifecycle() {
+    List<String> events = new ArrayList<>();
+    FastSerdeCache cache = new FastSerdeCache(Runnable::run);
+    cache.setListener(new FastSerdeCacheListener() {
+      @Override
+      public void onCacheHit(CacheType cacheType) {
+        events.add("hit " + cacheType);
+      }
+
+      @Override
+      public void onCacheMiss(CacheType cacheType) {
+        events.add("miss " + cacheType);
+      }
+
+      @Override
+      public void onClassesCompiled(int classCount, long compilationNanos) {
+        events.add("compiled " + classCount);
+      }
+
+      @Override
+      public void onClassGenerated(String classFullName, long codeGenerationNanos, long classLoadingNanos, int classSize) {
+        Assert.assertTrue(classSize > 0);
+        events.add("generated");
+      }
+
+      @Override
+      public void onColdPathReplaced(CacheType cacheType, long callCount) {
+        events.add("replaced " + cacheType + " " + callCount);
+      }
+    });
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"listened_record\", \"fields\":[]}");
+
+    cache.getFastGenericDeserializer(testRecord, testRecord);
+    cache.getFastGenericDeserializer(testRecord, testRecord);
+
+    Assert.assertEquals(events, Arrays.asList("miss GENERIC_DESERIALIZER", "compiled 1", "generated",
+        "replaced GENERIC_DESERIALIZER 0", "hit GENERIC_DESERIALIZER"));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testFastDeserializerIsGeneratedOnceCompileThresholdIsReached() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(Runnable::run);
+    cache.setCompileThreshold(3, 0);
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"hot_record\", \"fields\":[{\"name\": \"f\", \"type\": \"int\"}]}");
+    GenericData.Record record = new GenericData.Record(schema);
+    record.put("f", 1);
+
+    for (int i = 0; i < 3; i++) {
+      FastDeserializer<GenericRecord> deserializer =
+          (FastDeserializer<GenericRecord>) cache.getFastGenericDeserializer(schema, schema);
+      Assert.assertFalse(FastSerdeCache.isFastDeserializer(deserializer));
+      Assert.assertEquals(deserializer.deserialize(FastSerdeTestsSupport.genericDataAsDecoder(record)).get("f"), 1);
+    }
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schema, schema)));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testCompileThresholdOnlySchedulesTheGeneration() throws Exception {
+    List<Runnable> scheduledTasks = new ArrayList<>();
+    FastSerdeCache cache = new FastSerdeCache(scheduledTasks::add);
+    cache.setCompileThreshold(2, 0);
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"scheduled_record\", \"fields\":[{\"name\": \"f\", \"type\": \"int\"}]}");
+    GenericData.Record record = new GenericData.Record(schema);
+    record.put("f", 1);
+
+    FastDeserializer<GenericRecord> deserializer =
+        (FastDeserializer<GenericRecord>) cache.getFastGenericDeserializer(schema, schema);
+    for (int i = 0; i < 2; i++) {
+      deserializer.deserialize(FastSerdeTestsSupport.genericDataAsDecoder(record));
+    }
+    // the call reaching the threshold doesn't generate anything itself
+    Assert.assertEquals(scheduledTasks.size(), 1);
+    Assert.assertFalse(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schema, schema)));
+
+    for (int i = 0; i < scheduledTasks.size(); i++) {
+      scheduledTasks.get(i).run();
+    }
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schema, schema)));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testPrewarmFromUsageManifest() throws Exception {
+    File manifest = new File(Files.createTempDirectory("usage-manifest").toFile(), "fast-serde-usage.tsv");
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"prewarmed_record\", \"fields\":[]}");
+
+    List<Runnable> scheduledTasks = new ArrayList<>();
+    FastSerdeCache recordingCache = new FastSerdeCache(scheduledTasks::add);
+    recordingCache.setUsageRecording(true);
+    recordingCache.getFastGenericDeserializer(schema, schema);
+    FastDeserializer<?> deserializer = recordingCache.getFastGenericDeserializer(schema, schema);
+    for (int i = 0; i < 3; i++) {
+      deserializer.deserialize(null, DecoderFactory.defaultFactory().createBinaryDecoder(new byte[0], null));
+    }
+    recordingCache.writeUsageManifest(manifest);
+
+    // calls are counted, lookups are not
+    List<FastSerdeUsageManifest.Usage> usages = FastSerdeUsageManifest.read(manifest);
+    Assert.assertEquals(usages.size(), 1);
+    Assert.assertEquals(usages.get(0).cacheType, FastSerdeCacheListener.CacheType.GENERIC_DESERIALIZER);
+    Assert.assertEquals(usages.get(0).getCount(), 3);
+    Assert.assertEquals(usages.get(0).readerSchema, schema);
+
+    // the next run generates the recorded deserializer before its first use
+    FastSerdeCache cache = new FastSerdeCache(Runnable::run);
+    Assert.assertTrue(cache.prewarm(manifest, 60_000));
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schema, schema)));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testUsageManifestOrderIsKeptAcrossRestarts() throws Exception {
+    File manifest = new File(Files.createTempDirectory("usage-manifest").toFile(), "fast-serde-usage.tsv");
+    Schema hotSchema = Schema.parse("{\"type\": \"record\", \"name\": \"hot_record\", \"fields\":[]}");
+    Schema warmSchema = Schema.parse("{\"type\": \"record\", \"name\": \"warm_record\", \"fields\":[]}");
+
+    FastSerdeCache firstRun = new FastSerdeCache(Runnable::run);
+    firstRun.setUsageRecording(true);
+    read(new FastGenericDatumReader<GenericRecord>(hotSchema, firstRun), 3);
+    read(new FastGenericDatumReader<GenericRecord>(warmSchema, firstRun), 1);
+    firstRun.writeUsageManifest(manifest);
+    assertUsages(FastSerdeUsageManifest.read(manifest), hotSchema, 3, warmSchema, 1);
+
+    // the next run never goes through the cold path, the previous counts are carried over and fast calls counted
+    FastSerdeCache secondRun = new FastSerdeCache(Runnable::run);
+    Assert.assertTrue(secondRun.prewarm(manifest, 60_000));
+    secondRun.setUsageRecording(true);
+    FastGenericDatumReader<GenericRecord> warmReader = new FastGenericDatumReader<>(warmSchema, secondRun);
+    read(warmReader, 1);
+    Assert.assertTrue(warmReader.isFastDeserializerUsed());
+    read(new FastGenericDatumReader<GenericRecord>(hotSchema, secondRun), 1);
+    secondRun.writeUsageManifest(manifest);
+    assertUsages(FastSerdeUsageManifest.read(manifest), hotSchema, 4, warmSchema, 2);
+  }
+
+  private static void read(FastGenericDatumReader<GenericRecord> reader, int times) throws Exception {
+    for (int i = 0; i < times; i++) {
+      reader.read(null, DecoderFactory.defaultFactory().createBinaryDecoder(new byte[0], null));
+    }
+  }
+
+  private static void assertUsages(List<FastSerdeUsageManifest.Usage> usages, Schema firstSchema, long firstCount,
+      Schema secondSchema, long secondCount) {
+    Assert.assertEquals(usages.size(), 2);
+    Assert.assertEquals(usages.get(0).readerSchema, firstSchema);
+    Assert.assertEquals(usages.get(0).getCount(), firstCount);
+    Assert.assertEquals(usages.get(1).readerSchema, secondSchema);
+    Assert.assertEquals(usages.get(1).getCount(), secondCount);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testProjectingDeserializerOnlyReadsTheGivenFields() throws Exception {
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"event\", \"fields\":["
+        + "{\"name\": \"header\", \"type\": {\"type\": \"record\", \"name\": \"header\", \"fields\":["
+        + "{\"name\": \"timestamp\", \"type\": \"long\"}, {\"name\": \"source\", \"type\": \"string\"}]}},"
+        + "{\"name\": \"blob\", \"type\": \"bytes\"},"
+        + "{\"name\": \"payload\", \"type\": [\"null\", {\"type\": \"record\", \"name\": \"payload\", \"fields\":["
+        + "{\"name\": \"tags\", \"type\": {\"type\": \"array\", \"items\": \"string\"}},"
+        + "{\"name\": \"user\", \"type\": {\"type\": \"record\", \"name\": \"user\", \"fields\":["
+        + "{\"name\": \"id\", \"type\": \"long\"}, {\"name\": \"name\", \"type\": \"string\"}]}}]}]}]}");
+    GenericData.Record header = new GenericData.Record(schema.getField("header").schema());
+    header.put("timestamp", 1234L);
+    header.put("source", "test");
+    Schema payloadSchema = schema.getField("payload").schema().getTypes().get(1);
+    GenericData.Record user = new GenericData.Record(payloadSchema.getField("user").schema());
+    user.put("id", 42L);
+    user.put("name", "someone");
+    GenericData.Record payload = new GenericData.Record(payloadSchema);
+    payload.put("tags", Arrays.asList("a", "b"));
+    payload.put("user", user);
+    GenericData.Record record = new GenericData.Record(schema);
+    record.put("header", header);
+    record.put("blob", ByteBuffer.wrap(new byte[1024]));
+    record.put("payload", payload);
+
+    FastSerdeCache cache = new FastSerdeCache(Runnable::run);
+    FastDeserializer<GenericRecord> deserializer = (FastDeserializer<GenericRecord>) cache.getProjectingDeserializer(
+        schema, new HashSet<>(Arrays.asList("header.timestamp", "payload.user.id")));
+    GenericRecord projected = deserializer.deserialize(FastSerdeTestsSupport.genericDataAsDecoder(record));
+
+    Schema projectedSchema = projected.getSchema();
+    Assert.assertEquals(projectedSchema.getFields().size(), 2);
+    Assert.assertEquals(((GenericRecord) projected.get("header")).get("timestamp"), 1234L);
+    Assert.assertNull(projectedSchema.getField("header").schema().getField("source"));
+    GenericRecord projectedPayload = (GenericRecord) projected.get("payload");
+    Assert.assertEquals(projectedPayload.getSchema().getFields().size(), 1);
+    GenericRecord projectedUser = (GenericRecord) projectedPayload.get("user");
+    Assert.assertEquals(projectedUser.get("id"), 42L);
+    Assert.assertEquals(projectedUser.getSchema().getFields().size(), 1);
+
+    // the projected schema is cached by projection, whatever the order of the paths
+    GenericRecord projectedAgain = ((FastDeserializer<GenericRecord>) cache.getProjectingDeserializer(
+        schema, new HashSet<>(Arrays.asList("payload.user.id", "header.timestamp"))))
+        .deserialize(FastSerdeTestsSupport.genericDataAsDecoder(record));
+    Assert.assertSame(projectedAgain.getSchema(), projectedSchema);
+  }
+
+  @Test(groups = "deserializationTest", expectedExceptions = IllegalArgumentException.class)
+  public void testProjectionOfUnknownFieldIsRejected() {
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"event\", \"fields\":[{\"name\": \"f\", \"type\": \"int\"}]}");
+    SchemaProjection.project(schema, Arrays.asList("f.g"));
+  }
+
+  @Test(groups = "serializationTest")
+  public void testDirectAccessMembersAreCheckedAgainstTheRecordClass() {
+    String recordClassName = DirectAccessRecord.class.getName();
+    ClassLoader classLoader = getClass().getClassLoader();
+    for (String member : new String[]{"#count:int", "#count=int", "#getCount():int", "#setCount(int)", "#id:long"}) {
+      Assert.assertTrue(FastSerdeBase.isMatchingMember(recordClassName + member, classLoader), member);
+    }
+    // other types, a final field written and missing members
+    for (String member : new String[]{"#count:long", "#id=long", "#missing:int", "#getCount():long", "#setCount(long)"}) {
+      Assert.assertFalse(FastSerdeBase.isMatchingMember(recordClassName + member, classLoader), member);
+    }
+    Assert.assertFalse(FastSerdeBase.isMatchingMember("com.linkedin.avro.fastserde.Missing#count:int", classLoader));
+
+    Assert.assertTrue(FastSerdeBase.hasMatchingDirectAccessMembers(DirectAccessRecord.class));
+    Assert.assertFalse(FastSerdeBase.hasMatchingDirectAccessMembers(MismatchedDirectAccessSerializer.class));
+  }
+
+  public static class DirectAccessRecord {
+    public int count;
+    public final long id = 0L;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+  }
+
+  public static class MismatchedDirectAccessSerializer {
+    public static final String[] DIRECT_ACCESS_MEMBERS = {DirectAccessRecord.class.getName() + "#count:long"};
+  }
 }
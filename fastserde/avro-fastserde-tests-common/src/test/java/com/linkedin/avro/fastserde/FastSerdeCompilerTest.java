@@ -0,0 +1,40 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class FastSerdeCompilerTest {
+
+  @Test(groups = "deserializationTest")
+  public void testCompileInMemory() throws Exception {
+    String className = FastSerdeBase.GENERATED_PACKAGE_NAME_PREFIX + "CompilerTestSupplier";
+    String source = "package com.linkedin.avro.fastserde.generated;\n"
+        + "import java.util.function.Supplier;\n"
+        + "public class CompilerTestSupplier implements Supplier<String> {\n"
+        + "  public String get() {\n"
+        + "    return \"compiled\";\n"
+        + "  }\n"
+        + "}\n";
+
+    Map<String, byte[]> classBytes = FastSerdeCompiler.getDefaultInstance()
+        .compile(Collections.singletonMap(className, source), "", Collections.emptySet());
+    Assert.assertEquals(classBytes.keySet(), Collections.singleton(className));
+
+    Class<?> clazz = new FastSerdeClassLoader(getClass().getClassLoader(), classBytes).loadClass(className);
+    Assert.assertEquals(((Supplier<?>) clazz.newInstance()).get(), "compiled");
+  }
+
+  @Test(groups = "deserializationTest", expectedExceptions = FastSerdeGeneratorException.class)
+  public void testCompileErrorIsReported() {
+    String className = FastSerdeBase.GENERATED_PACKAGE_NAME_PREFIX + "CompilerTestBroken";
+    String source = "package com.linkedin.avro.fastserde.generated;\n"
+        + "public class CompilerTestBroken extends NoSuchClass {\n"
+        + "}\n";
+
+    FastSerdeCompiler.getDefaultInstance().compile(Collections.singletonMap(className, source), "", Collections.emptySet());
+  }
+}
@@ -0,0 +1,121 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class FastSerdeSourceGeneratorTest {
+
+  @Test(groups = "deserializationTest")
+  public void testGeneratedSourcesAreRegistered() throws Exception {
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"aot_record\", \"fields\":["
+        + "{\"name\": \"testInt\", \"type\": \"int\"}]}");
+    FastSerdeSourceGenerator generator = new FastSerdeSourceGenerator();
+    generator.addGenericDeserializer(testRecord, testRecord);
+    generator.addGenericSerializer(testRecord);
+
+    Map<String, String> sources = generator.getSources();
+    String deserializerClassName = FastDeserializerGeneratorBase.getClassFullName(testRecord, testRecord, "Generic");
+    String serializerClassName = FastSerializerGenerator.getClassFullName(testRecord, "Generic");
+    Assert.assertEquals(sources.keySet(),
+        new HashSet<>(Arrays.asList(deserializerClassName, serializerClassName, generator.getRegistryClassName())));
+
+    Map<String, byte[]> classBytes =
+        FastSerdeCompiler.getDefaultInstance().compile(sources, "", Collections.emptySet());
+    ClassLoader classLoader = new FastSerdeClassLoader(getClass().getClassLoader(), classBytes);
+    FastSerdeRegistry registry =
+        (FastSerdeRegistry) classLoader.loadClass(generator.getRegistryClassName()).newInstance();
+
+    Assert.assertEquals(registry.getGeneratorVersion(), FastSerdeBase.GENERATOR_VERSION);
+    Assert.assertEquals(new HashSet<>(registry.getClassNames()),
+        new HashSet<>(Arrays.asList(deserializerClassName, serializerClassName)));
+    Assert.assertTrue(FastDeserializer.class.isAssignableFrom(classLoader.loadClass(deserializerClassName)));
+    Assert.assertTrue(FastSerializer.class.isAssignableFrom(classLoader.loadClass(serializerClassName)));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testRegisteredClassesArePickedUpByCache() throws Exception {
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"aot_registered_record\", \"fields\":["
+        + "{\"name\": \"testInt\", \"type\": \"int\"}]}");
+    FastSerdeSourceGenerator generator = new FastSerdeSourceGenerator();
+    generator.addGenericDeserializer(testRecord, testRecord);
+    File buildDir = Files.createTempDirectory("aot-build").toFile();
+    File classesDir = new File(buildDir, "classes");
+    generator.writeTo(new File(buildDir, "sources"), classesDir);
+    writeClasses(FastSerdeCompiler.getDefaultInstance().compile(generator.getSources(), "", Collections.emptySet()),
+        classesDir);
+
+    FastDeserializer<?> deserializer = buildWithServicesFrom(classesDir, testRecord);
+    Assert.assertEquals(deserializer.getClass().getName(),
+        FastDeserializerGeneratorBase.getClassFullName(testRecord, testRecord, "Generic"));
+    Assert.assertTrue(deserializer.getClass().getClassLoader() instanceof URLClassLoader,
+        "the pre-generated class should be loaded from the registry class path");
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testRegistryOfAnotherGeneratorVersionIsIgnoredByCache() throws Exception {
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"aot_stale_record\", \"fields\":["
+        + "{\"name\": \"testInt\", \"type\": \"int\"}]}");
+    FastSerdeSourceGenerator generator = new FastSerdeSourceGenerator();
+    generator.addGenericDeserializer(testRecord, testRecord);
+    String deserializerClassName = FastDeserializerGeneratorBase.getClassFullName(testRecord, testRecord, "Generic");
+    String registryClassName = FastSerdeBase.getGeneratedPackageName("registry") + ".StaleFastSerdeRegistry";
+
+    // same classes, but registered as generated by a previous generator version
+    Map<String, String> sources = new HashMap<>(generator.getSources());
+    sources.remove(generator.getRegistryClassName());
+    sources.put(registryClassName, "package " + FastSerdeBase.getGeneratedPackageName("registry") + ";\n"
+        + "public class StaleFastSerdeRegistry implements " + FastSerdeRegistry.class.getName() + " {\n"
+        + "  public int getGeneratorVersion() { return " + (FastSerdeBase.GENERATOR_VERSION - 1) + "; }\n"
+        + "  public java.util.Collection<String> getClassNames() {\n"
+        + "    return java.util.Collections.singletonList(\"" + deserializerClassName + "\");\n"
+        + "  }\n"
+        + "}\n");
+    File classesDir = Files.createTempDirectory("aot-stale-classes").toFile();
+    writeClasses(FastSerdeCompiler.getDefaultInstance().compile(sources, "", Collections.emptySet()), classesDir);
+    File serviceFile = new File(classesDir, FastSerdeSourceGenerator.REGISTRY_SERVICE_FILE);
+    Files.createDirectories(serviceFile.getParentFile().toPath());
+    Files.write(serviceFile.toPath(), (registryClassName + "\n").getBytes(StandardCharsets.UTF_8));
+
+    FastDeserializer<?> deserializer = buildWithServicesFrom(classesDir, testRecord);
+    Assert.assertEquals(deserializer.getClass().getName(), deserializerClassName);
+    Assert.assertFalse(deserializer.getClass().getClassLoader() instanceof URLClassLoader,
+        "the class should be generated again instead of being loaded from the stale registry");
+  }
+
+  /**
+   * Builds a generic deserializer with a new cache, which looks up the registries visible from the given directory.
+   */
+  private FastDeserializer<?> buildWithServicesFrom(File classesDir, Schema schema) throws IOException {
+    Thread thread = Thread.currentThread();
+    ClassLoader contextClassLoader = thread.getContextClassLoader();
+    try (URLClassLoader registryClassLoader =
+        new URLClassLoader(new URL[]{classesDir.toURI().toURL()}, getClass().getClassLoader())) {
+      // registries are looked up through the context class loader when the cache is created
+      thread.setContextClassLoader(registryClassLoader);
+      return new FastSerdeCache(null, (File) null).buildFastGenericDeserializer(schema, schema);
+    } finally {
+      thread.setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  private static void writeClasses(Map<String, byte[]> classBytes, File classesDir) throws IOException {
+    for (Map.Entry<String, byte[]> entry : classBytes.entrySet()) {
+      File classFile = new File(classesDir, entry.getKey().replace('.', File.separatorChar) + ".class");
+      Files.createDirectories(classFile.getParentFile().toPath());
+      Files.write(classFile.toPath(), entry.getValue());
+    }
+  }
+}
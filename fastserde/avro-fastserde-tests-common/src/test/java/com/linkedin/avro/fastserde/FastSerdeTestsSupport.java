@@ -1,5 +1,6 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.fastserde.generated.avro.LogicalTypesTestRecord;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -7,6 +8,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -20,7 +22,9 @@ import java.util.stream.Collectors;
 import com.linkedin.avroutil1.compatibility.AvroVersion;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericContainer;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.Encoder;
@@ -171,6 +175,10 @@ public final class FastSerdeTestsSupport {
   }
 
   public static <T> Decoder genericDataAsDecoder(T data, Schema schema) {
+    return DecoderFactory.defaultFactory().createBinaryDecoder(genericDataAsBytes(data, schema), null);
+  }
+
+  public static <T> byte[] genericDataAsBytes(T data, Schema schema) {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     Encoder binaryEncoder = AvroCompatibilityHelper.newBinaryEncoder(baos, true, null);
 
@@ -182,7 +190,7 @@ public final class FastSerdeTestsSupport {
       throw new RuntimeException(e);
     }
 
-    return DecoderFactory.defaultFactory().createBinaryDecoder(baos.toByteArray(), null);
+    return baos.toByteArray();
   }
 
   public static <T extends SpecificRecord> Decoder specificDataAsDecoder(T record) {
@@ -204,6 +212,21 @@ public final class FastSerdeTestsSupport {
     return DecoderFactory.defaultFactory().createBinaryDecoder(baos.toByteArray(), null);
   }
 
+  /**
+   * @return a record holding the raw values of all the logical types of {@link LogicalTypesTestRecord}
+   */
+  public static GenericRecord createLogicalTypesTestRecord() {
+    GenericRecord record = new GenericData.Record(LogicalTypesTestRecord.SCHEMA$);
+    record.put("timestampMillis", 1600000000123L);
+    record.put("timestampMicros", 1600000000123456L);
+    record.put("date", 18500);
+    record.put("timeMillis", 45296789);
+    record.put("decimal", ByteBuffer.wrap(BigInteger.valueOf(1234567).toByteArray()));
+    record.put("uuid", "2e9c6a3e-8a0e-4c4b-9a52-0f5b7a2a9c4d");
+    record.put("timestampMillisUnion", 1600000000456L);
+    return record;
+  }
+
   public static <T> T specificDataFromDecoder(Schema writerSchema, Decoder decoder) {
     SpecificDatumReader<T> datumReader = new SpecificDatumReader<>(writerSchema);
     try {
@@ -3,6 +3,7 @@ package com.linkedin.avro.fastserde;
 
 import com.linkedin.avro.fastserde.generated.avro.FullRecord;
 import com.linkedin.avro.fastserde.generated.avro.IntRecord;
+import com.linkedin.avro.fastserde.generated.avro.LogicalTypesTestRecord;
 import com.linkedin.avro.fastserde.generated.avro.MyEnumV2;
 import com.linkedin.avro.fastserde.generated.avro.MyRecordV2;
 import com.linkedin.avro.fastserde.generated.avro.RecordWithLargeUnionField;
@@ -844,6 +845,71 @@ public class FastSpecificDeserializerGeneratorTest {
     }
   }
 
+  @Test(groups = {"deserializationTest"})
+  public void shouldReadLogicalTypesLikeVanilla() {
+    // given
+    GenericRecord record = createLogicalTypesTestRecord();
+    Schema schema = LogicalTypesTestRecord.SCHEMA$;
+
+    // when
+    LogicalTypesTestRecord expected = decodeRecordSlow(schema, schema, genericDataAsDecoder(record));
+    LogicalTypesTestRecord actual = decodeRecordFast(schema, schema, genericDataAsDecoder(record));
+
+    // then
+    for (Schema.Field field : schema.getFields()) {
+      Assert.assertEquals(actual.get(field.pos()), expected.get(field.pos()), field.name());
+    }
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldSetPrimitiveFieldsDirectly() throws Exception {
+    // given
+    Schema schema = TestRecord.SCHEMA$;
+    TestRecord record = emptyTestRecord();
+    setField(record, "testInt", 7);
+    setField(record, "testLong", 8L);
+    setField(record, "testDouble", 9.0);
+    setField(record, "testFloat", 10.0f);
+    setField(record, "testBoolean", true);
+    FastSpecificDeserializerGenerator<TestRecord> generator =
+        new FastSpecificDeserializerGenerator<>(schema, schema, tempDir, classLoader, null);
+
+    // when
+    String source = generator.generateSources().get(generator.getClassFullName(generator.generateDeserializerCode()));
+    TestRecord decodedRecord = decodeRecordFast(schema, schema, specificDataAsDecoder(record));
+
+    // then
+    Object[][] primitiveFields = {{"testInt", int.class}, {"testLong", long.class}, {"testDouble", double.class},
+        {"testFloat", float.class}, {"testBoolean", boolean.class}};
+    for (Object[] primitiveField : primitiveFields) {
+      // depending on the avro version, generated records have public fields or primitive setters
+      String fieldName = (String) primitiveField[0];
+      String capitalizedName = fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+      if (hasPublicField(TestRecord.class, fieldName)) {
+        Assert.assertTrue(source.contains("." + fieldName + " = "), fieldName);
+      } else if (hasSetter(TestRecord.class, "set" + capitalizedName, (Class<?>) primitiveField[1])) {
+        Assert.assertTrue(source.contains(".set" + capitalizedName + "("), fieldName);
+      }
+      Assert.assertEquals(getField(decodedRecord, fieldName), getField(record, fieldName), fieldName);
+    }
+  }
+
+  private static boolean hasPublicField(Class<?> recordClass, String fieldName) {
+    try {
+      return recordClass.getField(fieldName).getType().isPrimitive();
+    } catch (NoSuchFieldException e) {
+      return false;
+    }
+  }
+
+  private static boolean hasSetter(Class<?> recordClass, String setterName, Class<?> primitiveClass) {
+    try {
+      return recordClass.getMethod(setterName, primitiveClass) != null;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T decodeRecordFast(Schema readerSchema, Schema writerSchema, Decoder decoder) {
     FastDeserializer<T> deserializer =
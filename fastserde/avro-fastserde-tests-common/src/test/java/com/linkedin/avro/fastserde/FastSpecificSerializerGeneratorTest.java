@@ -1,5 +1,6 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.fastserde.generated.avro.LogicalTypesTestRecord;
 import com.linkedin.avro.fastserde.generated.avro.SubRecord;
 import com.linkedin.avro.fastserde.generated.avro.TestEnum;
 import com.linkedin.avro.fastserde.generated.avro.TestFixed;
@@ -354,6 +355,60 @@ public class FastSpecificSerializerGeneratorTest {
     Assert.assertEquals("abc", getField(map.get(new Utf8("2")), "testString").toString());
   }
 
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteLogicalTypesLikeVanilla() {
+    // given
+    Schema schema = LogicalTypesTestRecord.SCHEMA$;
+    LogicalTypesTestRecord record = specificDataFromDecoder(schema, genericDataAsDecoder(createLogicalTypesTestRecord()));
+
+    // when
+    LogicalTypesTestRecord decodedRecord = decodeRecordFast(schema, dataAsDecoder(record, schema));
+
+    // then
+    for (Schema.Field field : schema.getFields()) {
+      Assert.assertEquals(decodedRecord.get(field.pos()), record.get(field.pos()), field.name());
+    }
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldReadPrimitiveFieldsDirectly() throws Exception {
+    // given
+    Schema schema = TestRecord.SCHEMA$;
+    FastSpecificSerializerGenerator<TestRecord> generator =
+        new FastSpecificSerializerGenerator<>(schema, tempDir, classLoader, null);
+
+    // when
+    String source = generator.generateSources().get(generator.getClassFullName(generator.generateSerializerCode()));
+
+    // then
+    for (String fieldName : Arrays.asList("testInt", "testLong", "testDouble", "testFloat", "testBoolean")) {
+      // depending on the avro version, generated records have public fields or primitive getters
+      if (hasPrimitiveField(TestRecord.class, fieldName)) {
+        Assert.assertTrue(source.contains("data." + fieldName + ")"), fieldName);
+      } else if (hasPrimitiveGetter(TestRecord.class, fieldName)) {
+        Assert.assertTrue(source.contains("data.get" + fieldName.substring(0, 1).toUpperCase()
+            + fieldName.substring(1) + "()"), fieldName);
+      }
+    }
+  }
+
+  private static boolean hasPrimitiveField(Class<?> recordClass, String fieldName) {
+    try {
+      return recordClass.getField(fieldName).getType().isPrimitive();
+    } catch (NoSuchFieldException e) {
+      return false;
+    }
+  }
+
+  private static boolean hasPrimitiveGetter(Class<?> recordClass, String fieldName) {
+    try {
+      return recordClass.getMethod("get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1))
+          .getReturnType().isPrimitive();
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
   public <T extends GenericContainer> Decoder dataAsDecoder(T data) {
     return dataAsDecoder(data, data.getSchema());
   }
@@ -0,0 +1,52 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Set;
+import javax.lang.model.SourceVersion;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+
+/**
+ * {@link JavaCompiler} registered as a service for the tests, the way third-party compilers such as ecj are, so that
+ * the service lookup done on runtimes without a system java compiler finds one whatever the JDK running the tests.
+ */
+public class ForwardingJavaCompiler implements JavaCompiler {
+  private final JavaCompiler delegate = ToolProvider.getSystemJavaCompiler();
+
+  @Override
+  public CompilationTask getTask(Writer out, JavaFileManager fileManager,
+      DiagnosticListener<? super JavaFileObject> diagnosticListener, Iterable<String> options,
+      Iterable<String> classes, Iterable<? extends JavaFileObject> compilationUnits) {
+    return delegate.getTask(out, fileManager, diagnosticListener, options, classes, compilationUnits);
+  }
+
+  @Override
+  public StandardJavaFileManager getStandardFileManager(DiagnosticListener<? super JavaFileObject> diagnosticListener,
+      Locale locale, Charset charset) {
+    return delegate.getStandardFileManager(diagnosticListener, locale, charset);
+  }
+
+  @Override
+  public int isSupportedOption(String option) {
+    return delegate.isSupportedOption(option);
+  }
+
+  @Override
+  public int run(InputStream in, OutputStream out, OutputStream err, String... arguments) {
+    return delegate.run(in, out, err, arguments);
+  }
+
+  @Override
+  public Set<SourceVersion> getSourceVersions() {
+    return delegate.getSourceVersions();
+  }
+}
@@ -1,9 +1,18 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.api.PrimitiveBooleanList;
+import com.linkedin.avro.api.PrimitiveLongList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveBooleanArrayList;
 import com.linkedin.avro.fastserde.primitive.PrimitiveFloatArrayList;
 import com.linkedin.avro.fastserde.primitive.PrimitiveLongArrayList;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -27,4 +36,55 @@ public class PrimitiveArrayListTest {
     List<Float> expectedVector = Arrays.asList(1.0f, 2.0f, 3.0f);
     Assert.assertEquals(newVector, expectedVector);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testPrimitiveLongArrayReadInBlocks() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(baos, true, null);
+    encoder.writeArrayStart();
+    encoder.setItemCount(2);
+    encoder.startItem();
+    encoder.writeLong(1L);
+    encoder.startItem();
+    encoder.writeLong(Long.MAX_VALUE);
+    encoder.setItemCount(1);
+    encoder.startItem();
+    encoder.writeLong(-3L);
+    encoder.writeArrayEnd();
+    encoder.flush();
+
+    PrimitiveLongList list = PrimitiveLongArrayList.readPrimitiveLongArray(null, toDecoder(baos));
+    Assert.assertEquals(list, Arrays.asList(1L, Long.MAX_VALUE, -3L));
+
+    // a larger list is reused, and only holds the new elements
+    PrimitiveLongArrayList old = new PrimitiveLongArrayList(1);
+    old.addAll(Arrays.asList(5L, 6L, 7L, 8L));
+    list = PrimitiveLongArrayList.readPrimitiveLongArray(old, toDecoder(baos));
+    Assert.assertSame(list, old);
+    Assert.assertEquals(list, Arrays.asList(1L, Long.MAX_VALUE, -3L));
+  }
+
+  @Test
+  public void testPrimitiveBooleanArrayReadInBlocks() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(baos, true, null);
+    encoder.writeArrayStart();
+    encoder.setItemCount(1);
+    encoder.startItem();
+    encoder.writeBoolean(true);
+    encoder.setItemCount(2);
+    encoder.startItem();
+    encoder.writeBoolean(false);
+    encoder.startItem();
+    encoder.writeBoolean(true);
+    encoder.writeArrayEnd();
+    encoder.flush();
+
+    PrimitiveBooleanList list = PrimitiveBooleanArrayList.readPrimitiveBooleanArray(null, toDecoder(baos));
+    Assert.assertEquals(list, Arrays.asList(true, false, true));
+  }
+
+  private static Decoder toDecoder(ByteArrayOutputStream baos) {
+    return DecoderFactory.defaultFactory().createBinaryDecoder(baos.toByteArray(), null);
+  }
+}
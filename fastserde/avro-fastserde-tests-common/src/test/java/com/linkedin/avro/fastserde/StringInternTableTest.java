@@ -0,0 +1,57 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.util.Utf8;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class StringInternTableTest {
+  @Test
+  public void testReturnsTheSameInstanceForTheSameString() throws IOException {
+    StringInternTable utf8Table = new StringInternTable(false);
+    StringInternTable stringTable = new StringInternTable(true);
+    Decoder decoder = decoderOf("active", "inactive", "active");
+
+    Utf8 first = utf8Table.readUtf8(decoder);
+    Utf8 second = utf8Table.readUtf8(decoder);
+    Utf8 third = utf8Table.readUtf8(decoder);
+
+    Assert.assertEquals(first, new Utf8("active"));
+    Assert.assertEquals(second, new Utf8("inactive"));
+    Assert.assertSame(third, first);
+
+    decoder = decoderOf("active", "active");
+    Assert.assertSame(stringTable.readString(decoder), stringTable.readString(decoder));
+  }
+
+  @Test
+  public void testAllocatesOnceFull() throws IOException {
+    StringInternTable table = new StringInternTable(true, 2);
+    Decoder decoder = decoderOf("a", "b", "c", "c", "a");
+
+    table.readString(decoder);
+    table.readString(decoder);
+    String firstC = table.readString(decoder);
+    String secondC = table.readString(decoder);
+
+    Assert.assertEquals(secondC, firstC);
+    Assert.assertNotSame(secondC, firstC);
+    Assert.assertEquals(table.readString(decoder), "a");
+  }
+
+  private static Decoder decoderOf(String... strings) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(baos, true, null);
+    for (String string : strings) {
+      encoder.writeString(new Utf8(string));
+    }
+    encoder.flush();
+    return DecoderFactory.defaultFactory().createBinaryDecoder(baos.toByteArray(), null);
+  }
+}
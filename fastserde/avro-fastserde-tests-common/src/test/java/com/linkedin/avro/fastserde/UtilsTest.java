@@ -1,5 +1,6 @@
 package com.linkedin.avro.fastserde;
 
+import org.apache.avro.Schema;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -10,4 +11,16 @@ public class UtilsTest {
   public void testGenerateSourcePathFromPackageName() {
     Assert.assertEquals(Utils.generateSourcePathFromPackageName("com.linkedin.avro"), Utils.fixSeparatorsToMatchOS("/com/linkedin/avro/"));
   }
+
+  @Test (groups = "deserializationTest")
+  public void testGetSchemaFingerprint64() {
+    String recordSchema = "{\"type\": \"record\", \"name\": \"fingerprinted_record\", \"fields\":[{\"name\": \"f\", \"type\": \"int\"}]}";
+    Schema schema = Schema.parse(recordSchema);
+    long fingerprint = Utils.getSchemaFingerprint64(schema);
+
+    Assert.assertEquals(Utils.getSchemaFingerprint64(schema), fingerprint);
+    Assert.assertEquals(Utils.getSchemaFingerprint64(Schema.parse(recordSchema)), fingerprint);
+    Assert.assertNotEquals(Utils.getSchemaFingerprint64(Schema.parse(recordSchema.replace("int", "long"))), fingerprint);
+    Assert.assertEquals(Utils.fingerprint64(new byte[0]), 0xc15d213aa4d7a795L);
+  }
 }
@@ -0,0 +1,222 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.api.PrimitiveDoubleList;
+import java.io.IOException;
+import java.util.Collection;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.io.Decoder;
+
+
+/**
+ * This is a re-implementation of Avro's {@link GenericData.Array} class.
+ *
+ * Compared to the Avro implementation, it offers the following GC-related optimizations:
+ *
+ * - It does not, by default, box primitive doubles into Object Doubles, though it will still do so if the
+ *   regular functions are called (e.g.: {@link #get(int)}, for compatibility purposes. In order to avoid
+ *   boxing, the {@link #getPrimitive(int)} function can be used instead.
+ *
+ * - It does not maintain a reference to a {@link Schema} instance, since that schema would always be the
+ *   same. Instead, it defines a static {@link #SCHEMA} which is used by all instances.
+ *
+ * - It re-implements {@link #compareTo(GenericArray)}, {@link #equals(Object)} and {@link #hashCode()}
+ *   in order to leverage the primitive types, rather than causing unintended boxing.
+ *
+ *   Using ByteBuffer to speed up double-array deserialization: We allocate ByteBuffer to store the raw bytes from
+ *   BinaryDecoder and deserialize them only during array element access. We cache the results into the elements array
+ *   after the first get access of the array so that sub-sequent array access are fast. For reuse case, we try to reuse
+ *   the existing ByteBuffers as long as their capacity can hold the array.
+ */
+public class BufferBackedPrimitiveDoubleList extends BufferBackedPrimitiveList<Double> implements PrimitiveDoubleList {
+  private static final double[] EMPTY = new double[0];
+  private static final Schema DOUBLE_SCHEMA = Schema.create(Schema.Type.DOUBLE);
+  private static final Schema SCHEMA = Schema.createArray(DOUBLE_SCHEMA);
+  private double[] elements = EMPTY;
+
+  public BufferBackedPrimitiveDoubleList(int capacity) {
+    // create empty ByteBuffer if capacity != 0 ( List<Double> interface usage case)
+    super(capacity != 0);
+    if (capacity != 0) {
+      elements = new double[capacity];
+    }
+  }
+
+  public BufferBackedPrimitiveDoubleList(Collection<Double> c) {
+    super(c != null);
+    if (c != null) {
+      elements = new double[c.size()];
+      addAll(c);
+    }
+  }
+
+  /**
+   * Instantiate (or re-use) and populate a {@link BufferBackedPrimitiveDoubleList} from a {@link org.apache.avro.io.Decoder}.
+   *
+   * N.B.: the caller must ensure the data is of the appropriate type by calling {@link #isDoubleArray(Schema)}.
+   *
+   * @param old old {@link BufferBackedPrimitiveDoubleList} to reuse
+   * @param in {@link org.apache.avro.io.Decoder} to read new list from
+   * @return a {@link BufferBackedPrimitiveDoubleList} with data, possibly the old argument reused
+   * @throws IOException on io errors
+   */
+  public static Object readPrimitiveDoubleArray(Object old, Decoder in) throws IOException {
+    long length = in.readArrayStart();
+    if (length > 0) {
+      BufferBackedPrimitiveDoubleList array = old instanceof BufferBackedPrimitiveDoubleList
+          ? (BufferBackedPrimitiveDoubleList) old : new BufferBackedPrimitiveDoubleList(0);
+      array.readBlocks(length, in);
+      return array;
+    } else {
+      return new BufferBackedPrimitiveDoubleList(0);
+    }
+  }
+
+  /**
+     * @param expected {@link Schema} to inspect
+     * @return true if the {@code expected} SCHEMA is of the right type to decode as a {@link BufferBackedPrimitiveDoubleList}
+     *         false otherwise
+     */
+  public static boolean isDoubleArray(Schema expected) {
+    return expected != null && Schema.Type.ARRAY.equals(expected.getType()) && DOUBLE_SCHEMA.equals(
+        expected.getElementType());
+  }
+
+  @Override
+  public Schema getSchema() {
+    return SCHEMA;
+  }
+
+  public double getPrimitive(int i) {
+    checkIndex(i);
+    if (isCached) {
+      return elements[i];
+    }
+    return byteBuffer.getDoubleElement(i);
+  }
+
+  @Override
+  public Double get(int i) {
+    return getPrimitive(i);
+  }
+
+  /**
+   * Add a primitive double inside the list, without boxing.
+   *
+   * @param o new double to add
+   * @return true
+   */
+  public boolean addPrimitive(double o) {
+    ensureSpareCapacity();
+    elements[size++] = o;
+    return true;
+  }
+
+  @Override
+  public boolean add(Double o) {
+    return addPrimitive(o);
+  }
+
+  @Override
+  public Double set(int i, Double o) {
+    return setPrimitive(i, o);
+  }
+
+  @Override
+  public double setPrimitive(int i, double o) {
+    checkIndex(i);
+    cacheFromByteBuffer();
+    double response = elements[i];
+    elements[i] = o;
+
+    return response;
+  }
+
+  /**
+   * @return the double past the last element of the list, which may be reused, or 0 if there is none
+   */
+  public double peekPrimitive() {
+    cacheFromByteBuffer();
+    return (size < elements.length) ? elements[size] : 0;
+  }
+
+  @Override
+  public int compareTo(GenericArray<Double> that) {
+    cacheFromByteBuffer();
+    if (that instanceof BufferBackedPrimitiveDoubleList) {
+      BufferBackedPrimitiveDoubleList thatPrimitiveList = (BufferBackedPrimitiveDoubleList) that;
+      thatPrimitiveList.cacheFromByteBuffer();
+      if (this.size == thatPrimitiveList.size) {
+        for (int i = 0; i < this.size; i++) {
+          int compare = Double.compare(this.elements[i], thatPrimitiveList.elements[i]);
+          if (compare != 0) {
+            return compare;
+          }
+        }
+        return 0;
+      } else if (this.size > thatPrimitiveList.size) {
+        return 1;
+      } else {
+        return -1;
+      }
+    } else {
+      // Not our own type of primitive list, so we will delegate to the regular implementation, which will do boxing
+      return GenericData.get().compare(this, that, this.getSchema());
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    cacheFromByteBuffer();
+    int hashCode = 1;
+    for (int i = 0; i < this.size; i++) {
+      hashCode = 31 * hashCode + Double.hashCode(elements[i]);
+    }
+    return hashCode;
+  }
+
+  @Override
+  protected int elementSize() {
+    return Double.BYTES;
+  }
+
+  @Override
+  protected int capacity() {
+    return elements.length;
+  }
+
+  @Override
+  protected void resizeElements(int capacity, int count) {
+    double[] newElements = new double[capacity];
+    System.arraycopy(elements, 0, newElements, 0, count);
+    elements = newElements;
+  }
+
+  @Override
+  protected void copyFromByteBuffer() {
+    byteBuffer.setArray(elements);
+  }
+
+  @Override
+  protected void moveElements(int from, int to, int count) {
+    System.arraycopy(elements, from, elements, to, count);
+  }
+
+  @Override
+  protected void swapElements(int i, int j) {
+    double tmp = elements[i];
+    elements[i] = elements[j];
+    elements[j] = tmp;
+  }
+
+  @Override
+  protected Double element(int i) {
+    return elements[i];
+  }
+
+  @Override
+  protected void setElement(int i, Double value) {
+    elements[i] = value;
+  }
+}
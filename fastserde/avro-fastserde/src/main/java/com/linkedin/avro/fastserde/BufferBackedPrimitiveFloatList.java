@@ -2,10 +2,7 @@ package com.linkedin.avro.fastserde;
 
 import com.linkedin.avro.api.PrimitiveFloatList;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.util.AbstractList;
 import java.util.Collection;
-import java.util.Iterator;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericArray;
 import org.apache.avro.generic.GenericData;
@@ -31,34 +28,27 @@ import org.apache.avro.io.Decoder;
  *   BinaryDecoder and deserialize them only during array element access. We cache the results into the elements array
  *   after the first get access of the array so that sub-sequent array access are fast. For reuse case, we try to reuse
  *   the existing ByteBuffers as long as their capacity can hold the array.
- *
- *   TODO: Provide arrays for other primitive types.
  */
-public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
-    implements GenericArray<Float>, Comparable<GenericArray<Float>>, PrimitiveFloatList {
+public class BufferBackedPrimitiveFloatList extends BufferBackedPrimitiveList<Float> implements PrimitiveFloatList {
   private static final float[] EMPTY = new float[0];
-  private static final int FLOAT_SIZE = Float.BYTES;
   private static final Schema FLOAT_SCHEMA = Schema.create(Schema.Type.FLOAT);
   private static final Schema SCHEMA = Schema.createArray(FLOAT_SCHEMA);
-  private int size;
   private float[] elements = EMPTY;
-  private boolean isCached = false;
-  private CompositeByteBuffer byteBuffer;
 
   public BufferBackedPrimitiveFloatList(int capacity) {
+    // create empty ByteBuffer if capacity != 0 ( List<Float> interface usage case)
+    super(capacity != 0);
     if (capacity != 0) {
       elements = new float[capacity];
     }
-    // create empty ByteBuffer if capacity != 0 ( List<Float> interface usage case)
-    byteBuffer = new CompositeByteBuffer(capacity != 0);
   }
 
   public BufferBackedPrimitiveFloatList(Collection<Float> c) {
+    super(c != null);
     if (c != null) {
       elements = new float[c.size()];
       addAll(c);
     }
-    byteBuffer = new CompositeByteBuffer(c != null);
   }
 
   /**
@@ -73,49 +63,16 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
    */
   public static Object readPrimitiveFloatArray(Object old, Decoder in) throws IOException {
     long length = in.readArrayStart();
-    long totalLength = 0;
-
     if (length > 0) {
-      BufferBackedPrimitiveFloatList array = (BufferBackedPrimitiveFloatList) newPrimitiveFloatArray(old);
-      int index = 0;
-
-      do {
-        long byteSize = length * FLOAT_SIZE;
-        ByteBuffer byteBuffer = array.byteBuffer.allocate(index++, (int)byteSize);
-        in.readFixed(byteBuffer.array(), 0, (int)byteSize);
-        totalLength += length;
-        length = in.arrayNext();
-      } while (length > 0);
-
-      array.byteBuffer.setByteBufferCount(index);
-      array.size = (int) totalLength;
+      BufferBackedPrimitiveFloatList array = old instanceof BufferBackedPrimitiveFloatList
+          ? (BufferBackedPrimitiveFloatList) old : new BufferBackedPrimitiveFloatList(0);
+      array.readBlocks(length, in);
       return array;
     } else {
       return new BufferBackedPrimitiveFloatList(0);
     }
   }
 
-  /**
-   *  The primitive float array `elements` will only be used when the interface user calls a mutating operation.
-   *  eg add/remove else for read-only use case this will not be called.
-   * @param list
-   * @param totalSize
-   */
-  private static void setupElements(BufferBackedPrimitiveFloatList list, int totalSize) {
-    if (list.elements.length != 0) {
-      if (totalSize <= list.getCapacity()) {
-        // reuse the float array directly
-        list.clear();
-      } else {
-        list.resizeAndClear(totalSize);
-      }
-      list.size = totalSize;
-      return;
-    }
-    list.elements = new float[totalSize];
-    list.size = totalSize;
-  }
-
   /**
      * @param expected {@link Schema} to inspect
      * @return true if the {@code expected} SCHEMA is of the right type to decode as a {@link BufferBackedPrimitiveFloatList}
@@ -126,71 +83,13 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
         expected.getElementType());
   }
 
-  private static Object newPrimitiveFloatArray(Object old) {
-    if (old instanceof BufferBackedPrimitiveFloatList) {
-      BufferBackedPrimitiveFloatList oldFloatList = (BufferBackedPrimitiveFloatList) old;
-      oldFloatList.byteBuffer.clear();
-      oldFloatList.isCached = false;
-      oldFloatList.size = 0;
-      return oldFloatList;
-    } else {
-      // Just a place holder, will set up the elements later.
-      return new BufferBackedPrimitiveFloatList(0);
-    }
-  }
-
   @Override
   public Schema getSchema() {
     return SCHEMA;
   }
 
-  @Override
-  public int size() {
-    return size;
-  }
-
-  @Override
-  public void clear() {
-    size = 0;
-  }
-
-  private int getCapacity() {
-    return elements.length;
-  }
-
-  private void resizeAndClear(int newSize) {
-    elements = new float[newSize];
-    clear();
-  }
-
-  @Override
-  public Iterator<Float> iterator() {
-    return new Iterator<Float>() {
-      private int position = 0;
-
-      @Override
-      public boolean hasNext() {
-        return position < size;
-      }
-
-      @Override
-      public Float next() {
-        float f = getPrimitive(position);
-        position++;
-        return f;
-      }
-
-      @Override
-      public void remove() {
-        throw new UnsupportedOperationException();
-      }
-    };
-  }
-
   public float getPrimitive(int i) {
-    if (i >= size) {
-      throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
-    }
+    checkIndex(i);
     if (isCached) {
       return elements[i];
     }
@@ -205,17 +104,11 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
   /**
    * Add a primitive float inside the list, without boxing.
    *
-   * TODO: verify if it's enough to simply store the data as primitives in order to benefit from the GC optimization.
    * @param o new float to add
-   * @return true?
+   * @return true
    */
   public boolean addPrimitive(float o) {
-    cacheFromByteBuffer();
-    if (size == elements.length) {
-      float[] newElements = new float[(size * 3) / 2 + 1];
-      System.arraycopy(elements, 0, newElements, 0, size);
-      elements = newElements;
-    }
+    ensureSpareCapacity();
     elements[size++] = o;
     return true;
   }
@@ -225,32 +118,14 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
     return addPrimitive(o);
   }
 
-  @Override
-  public void add(int location, Float o) {
-    if (location > size || location < 0) {
-      throw new IndexOutOfBoundsException("Index " + location + " out of bounds.");
-    }
-    cacheFromByteBuffer();
-    if (size == elements.length) {
-      float[] newElements = new float[(size * 3) / 2 + 1];
-      System.arraycopy(elements, 0, newElements, 0, size);
-      elements = newElements;
-    }
-    System.arraycopy(elements, location, elements, location + 1, size - location);
-    elements[location] = o;
-    size++;
-  }
-
   @Override
   public Float set(int i, Float o) {
-    return set(i, o);
+    return setPrimitive(i, o);
   }
 
   @Override
   public float setPrimitive(int i, float o) {
-    if (i >= size) {
-      throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
-    }
+    checkIndex(i);
     cacheFromByteBuffer();
     float response = elements[i];
     elements[i] = o;
@@ -258,40 +133,12 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
     return response;
   }
 
-  @Override
-  public Float remove(int i) {
-    if (i >= size) {
-      throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
-    }
-    cacheFromByteBuffer();
-    Float result = elements[i];
-    --size;
-    System.arraycopy(elements, i + 1, elements, i, (size - i));
-    elements[size] = 0;
-    return result;
-  }
-
-  private void cacheFromByteBuffer() {
-    if (isCached) {
-      return;
-    }
-    synchronized (this) {
-      if (!isCached) {
-        setupElements(this, this.size);
-        byteBuffer.setArray(elements);
-        isCached = true;
-      }
-    }
-  }
-
+  /**
+   * @return the float past the last element of the list, which may be reused, or 0 if there is none
+   */
   public float peekPrimitive() {
     cacheFromByteBuffer();
-    return (size < elements.length) ? elements[size] : null;
-  }
-
-  @Override
-  public Float peek() {
-    return peekPrimitive();
+    return (size < elements.length) ? elements[size] : 0;
   }
 
   @Override
@@ -299,6 +146,7 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
     cacheFromByteBuffer();
     if (that instanceof BufferBackedPrimitiveFloatList) {
       BufferBackedPrimitiveFloatList thatPrimitiveList = (BufferBackedPrimitiveFloatList) that;
+      thatPrimitiveList.cacheFromByteBuffer();
       if (this.size == thatPrimitiveList.size) {
         for (int i = 0; i < this.size; i++) {
           int compare = Float.compare(this.elements[i], thatPrimitiveList.elements[i]);
@@ -319,53 +167,56 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
   }
 
   @Override
-  public void reverse() {
+  public int hashCode() {
     cacheFromByteBuffer();
-    int left = 0;
-    int right = elements.length - 1;
+    int hashCode = 1;
+    for (int i = 0; i < this.size; i++) {
+      hashCode = 31 * hashCode + Float.hashCode(elements[i]);
+    }
+    return hashCode;
+  }
+
+  @Override
+  protected int elementSize() {
+    return Float.BYTES;
+  }
 
-    while (left < right) {
-      float tmp = elements[left];
-      elements[left] = elements[right];
-      elements[right] = tmp;
+  @Override
+  protected int capacity() {
+    return elements.length;
+  }
 
-      left++;
-      right--;
-    }
+  @Override
+  protected void resizeElements(int capacity, int count) {
+    float[] newElements = new float[capacity];
+    System.arraycopy(elements, 0, newElements, 0, count);
+    elements = newElements;
   }
 
   @Override
-  public String toString() {
-    StringBuilder buffer = new StringBuilder();
-    buffer.append("[");
-    int count = 0;
-    for (Float e : this) {
-      buffer.append(e == null ? "null" : e.toString());
-      if (++count < size()) {
-        buffer.append(", ");
-      }
-    }
-    buffer.append("]");
-    return buffer.toString();
+  protected void copyFromByteBuffer() {
+    byteBuffer.setArray(elements);
   }
 
   @Override
-  public boolean equals(Object o) {
-    cacheFromByteBuffer();
-    if (o instanceof GenericArray) {
-      return compareTo((GenericArray) o) == 0;
-    } else {
-      return super.equals(o);
-    }
+  protected void moveElements(int from, int to, int count) {
+    System.arraycopy(elements, from, elements, to, count);
   }
 
   @Override
-  public int hashCode() {
-    cacheFromByteBuffer();
-    int hashCode = 1;
-    for (int i = 0; i < this.size; i++) {
-      hashCode = 31 * hashCode + Float.hashCode(elements[i]);
-    }
-    return hashCode;
+  protected void swapElements(int i, int j) {
+    float tmp = elements[i];
+    elements[i] = elements[j];
+    elements[j] = tmp;
+  }
+
+  @Override
+  protected Float element(int i) {
+    return elements[i];
+  }
+
+  @Override
+  protected void setElement(int i, Float value) {
+    elements[i] = value;
   }
 }
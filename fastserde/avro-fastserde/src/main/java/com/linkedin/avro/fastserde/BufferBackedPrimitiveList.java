@@ -0,0 +1,231 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Iterator;
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.io.Decoder;
+
+
+/**
+ * Common part of the primitive lists backed by the raw little-endian bytes read from a {@link Decoder}, see
+ * {@link BufferBackedPrimitiveFloatList} and {@link BufferBackedPrimitiveDoubleList}.
+ *
+ * The blocks of the array are copied as they are into a {@link CompositeByteBuffer}, and the elements are only decoded
+ * when they are read. The first mutating operation decodes all of them into the primitive array of the child class,
+ * which is used from then on.
+ *
+ * @param <T> boxed type of the elements
+ */
+public abstract class BufferBackedPrimitiveList<T> extends AbstractList<T>
+    implements GenericArray<T>, Comparable<GenericArray<T>> {
+  protected int size;
+  protected boolean isCached = false;
+  protected final CompositeByteBuffer byteBuffer;
+
+  /**
+   * @param createEmpty true to create an empty byte buffer, for the lists which are not read from a {@link Decoder}
+   */
+  protected BufferBackedPrimitiveList(boolean createEmpty) {
+    byteBuffer = new CompositeByteBuffer(createEmpty);
+  }
+
+  // Abstract functions required by child classes
+
+  /**
+   * @return the size in bytes of an encoded element
+   */
+  protected abstract int elementSize();
+
+  /**
+   * @return the size of the primitive array maintained by the child class, which could be larger than {@link #size}.
+   */
+  protected abstract int capacity();
+
+  /**
+   * Replaces the primitive array by a new one.
+   *
+   * @param capacity of the new primitive array
+   * @param count number of elements to copy from the current primitive array
+   */
+  protected abstract void resizeElements(int capacity, int count);
+
+  /**
+   * Decodes all the elements of {@link #byteBuffer} into the primitive array.
+   */
+  protected abstract void copyFromByteBuffer();
+
+  /**
+   * Moves {@code count} elements of the primitive array from {@code from} to {@code to}.
+   */
+  protected abstract void moveElements(int from, int to, int count);
+
+  /**
+   * Swaps two elements of the primitive array.
+   */
+  protected abstract void swapElements(int i, int j);
+
+  /**
+   * @return the element at the given index of the primitive array, which may be past {@link #size}
+   */
+  protected abstract T element(int i);
+
+  /**
+   * Sets the element at the given index of the primitive array.
+   */
+  protected abstract void setElement(int i, T value);
+
+  /**
+   * Reads the blocks of an array from the decoder, replacing the current elements of this list.
+   *
+   * @param length size of the first block, which must be positive
+   * @param in {@link Decoder} to read the blocks from
+   * @throws IOException on io errors
+   */
+  protected void readBlocks(long length, Decoder in) throws IOException {
+    // the byte buffers of a reused list are refilled as long as their capacity can hold the new blocks
+    byteBuffer.clear();
+    isCached = false;
+    long totalLength = 0;
+    int index = 0;
+    do {
+      int byteSize = (int) length * elementSize();
+      ByteBuffer block = byteBuffer.allocate(index++, byteSize);
+      in.readFixed(block.array(), 0, byteSize);
+      totalLength += length;
+      length = in.arrayNext();
+    } while (length > 0);
+    byteBuffer.setByteBufferCount(index);
+    size = (int) totalLength;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      private int position = 0;
+
+      @Override
+      public boolean hasNext() {
+        return position < size;
+      }
+
+      @Override
+      public T next() {
+        return get(position++);
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public void add(int location, T o) {
+    if (location > size || location < 0) {
+      throw new IndexOutOfBoundsException("Index " + location + " out of bounds.");
+    }
+    ensureSpareCapacity();
+    moveElements(location, location + 1, size - location);
+    setElement(location, o);
+    size++;
+  }
+
+  @Override
+  public T remove(int i) {
+    checkIndex(i);
+    cacheFromByteBuffer();
+    T result = element(i);
+    --size;
+    moveElements(i + 1, i, size - i);
+    return result;
+  }
+
+  @Override
+  public T peek() {
+    cacheFromByteBuffer();
+    return size < capacity() ? element(size) : null;
+  }
+
+  @Override
+  public void reverse() {
+    cacheFromByteBuffer();
+    int left = 0;
+    int right = size - 1;
+
+    while (left < right) {
+      swapElements(left++, right--);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof GenericArray) {
+      return compareTo((GenericArray) o) == 0;
+    } else {
+      return super.equals(o);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buffer = new StringBuilder();
+    buffer.append("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        buffer.append(", ");
+      }
+      buffer.append(get(i));
+    }
+    buffer.append("]");
+    return buffer.toString();
+  }
+
+  // Helper functions for the child classes
+
+  protected void checkIndex(int i) {
+    if (i >= size || i < 0) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
+    }
+  }
+
+  /**
+   * Decodes the elements into the primitive array, once, before they are modified or compared.
+   */
+  protected void cacheFromByteBuffer() {
+    if (isCached) {
+      return;
+    }
+    synchronized (this) {
+      if (!isCached) {
+        if (capacity() < size) {
+          resizeElements(size, 0);
+        }
+        copyFromByteBuffer();
+        isCached = true;
+      }
+    }
+  }
+
+  /**
+   * Makes room for one more element in the primitive array.
+   */
+  protected void ensureSpareCapacity() {
+    cacheFromByteBuffer();
+    if (size == capacity()) {
+      resizeElements((size * 3) / 2 + 1, size);
+    }
+  }
+}
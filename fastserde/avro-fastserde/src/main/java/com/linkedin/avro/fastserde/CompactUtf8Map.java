@@ -0,0 +1,344 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * Open-addressing map with {@link Utf8} keys, produced by the generated deserializers for the map schemas having the
+ * {@link SchemaAssistant#COMPACT_MAP_PROP} property. Its entries are held in flat arrays, instead of one node per
+ * entry, and it can be refilled in place when reused by a deserializer: the keys and values of the entries which are
+ * decoded again are reused, and only the other entries are dropped.
+ *
+ * Keys are looked up by content, so {@link String} or other {@link CharSequence} keys match the {@link Utf8} key
+ * with the same characters. Null keys are not supported.
+ *
+ * @param <V> type of the values
+ */
+public class CompactUtf8Map<V> extends AbstractMap<Utf8, V> {
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private Utf8[] keys;
+  private Object[] values;
+  private int[] generations;
+  private int size;
+  private int generation;
+  private Utf8 keyScratch;
+
+  public CompactUtf8Map() {
+    this(0);
+  }
+
+  /**
+   * @param expectedSize number of entries the map should hold without being resized
+   */
+  public CompactUtf8Map(int expectedSize) {
+    allocate(capacityFor(Math.max(expectedSize, 1)));
+  }
+
+  private static int capacityFor(int expectedSize) {
+    // load factor of 0.5, which keeps the probe sequences short
+    long capacity = Long.highestOneBit(Math.max(2L * expectedSize - 1, 1L)) << 1;
+    return (int) Math.min(capacity, MAX_CAPACITY);
+  }
+
+  private void allocate(int capacity) {
+    keys = new Utf8[capacity];
+    values = new Object[capacity];
+    generations = new int[capacity];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    Utf8 utf8Key = toUtf8(key);
+    return utf8Key != null && keys[findSlot(utf8Key)] != null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    Utf8 utf8Key = toUtf8(key);
+    return utf8Key == null ? null : (V) values[findSlot(utf8Key)];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(Utf8 key, V value) {
+    if (key == null) {
+      throw new NullPointerException("Null keys are not supported");
+    }
+    int slot = findSlot(key);
+    V previous = (V) values[slot];
+    if (keys[slot] == null) {
+      if (2 * (size + 1) > keys.length && keys.length < MAX_CAPACITY) {
+        resize(keys.length << 1);
+        slot = findSlot(key);
+      }
+      keys[slot] = key;
+      size++;
+    }
+    values[slot] = value;
+    generations[slot] = generation;
+    return previous;
+  }
+
+  @Override
+  public V remove(Object key) {
+    Utf8 utf8Key = toUtf8(key);
+    if (utf8Key == null) {
+      return null;
+    }
+    int slot = findSlot(utf8Key);
+    if (keys[slot] == null) {
+      return null;
+    }
+    @SuppressWarnings("unchecked")
+    V previous = (V) values[slot];
+    removeSlot(slot);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(keys, null);
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  /**
+   * Starts refilling this map: the entries which are not put again before {@link #endRefill()} is called are removed
+   * then, while the others keep their key instance.
+   */
+  public void startRefill() {
+    generation++;
+    if (generation == 0) {
+      // the generations wrapped around, every current entry is older than the new one anyway
+      Arrays.fill(generations, 0);
+      generation = 1;
+    }
+  }
+
+  /**
+   * Removes the entries which were not put again since {@link #startRefill()} was called.
+   */
+  public void endRefill() {
+    int slot = 0;
+    while (slot < keys.length) {
+      if (keys[slot] != null && generations[slot] != generation) {
+        // the entries shifted into the freed slot must be checked too
+        removeSlot(slot);
+      } else {
+        slot++;
+      }
+    }
+  }
+
+  /**
+   * Reads a key, returning the instance already held by this map if it has the same content, so that decoding the
+   * keys of a reused map doesn't allocate.
+   *
+   * @param decoder decoder positioned at the key
+   * @return the decoded key
+   */
+  public Utf8 readKey(Decoder decoder) throws IOException {
+    Utf8 key = decoder.readString(keyScratch);
+    Utf8 existingKey = keys[findSlot(key)];
+    if (existingKey != null) {
+      keyScratch = key;
+      return existingKey;
+    }
+    keyScratch = null;
+    return key;
+  }
+
+  /**
+   * Along with {@link #keyAt(int)} and {@link #valueAt(int)}, allows iterating over the entries without allocating,
+   * as the generated serializers do.
+   *
+   * @param slot slot to start looking from
+   * @return the first slot holding an entry from the given one, or -1 if there is none
+   */
+  public int nextSlot(int slot) {
+    for (; slot < keys.length; slot++) {
+      if (keys[slot] != null) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return key of the entry held by the given slot, see {@link #nextSlot(int)}
+   */
+  public Utf8 keyAt(int slot) {
+    return keys[slot];
+  }
+
+  /**
+   * @return value of the entry held by the given slot, see {@link #nextSlot(int)}
+   */
+  @SuppressWarnings("unchecked")
+  public V valueAt(int slot) {
+    return (V) values[slot];
+  }
+
+  @Override
+  public Set<Map.Entry<Utf8, V>> entrySet() {
+    return new AbstractSet<Map.Entry<Utf8, V>>() {
+      @Override
+      public Iterator<Map.Entry<Utf8, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public void clear() {
+        CompactUtf8Map.this.clear();
+      }
+    };
+  }
+
+  private static Utf8 toUtf8(Object key) {
+    if (key instanceof Utf8) {
+      return (Utf8) key;
+    }
+    return key instanceof CharSequence ? new Utf8(key.toString()) : null;
+  }
+
+  /**
+   * @return slot holding the given key, or the empty slot where it belongs
+   */
+  private int findSlot(Utf8 key) {
+    int mask = keys.length - 1;
+    int slot = mix(key.hashCode()) & mask;
+    while (keys[slot] != null && !keys[slot].equals(key)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Removes the entry of the given slot, shifting back the following entries of its probe sequence, so that no
+   * tombstone is needed.
+   */
+  private void removeSlot(int slot) {
+    int mask = keys.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (keys[next] != null) {
+      int home = mix(keys[next].hashCode()) & mask;
+      // moves the entry back if its home slot is not between the hole (excluded) and its current slot
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        generations[hole] = generations[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[hole] = null;
+    values[hole] = null;
+    size--;
+  }
+
+  private void resize(int capacity) {
+    Utf8[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldGenerations = generations;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int slot = findSlot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+        generations[slot] = oldGenerations[i];
+      }
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<Utf8, V>> {
+    private int nextSlot = nextSlot(0);
+
+    @Override
+    public boolean hasNext() {
+      return nextSlot >= 0;
+    }
+
+    @Override
+    public Map.Entry<Utf8, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Entry entry = new Entry(nextSlot);
+      nextSlot = nextSlot(nextSlot + 1);
+      return entry;
+    }
+  }
+
+  private final class Entry implements Map.Entry<Utf8, V> {
+    private final int slot;
+
+    private Entry(int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public Utf8 getKey() {
+      return keys[slot];
+    }
+
+    @Override
+    public V getValue() {
+      return valueAt(slot);
+    }
+
+    @Override
+    public V setValue(V value) {
+      V previous = getValue();
+      values[slot] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+      return getKey().equals(that.getKey())
+          && (getValue() == null ? that.getValue() == null : getValue().equals(that.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      return getKey().hashCode() ^ (getValue() == null ? 0 : getValue().hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+}
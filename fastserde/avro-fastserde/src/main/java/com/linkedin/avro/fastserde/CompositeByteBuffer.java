@@ -17,6 +17,10 @@ public class CompositeByteBuffer {
 
   public ByteBuffer allocate(int index, int size) {
     ByteBuffer byteBuffer;
+    if (byteBuffers.isEmpty() && !(byteBuffers instanceof ArrayList)) {
+      // the empty buffer of a list created through the List API, which is now read from a decoder
+      byteBuffers = new ArrayList<>(1);
+    }
 
     // Check if we can reuse the old record's byteBuffers, else allocate a new one.
     if (byteBuffers.size() > index && byteBuffers.get(index).capacity() >= size) {
@@ -30,6 +34,8 @@ public class CompositeByteBuffer {
     } else {
       byteBuffers.add(byteBuffer);
     }
+    // a reused byteBuffer may be larger than needed, its limit marks the end of its elements
+    byteBuffer.limit(size);
     return byteBuffer;
   }
 
@@ -44,21 +50,33 @@ public class CompositeByteBuffer {
   }
 
   public float getElement(int i) {
-    int index = i * 4;
+    int index = i * Float.BYTES;
     // most common case:
     if (byteBufferCount == 1) {
       return byteBuffers.get(0).getFloat(index);
     }
 
-    int k = 0, size = 0;
-    // find which byteBuffer holds the i-th item
-    while (index >= size) {
-      size += byteBuffers.get(k++).limit();
+    // find which byteBuffer holds the i-th item, and the index on it
+    int k = 0;
+    while (index >= byteBuffers.get(k).limit()) {
+      index -= byteBuffers.get(k++).limit();
     }
-    k--;
-    // find the index on the byte buffer
-    int j = i - (size - byteBuffers.get(k).limit());
-    return byteBuffers.get(k).getFloat(j);
+    return byteBuffers.get(k).getFloat(index);
+  }
+
+  public double getDoubleElement(int i) {
+    int index = i * Double.BYTES;
+    // most common case:
+    if (byteBufferCount == 1) {
+      return byteBuffers.get(0).getDouble(index);
+    }
+
+    // find which byteBuffer holds the i-th item, and the index on it
+    int k = 0;
+    while (index >= byteBuffers.get(k).limit()) {
+      index -= byteBuffers.get(k++).limit();
+    }
+    return byteBuffers.get(k).getDouble(index);
   }
 
   public void setArray(float[] array) {
@@ -70,4 +88,14 @@ public class CompositeByteBuffer {
       }
     }
   }
+
+  public void setArray(double[] array) {
+    int k = 0;
+    for (int i = 0; i < byteBufferCount; i++) {
+      ByteBuffer byteBuffer = byteBuffers.get(i);
+      for (int j = 0; j < byteBuffer.limit(); j += Double.BYTES) {
+        array[k++] = byteBuffer.getDouble(j);
+      }
+    }
+  }
 }
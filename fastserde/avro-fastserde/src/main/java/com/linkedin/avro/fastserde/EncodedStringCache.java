@@ -0,0 +1,81 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * Bounded cache of the binary encoding of strings, used by the generated serializers for the string values of the
+ * schemas having the {@link SchemaAssistant#CACHED_ENCODING_PROP} property, and for the keys of such map schemas:
+ * the length and UTF-8 bytes of a {@link String} written again are copied at once, instead of being encoded again.
+ *
+ * Once the cache holds its maximum number of strings, the other ones are encoded on every write as usual, so the cache
+ * only pays off for low-cardinality strings. {@link Utf8} values, which are already encoded, long strings and the
+ * writes to other encoders than {@link BinaryEncoder} don't go through the cache.
+ */
+public final class EncodedStringCache {
+  public static final int DEFAULT_MAX_SIZE = 1024;
+  private static final int MAX_CACHED_LENGTH = 128;
+
+  private final int maxSize;
+  private final Map<String, byte[]> encodedStrings = new ConcurrentHashMap<>();
+
+  public EncodedStringCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param maxSize maximum number of strings held by the cache
+   */
+  public EncodedStringCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The max size must be positive, not: " + maxSize);
+    }
+    this.maxSize = maxSize;
+  }
+
+  public void writeString(CharSequence value, Encoder encoder) throws IOException {
+    if (value instanceof Utf8) {
+      encoder.writeString((Utf8) value);
+      return;
+    }
+    String string = value.toString();
+    if (!(encoder instanceof BinaryEncoder) || string.length() > MAX_CACHED_LENGTH) {
+      encoder.writeString(string);
+      return;
+    }
+    byte[] encoded = encodedStrings.get(string);
+    if (encoded == null) {
+      encoded = encode(string);
+      if (encodedStrings.size() < maxSize) {
+        encodedStrings.putIfAbsent(string, encoded);
+      }
+    }
+    // the binary encoding of a string is its length followed by its bytes, which writeFixed copies as they are
+    encoder.writeFixed(encoded, 0, encoded.length);
+  }
+
+  private static byte[] encode(String string) {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    // zig-zag variable-length encoding of the length
+    int length = (bytes.length << 1) ^ (bytes.length >> 31);
+    int lengthSize = 1;
+    for (int remaining = length >>> 7; remaining != 0; remaining >>>= 7) {
+      lengthSize++;
+    }
+    byte[] encoded = new byte[lengthSize + bytes.length];
+    int position = 0;
+    while ((length & ~0x7F) != 0) {
+      encoded[position++] = (byte) ((length & 0x7F) | 0x80);
+      length >>>= 7;
+    }
+    encoded[position++] = (byte) length;
+    System.arraycopy(bytes, 0, encoded, position, bytes.length);
+    return encoded;
+  }
+}
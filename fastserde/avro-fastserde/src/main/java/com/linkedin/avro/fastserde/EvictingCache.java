@@ -0,0 +1,118 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+
+/**
+ * Concurrent cache which, once it holds more than a maximum number of entries, evicts the least recently used ones.
+ *
+ * LRU is approximated with the CLOCK algorithm: lookups only set a "referenced" flag on the entry, which in the
+ * common case is a plain volatile read, and the eviction sweep gives referenced entries a second chance, clearing
+ * their flag, before evicting them on the next pass.
+ */
+final class EvictingCache<K, V> {
+  private final ConcurrentHashMap<K, Entry<V>> map = new FastAvroConcurrentHashMap<>();
+  private final int maxSize;
+  private final LongAdder evictionCount = new LongAdder();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  /**
+   * Guarded by {@link #evictionLock}.
+   */
+  private Iterator<Map.Entry<K, Entry<V>>> clockHand;
+
+  /**
+   * @param maxSize maximum number of entries, 0 or less for an unbounded cache
+   */
+  EvictingCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  V get(K key) {
+    Entry<V> entry = map.get(key);
+    if (entry == null) {
+      return null;
+    }
+    entry.markReferenced();
+    return entry.value;
+  }
+
+  V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    Entry<V> entry = map.get(key);
+    if (entry != null) {
+      entry.markReferenced();
+      return entry.value;
+    }
+    entry = map.computeIfAbsent(key, k -> {
+      V value = mappingFunction.apply(k);
+      return value != null ? new Entry<>(value) : null;
+    });
+    evictIfNeeded();
+    return entry != null ? entry.value : null;
+  }
+
+  void put(K key, V value) {
+    if (map.put(key, new Entry<>(value)) == null) {
+      evictIfNeeded();
+    }
+  }
+
+  int size() {
+    return map.size();
+  }
+
+  /**
+   * @return number of entries evicted so far
+   */
+  long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  private void evictIfNeeded() {
+    if (maxSize <= 0 || map.size() <= maxSize || !evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      while (map.size() > maxSize) {
+        if (clockHand == null || !clockHand.hasNext()) {
+          clockHand = map.entrySet().iterator();
+          if (!clockHand.hasNext()) {
+            return;
+          }
+        }
+        Map.Entry<K, Entry<V>> candidate = clockHand.next();
+        Entry<V> entry = candidate.getValue();
+        if (entry.referenced) {
+          entry.referenced = false;
+        } else if (map.remove(candidate.getKey(), entry)) {
+          evictionCount.increment();
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    /**
+     * New entries start as referenced, so they survive at least one sweep.
+     */
+    private volatile boolean referenced = true;
+
+    Entry(V value) {
+      this.value = value;
+    }
+
+    void markReferenced() {
+      // avoid writing to a shared cache line on the hot path when not needed
+      if (!referenced) {
+        referenced = true;
+      }
+    }
+  }
+}
@@ -1,6 +1,10 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.Decoder;
 
 
@@ -11,4 +15,22 @@ public interface FastDeserializer<T> {
   }
 
   T deserialize(T reuse, Decoder d) throws IOException;
+
+  /**
+   * Deserializes a batch of binary encoded values, with a single decoder reused for all of them.
+   *
+   * @param sources binary encoded values
+   * @param reuse values to reuse, by index of the source, may be null or hold fewer values than there are sources
+   * @return the deserialized values, in the order of the sources
+   */
+  default List<T> deserializeBatch(List<byte[]> sources, List<T> reuse) throws IOException {
+    List<T> results = new ArrayList<>(sources.size());
+    BinaryDecoder decoder = null;
+    for (int i = 0; i < sources.size(); i++) {
+      byte[] source = sources.get(i);
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(source, 0, source.length, decoder);
+      results.add(deserialize(reuse != null && i < reuse.size() ? reuse.get(i) : null, decoder));
+    }
+    return results;
+  }
 }
@@ -1,8 +1,10 @@
 package com.linkedin.avro.fastserde;
 
-import com.linkedin.avro.api.PrimitiveFloatList;
 import com.linkedin.avro.fastserde.backport.ResolvingGrammarGenerator;
 import com.linkedin.avro.fastserde.backport.Symbol;
+import com.linkedin.avro.fastserde.primitive.PrimitiveBooleanArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveIntArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongArrayList;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
@@ -18,15 +20,21 @@ import com.sun.codemodel.JForLoop;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
 import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JStatement;
+import com.sun.codemodel.JSwitch;
 import com.sun.codemodel.JTryBlock;
 import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 import com.sun.codemodel.JWhileLoop;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -46,7 +54,9 @@ import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.Decoder;
+import org.apache.avro.specific.SpecificData;
 import org.apache.avro.util.Utf8;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -69,7 +79,13 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
    */
   private static final Supplier<JExpression> EMPTY_SUPPLIER = () -> JExpr._null();
 
+  private final boolean lazyTopLevelRecord;
   private JMethod constructor;
+  private JVar specificDataVar;
+  /**
+   * Intern tables of the interned strings, by whether they are decoded as java strings.
+   */
+  private final Map<Boolean, JVar> stringInternTableVarMap = new HashMap<>();
   private Map<Integer, Schema> schemaMap = new HashMap<>();
   private Map<Integer, JVar> schemaVarMap = new HashMap<>();
   private Map<String, JMethod> deserializeMethodMap = new HashMap<>();
@@ -78,11 +94,38 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
 
   FastDeserializerGenerator(boolean useGenericTypes, Schema writer, Schema reader, File destination,
       ClassLoader classLoader, String compileClassPath) {
+    this(useGenericTypes, false, writer, reader, destination, classLoader, compileClassPath);
+  }
+
+  /**
+   * @param lazyTopLevelRecord whether the top-level record is returned as a {@link LazyGenericRecord}, only
+   *                           supported for generic types
+   */
+  FastDeserializerGenerator(boolean useGenericTypes, boolean lazyTopLevelRecord, Schema writer, Schema reader,
+      File destination, ClassLoader classLoader, String compileClassPath) {
     super(useGenericTypes, writer, reader, destination, classLoader, compileClassPath);
+    this.lazyTopLevelRecord = lazyTopLevelRecord;
   }
 
   public FastDeserializer<T> generateDeserializer() {
-    String className = getClassName(writer, reader, useGenericTypes ? "Generic" : "Specific");
+    String className = generateDeserializerCode();
+    try {
+      Class<?> clazz = compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
+      return newDeserializer(clazz);
+    } catch (FastDeserializerGeneratorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FastDeserializerGeneratorException(e);
+    }
+  }
+
+  /**
+   * Generates the code of the deserializer class, without compiling it.
+   *
+   * @return name of the generated class
+   */
+  String generateDeserializerCode() {
+    String className = getClassName(writer, reader, lazyTopLevelRecord ? "LazyGeneric" : useGenericTypes ? "Generic" : "Specific");
     JPackage classPackage = codeModel._package(generatedPackageName);
 
     try {
@@ -114,6 +157,14 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
        * use the reader schema class for generic type.
        */
       generatedClass._implements(codeModel.ref(FastDeserializer.class).narrow(readerSchemaClass));
+      if (lazyTopLevelRecord) {
+        if (!useGenericTypes || !Schema.Type.RECORD.equals(aliasedWriterSchema.getType())
+            || !Schema.Type.RECORD.equals(reader.getType())) {
+          throw new FastDeserializerGeneratorException("Lazy deserialization is only supported for generic records, not for: "
+              + reader.getType());
+        }
+        generatedClass._implements(LazyGenericRecord.FieldDeserializer.class);
+      }
       JMethod deserializeMethod = generatedClass.method(JMod.PUBLIC, readerSchemaClass, "deserialize");
 
       JBlock topLevelDeserializeBlock = new JBlock();
@@ -121,8 +172,12 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       final Supplier<JExpression> reuseSupplier = () -> JExpr.direct(VAR_NAME_FOR_REUSE);
       switch (aliasedWriterSchema.getType()) {
         case RECORD:
-          processRecord(readerSchemaVar, aliasedWriterSchema.getName(), aliasedWriterSchema, reader,
-              topLevelDeserializeBlock, fieldAction, JBlock::_return, reuseSupplier);
+          if (lazyTopLevelRecord) {
+            processLazyRecord(readerSchemaVar, aliasedWriterSchema, topLevelDeserializeBlock, fieldAction);
+          } else {
+            processRecord(readerSchemaVar, aliasedWriterSchema.getName(), aliasedWriterSchema, reader,
+                topLevelDeserializeBlock, fieldAction, JBlock::_return, reuseSupplier);
+          }
           break;
         case ARRAY:
           processArray(readerSchemaVar, "array", aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction,
@@ -137,8 +192,8 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
                   JBlock::_return, reuseSupplier);
           break;
         default:
-          throw new FastDeserializerGeneratorException(
-              "Incorrect top-level writer schema: " + aliasedWriterSchema.getType());
+          processTopLevelSimpleType(aliasedWriterSchema, topLevelDeserializeBlock, fieldAction, reuseSupplier);
+          break;
       }
 
       if (schemaAssistant.getExceptionsFromStringable().isEmpty()) {
@@ -157,9 +212,9 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       deserializeMethod._throws(codeModel.ref(IOException.class));
       deserializeMethod.param(readerSchemaClass, VAR_NAME_FOR_REUSE);
       deserializeMethod.param(Decoder.class, DECODER);
-
-      Class<FastDeserializer<T>> clazz = compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
-      return clazz.getConstructor(Schema.class).newInstance(reader);
+      generateDeserializeBatchMethod(readerSchemaClass);
+      declareDirectAccessMembers();
+      return className;
     } catch (JClassAlreadyExistsException e) {
       throw new FastDeserializerGeneratorException("Class: " + className + " already exists");
     } catch (FastDeserializerGeneratorException e) {
@@ -169,6 +224,74 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     }
   }
 
+  /**
+   * Overrides {@link FastDeserializer#deserializeBatch} with the same loop, so that the call to deserialize is made
+   * on the generated class itself, instead of on whichever deserializer the shared default method last saw.
+   * Lazy records keep the decoder they were read from, so each of them gets its own {@link ZeroCopyBinaryDecoder}.
+   */
+  private void generateDeserializeBatchMethod(JClass readerSchemaClass) {
+    JClass resultsClass = codeModel.ref(List.class).narrow(readerSchemaClass);
+    JMethod batchMethod = generatedClass.method(JMod.PUBLIC, resultsClass, "deserializeBatch");
+    JVar sourcesParam = batchMethod.param(codeModel.ref(List.class).narrow(codeModel.BYTE.array()), "sources");
+    JVar reuseParam = batchMethod.param(resultsClass, VAR_NAME_FOR_REUSE);
+    batchMethod._throws(codeModel.ref(IOException.class));
+
+    JBlock body = batchMethod.body();
+    JVar resultsVar = body.decl(resultsClass, "results",
+        JExpr._new(codeModel.ref(ArrayList.class).narrow(readerSchemaClass)).arg(sourcesParam.invoke("size")));
+    JVar decoderVar = lazyTopLevelRecord ? null : body.decl(codeModel.ref(BinaryDecoder.class), DECODER, JExpr._null());
+    JForLoop forLoop = body._for();
+    JVar counterVar = forLoop.init(codeModel.INT, "i", JExpr.lit(0));
+    forLoop.test(counterVar.lt(sourcesParam.invoke("size")));
+    forLoop.update(counterVar.incr());
+    JBlock loopBody = forLoop.body();
+    JVar sourceVar = loopBody.decl(codeModel.BYTE.array(), "source", sourcesParam.invoke("get").arg(counterVar));
+    JExpression decoderExpr;
+    if (lazyTopLevelRecord) {
+      decoderExpr = JExpr._new(codeModel.ref(ZeroCopyBinaryDecoder.class)).arg(sourceVar);
+    } else {
+      loopBody.assign(decoderVar, codeModel.ref(AvroCompatibilityHelper.class).staticInvoke("newBinaryDecoder")
+          .arg(sourceVar).arg(JExpr.lit(0)).arg(sourceVar.ref("length")).arg(decoderVar));
+      decoderExpr = decoderVar;
+    }
+    JExpression reuseExpr = JOp.cond(reuseParam.ne(JExpr._null()).cand(counterVar.lt(reuseParam.invoke("size"))),
+        reuseParam.invoke("get").arg(counterVar), JExpr._null());
+    loopBody.add(resultsVar.invoke("add").arg(JExpr.invoke("deserialize").arg(reuseExpr).arg(decoderExpr)));
+    body._return(resultsVar);
+  }
+
+  /**
+   * Top-level primitives, enums and fixed are returned as is, so they must already be of the reader type.
+   */
+  private void processTopLevelSimpleType(Schema aliasedWriterSchema, JBlock topLevelDeserializeBlock,
+      FieldAction fieldAction, Supplier<JExpression> reuseSupplier) {
+    Schema effectiveReaderSchema = Schema.Type.UNION.equals(reader.getType())
+        ? schemaAssistant.compatibleUnionSchema(aliasedWriterSchema, reader)
+        : reader;
+    if (!aliasedWriterSchema.getType().equals(effectiveReaderSchema.getType())) {
+      throw new FastDeserializerGeneratorException("Incorrect top-level writer schema: " + aliasedWriterSchema.getType()
+          + ", only readable as is by the top-level reader schema: " + reader.getType());
+    }
+    if (isConvertingLogicalType(effectiveReaderSchema)) {
+      throw new FastDeserializerGeneratorException("Top-level logical types are not supported: " + reader);
+    }
+    processSimpleType(aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction, JBlock::_return,
+        reuseSupplier);
+  }
+
+  /**
+   * @param clazz compiled deserializer class
+   * @return a new instance of the deserializer
+   */
+  @SuppressWarnings("unchecked")
+  FastDeserializer<T> newDeserializer(Class<?> clazz) {
+    try {
+      return (FastDeserializer<T>) clazz.getConstructor(Schema.class).newInstance(reader);
+    } catch (ReflectiveOperationException e) {
+      throw new FastDeserializerGeneratorException(e);
+    }
+  }
+
   private void processComplexType(JVar fieldSchemaVar, String name, Schema schema, Schema readerFieldSchema,
       JBlock methodBody, FieldAction action, BiConsumer<JBlock, JExpression> putExpressionIntoParent,
       Supplier<JExpression> reuseSupplier) {
@@ -196,6 +319,10 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
 
   private void processSimpleType(Schema schema, Schema readerSchema, JBlock methodBody, FieldAction action,
       BiConsumer<JBlock, JExpression> putExpressionIntoParent, Supplier<JExpression> reuseSupplier) {
+    if (action.getShouldRead() && isConvertingLogicalType(readerSchema)
+        && !Schema.Type.UNION.equals(readerSchema.getType())) {
+      putExpressionIntoParent = convertingToLogicalType(readerSchema, putExpressionIntoParent);
+    }
     switch (schema.getType()) {
       case ENUM:
         processEnum(readerSchema, methodBody, action, putExpressionIntoParent);
@@ -214,6 +341,29 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     }
   }
 
+  /**
+   * Wraps the given consumer so that the raw values are converted to their logical type, with the conversion
+   * registered for it in the {@link SpecificData} of the reader schema, just like the vanilla specific reader does.
+   */
+  private BiConsumer<JBlock, JExpression> convertingToLogicalType(Schema logicalTypeSchema,
+      BiConsumer<JBlock, JExpression> putValueIntoParent) {
+    if (specificDataVar == null) {
+      specificDataVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, SpecificData.class, getUniqueName("specificData"));
+      constructor.body().assign(JExpr.refthis(specificDataVar.name()),
+          codeModel.ref(SpecificData.class).staticInvoke("getForSchema").arg(JExpr.ref("readerSchema")));
+    }
+    LogicalTypeVars logicalTypeVars = declareLogicalTypeVars(logicalTypeSchema, constructor.body(), specificDataVar);
+    return (block, expression) -> {
+      JVar rawValue = block.decl(codeModel.ref(Object.class), getUniqueName("rawValue"), expression);
+      putValueIntoParent.accept(block, JOp.cond(logicalTypeVars.conversionVar.eq(JExpr._null()), rawValue,
+          codeModel.ref(CONVERSIONS_CLASS_NAME).staticInvoke("convertToLogicalType")
+              .arg(rawValue)
+              .arg(logicalTypeVars.schemaVar)
+              .arg(logicalTypeVars.schemaVar.invoke("getLogicalType"))
+              .arg(logicalTypeVars.conversionVar)));
+    };
+  }
+
   private void processRecord(JVar recordSchemaVar, String recordName, final Schema recordWriterSchema,
       final Schema recordReaderSchema, JBlock parentBody, FieldAction recordAction,
       BiConsumer<JBlock, JExpression> putRecordIntoParent, Supplier<JExpression> reuseSupplier) {
@@ -332,6 +482,8 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       result = null;
     }
 
+    Class<?> specificRecordClass = recordAction.getShouldRead() && !useGenericTypes
+        ? loadSpecificClass(effectiveRecordReaderSchema) : null;
     int fieldCount = 0;
     JBlock popMethodBody = methodBody;
     JMethod popMethod = null;
@@ -368,8 +520,12 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
         Schema.Field readerField = effectiveRecordReaderSchema.getField(field.name());
         readerFieldSchema = readerField.schema();
         final int readerFieldPos = readerField.pos();
-        putExpressionInRecord =
-            (block, expression) -> block.invoke(result, "put").arg(JExpr.lit(readerFieldPos)).arg(expression);
+        putExpressionInRecord = specificRecordClass == null ? null
+            : directFieldWrite(specificRecordClass, field, readerField, result);
+        if (putExpressionInRecord == null) {
+          putExpressionInRecord =
+              (block, expression) -> block.invoke(result, "put").arg(JExpr.lit(readerFieldPos)).arg(expression);
+        }
         if (useGenericTypes) {
           fieldSchemaVar = declareSchemaVar(readerField.schema(), readerField.name(),
               recordSchemaVar.invoke("getField").arg(field.name()).invoke("schema"));
@@ -421,6 +577,129 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     updateActualExceptions(method);
   }
 
+  /**
+   * Specific record fields are set through {@link IndexedRecord#put(int, Object)} by default, which boxes primitive
+   * values. For the primitive fields read as they are, this looks for a public field of the matching primitive type
+   * in the specific record class, or for a public setter taking it, so the value is assigned without being boxed.
+   *
+   * @return consumer setting the field directly, or null if put(int, Object) must be used
+   */
+  private BiConsumer<JBlock, JExpression> directFieldWrite(Class<?> recordClass, Schema.Field writerField,
+      Schema.Field readerField, JVar record) {
+    Class<?> primitiveClass = primitiveClassOf(readerField.schema());
+    if (primitiveClass == null || !writerField.schema().getType().equals(readerField.schema().getType())
+        || isConvertingLogicalType(readerField.schema())) {
+      return null;
+    }
+    Field javaField = findPublicField(recordClass, readerField.name());
+    if (javaField != null && !Modifier.isFinal(javaField.getModifiers()) && javaField.getType().equals(primitiveClass)) {
+      addDirectAccessMember(recordClass, javaField, true);
+      return (block, expression) -> block.assign(record.ref(javaField.getName()), expression);
+    }
+    try {
+      Method setter = recordClass.getMethod("set" + StringUtils.capitalize(readerField.name()), primitiveClass);
+      if (!Modifier.isStatic(setter.getModifiers())) {
+        addDirectAccessMember(recordClass, setter);
+        return (block, expression) -> block.invoke(record, setter.getName()).arg(expression);
+      }
+    } catch (NoSuchMethodException e) {
+      // no setter
+    }
+    return null;
+  }
+
+  /**
+   * Generates the scan of a lazy top-level record, which only records where each field starts while skipping it,
+   * along with one method per field decoding it on demand, dispatched by the {@code deserializeField} method of
+   * {@link LazyGenericRecord.FieldDeserializer}.
+   */
+  private void processLazyRecord(JVar recordSchemaVar, final Schema recordWriterSchema, JBlock topLevelDeserializeBlock,
+      FieldAction recordAction) {
+    ListIterator<Symbol> actionIterator = actionIterator(recordAction);
+
+    JVar zeroCopyDecoder = topLevelDeserializeBlock.decl(codeModel.ref(ZeroCopyBinaryDecoder.class), "zeroCopyDecoder",
+        codeModel.ref(LazyGenericRecord.class).staticInvoke("zeroCopyDecoder").arg(JExpr.direct(DECODER)));
+    JVar fieldOffsets = topLevelDeserializeBlock.decl(codeModel.INT.array(), "fieldOffsets",
+        JExpr.newArray(codeModel.INT, reader.getFields().size()));
+    topLevelDeserializeBlock.add(codeModel.ref(Arrays.class).staticInvoke("fill").arg(fieldOffsets).arg(JExpr.lit(-1)));
+
+    JMethod deserializeFieldMethod = generatedClass.method(JMod.PUBLIC, Object.class, "deserializeField");
+    deserializeFieldMethod._throws(IOException.class);
+    JVar fieldPos = deserializeFieldMethod.param(codeModel.INT, "fieldPos");
+    deserializeFieldMethod.param(Decoder.class, DECODER);
+    JSwitch fieldSwitch = deserializeFieldMethod.body()._switch(fieldPos);
+
+    int fieldCount = 0;
+    JBlock scanBody = topLevelDeserializeBlock;
+    for (Schema.Field field : recordWriterSchema.getFields()) {
+      // as for the population methods, the scan of very large records is rolled into several methods
+      fieldCount++;
+      if (fieldCount % FIELDS_PER_POPULATION_METHOD == 0) {
+        JMethod scanMethod = generatedClass.method(JMod.PRIVATE, codeModel.VOID,
+            getUniqueName("scan_" + recordWriterSchema.getName()));
+        scanMethod._throws(IOException.class);
+        scanMethod.param(codeModel.INT.array(), fieldOffsets.name());
+        scanMethod.param(ZeroCopyBinaryDecoder.class, zeroCopyDecoder.name());
+        scanMethod.param(Decoder.class, DECODER);
+        scanBody = scanMethod.body();
+        topLevelDeserializeBlock.invoke(scanMethod).arg(fieldOffsets).arg(zeroCopyDecoder).arg(JExpr.direct(DECODER));
+      }
+      FieldAction action = seekFieldAction(true, field, actionIterator);
+      if (action.getSymbol() == END_SYMBOL) {
+        break;
+      }
+
+      if (action.getShouldRead()) {
+        Schema.Field readerField = reader.getField(field.name());
+        scanBody.assign(fieldOffsets.component(JExpr.lit(readerField.pos())), zeroCopyDecoder.invoke("getPosition"));
+
+        JMethod fieldMethod = generatedClass.method(JMod.PRIVATE, Object.class,
+            getUniqueName("deserialize" + StringUtils.capitalize(field.name())));
+        fieldMethod._throws(IOException.class);
+        fieldMethod.param(Decoder.class, DECODER);
+        JVar fieldSchemaVar = declareSchemaVar(readerField.schema(), readerField.name(),
+            recordSchemaVar.invoke("getField").arg(field.name()).invoke("schema"));
+        if (SchemaAssistant.isComplexType(field.schema())) {
+          processComplexType(fieldSchemaVar, field.name(), field.schema(), readerField.schema(), fieldMethod.body(),
+              action, JBlock::_return, EMPTY_SUPPLIER);
+        } else {
+          processSimpleType(field.schema(), readerField.schema(), fieldMethod.body(), action, JBlock::_return,
+              EMPTY_SUPPLIER);
+        }
+        fieldSwitch._case(JExpr.lit(readerField.pos())).body()._return(JExpr.invoke(fieldMethod).arg(JExpr.direct(DECODER)));
+      }
+
+      FieldAction skipAction = seekFieldAction(false, field, actionIterator);
+      if (SchemaAssistant.isComplexType(field.schema())) {
+        processComplexType(null, field.name(), field.schema(), null, scanBody, skipAction, null, EMPTY_SUPPLIER);
+      } else {
+        processSimpleType(field.schema(), null, scanBody, skipAction, null, EMPTY_SUPPLIER);
+      }
+    }
+
+    // fields missing from the writer schema are decoded from their default value
+    Set<String> fieldNamesSet =
+        recordWriterSchema.getFields().stream().map(Schema.Field::name).collect(Collectors.toSet());
+    for (Schema.Field readerField : reader.getFields()) {
+      if (!fieldNamesSet.contains(readerField.name())) {
+        forwardToExpectedDefault(actionIterator);
+        seekFieldAction(true, readerField, actionIterator);
+        JBlock caseBody = fieldSwitch._case(JExpr.lit(readerField.pos())).body().block();
+        JVar schemaVar = declareSchemaVariableForRecordField(readerField.name(), readerField.schema(), recordSchemaVar);
+        caseBody._return(parseDefaultValue(readerField.schema(), AvroCompatibilityHelper.getGenericDefaultValue(readerField),
+            caseBody, schemaVar, readerField.name()));
+      }
+    }
+    fieldSwitch._default().body()._throw(JExpr._new(codeModel.ref(IndexOutOfBoundsException.class))
+        .arg(JExpr.lit("Invalid field position: ").plus(fieldPos)));
+
+    topLevelDeserializeBlock._return(JExpr._new(codeModel.ref(LazyGenericRecord.class))
+        .arg(recordSchemaVar)
+        .arg(JExpr._this())
+        .arg(zeroCopyDecoder)
+        .arg(fieldOffsets));
+  }
+
   private void updateActualExceptions(JMethod method) {
     Set<Class<? extends Exception>> exceptionFromMethod = exceptionFromMethodMap.get(method);
     if (exceptionFromMethod != null) {
@@ -748,30 +1027,37 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
 
       action =
           FieldAction.fromValues(arraySchema.getElementType().getType(), action.getShouldRead(), valuesActionSymbol);
+
+      if (isConvertingLogicalType(effectiveArrayReaderSchema.getElementType())) {
+        throw new FastDeserializerGeneratorException("Arrays of logical types are not supported: " + name);
+      }
     } else {
       action = FieldAction.fromValues(arraySchema.getElementType().getType(), false, EMPTY_SYMBOL);
     }
 
     final JVar arrayVar = action.getShouldRead() ? declareValueVar(name, effectiveArrayReaderSchema, parentBody, true, false, true) : null;
     /**
-     * Special optimization for float array by leveraging {@link BufferBackedPrimitiveFloatList}.
-     *
-     * TODO: Handle other primitive element types here.
+     * Special optimization for primitive arrays, which are read in bulk: floats and doubles by leveraging
+     * {@link BufferBackedPrimitiveFloatList} and {@link BufferBackedPrimitiveDoubleList}, the varint-encoded
+     * ints and longs, as well as booleans, by decoding each block straight into the primitive list.
      */
-    if (action.getShouldRead() && arraySchema.getElementType().getType().equals(Schema.Type.FLOAT)) {
-      JClass primitiveFloatList = codeModel.ref(BufferBackedPrimitiveFloatList.class);
-      JExpression readPrimitiveFloatArrayInvocation = primitiveFloatList.staticInvoke("readPrimitiveFloatArray").
-          arg(reuseSupplier.get()).arg(JExpr.direct(DECODER));
-      JExpression castedResult =
-          JExpr.cast(codeModel.ref(PrimitiveFloatList.class), readPrimitiveFloatArrayInvocation);
-
-      parentBody.assign(arrayVar, castedResult);
+    if (action.getShouldRead() && SchemaAssistant.isPrimitive(arraySchema.getElementType())
+        && arraySchema.getElementType().getType().equals(effectiveArrayReaderSchema.getElementType().getType())) {
+      JClass primitiveListInterface = schemaAssistant.classFromSchema(effectiveArrayReaderSchema, true, false, true);
+      JExpression readPrimitiveArrayInvocation = getPrimitiveArrayReader(arraySchema.getElementType().getType())
+          .arg(reuseSupplier.get()).arg(JExpr.direct(DECODER));
+
+      parentBody.assign(arrayVar, JExpr.cast(primitiveListInterface, readPrimitiveArrayInvocation));
       putArrayIntoParent.accept(parentBody, arrayVar);
       return;
     }
 
-    JVar chunkLen =
-        parentBody.decl(codeModel.LONG, getUniqueName("chunkLen"), JExpr.direct(DECODER + ".readArrayStart()"));
+    // skipped arrays are iterated with Decoder#skipArray(), which skips the blocks prefixed by their size in bytes
+    // (e.g. the ones written by Utils#newBlockingBinaryEncoder) at once, and only returns the item count of the blocks
+    // to be skipped item by item
+    String nextBlockInvocation = action.getShouldRead() ? ".arrayNext()" : ".skipArray()";
+    JVar chunkLen = parentBody.decl(codeModel.LONG, getUniqueName("chunkLen"),
+        JExpr.direct(DECODER + (action.getShouldRead() ? ".readArrayStart()" : ".skipArray()")));
 
     final FieldAction finalAction = action;
 
@@ -845,13 +1131,30 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     } else {
       processSimpleType(arraySchema.getElementType(), readerArrayElementSchema, forBody, finalAction, putValueInArray, elementReuseSupplier);
     }
-    whileLoopToIterateOnBlocks.body().assign(chunkLen, JExpr.direct(DECODER + ".arrayNext()"));
+    whileLoopToIterateOnBlocks.body().assign(chunkLen, JExpr.direct(DECODER + nextBlockInvocation));
 
     if (action.getShouldRead()) {
       putArrayIntoParent.accept(parentBody, arrayVar);
     }
   }
 
+  private JInvocation getPrimitiveArrayReader(Schema.Type elementType) {
+    switch (elementType) {
+      case BOOLEAN:
+        return codeModel.ref(PrimitiveBooleanArrayList.class).staticInvoke("readPrimitiveBooleanArray");
+      case DOUBLE:
+        return codeModel.ref(BufferBackedPrimitiveDoubleList.class).staticInvoke("readPrimitiveDoubleArray");
+      case FLOAT:
+        return codeModel.ref(BufferBackedPrimitiveFloatList.class).staticInvoke("readPrimitiveFloatArray");
+      case INT:
+        return codeModel.ref(PrimitiveIntArrayList.class).staticInvoke("readPrimitiveIntArray");
+      case LONG:
+        return codeModel.ref(PrimitiveLongArrayList.class).staticInvoke("readPrimitiveLongArray");
+      default:
+        throw new FastDeserializerGeneratorException("Not a primitive array element type: " + elementType);
+    }
+  }
+
   /**
    * Return a JExpression, which will read a string from decoder and construct a stringable object.
    *
@@ -928,18 +1231,38 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       }
 
       action = FieldAction.fromValues(mapSchema.getValueType().getType(), action.getShouldRead(), valuesActionSymbol);
+
+      if (isConvertingLogicalType(effectiveMapReaderSchema.getValueType())) {
+        throw new FastDeserializerGeneratorException("Maps of logical types are not supported: " + name);
+      }
     } else {
       action = FieldAction.fromValues(mapSchema.getValueType().getType(), false, EMPTY_SYMBOL);
     }
 
     final JVar mapVar = action.getShouldRead() ? declareValueVar(name, effectiveMapReaderSchema, parentBody) : null;
-    JVar chunkLen =
-        parentBody.decl(codeModel.LONG, getUniqueName("chunkLen"), JExpr.direct(DECODER + ".readMapStart()"));
+    // just like arrays, skipped maps are iterated with Decoder#skipMap(), which skips the sized blocks at once
+    String nextBlockInvocation = action.getShouldRead() ? ".mapNext()" : ".skipMap()";
+    JVar chunkLen = parentBody.decl(codeModel.LONG, getUniqueName("chunkLen"),
+        JExpr.direct(DECODER + (action.getShouldRead() ? ".readMapStart()" : ".skipMap()")));
+
+    JVar compactMapVar = null;
+    if (action.getShouldRead() && schemaAssistant.isCompactMap(effectiveMapReaderSchema)) {
+      // the reused compact map is refilled in place, reusing the keys and values decoded again
+      JClass compactMapClass = codeModel.ref(CompactUtf8Map.class);
+      final Supplier<JExpression> finalReuseSupplier = potentiallyCacheInvocation(reuseSupplier, parentBody, "oldMap");
+      compactMapVar = parentBody.decl(compactMapClass, getUniqueName(name + "CompactMap"),
+          JOp.cond(finalReuseSupplier.get()._instanceof(compactMapClass),
+              JExpr.cast(compactMapClass, finalReuseSupplier.get()),
+              JExpr._new(compactMapClass).arg(JExpr.cast(codeModel.INT, chunkLen))));
+      parentBody.invoke(compactMapVar, "startRefill");
+      parentBody.assign(mapVar, compactMapVar);
+    }
 
     JConditional conditional = parentBody._if(chunkLen.gt(JExpr.lit(0)));
     JBlock ifBlockForChunkLenCheck = conditional._then();
 
-    if (action.getShouldRead()) {
+    JVar oldEntriesVar = null;
+    if (action.getShouldRead() && compactMapVar == null) {
       JVar reuse = declareValueVar(name + "Reuse", effectiveMapReaderSchema, ifBlockForChunkLenCheck);
 
       // Check whether the reuse is a Map or not
@@ -948,11 +1271,21 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
           finalReuseSupplier.get()._instanceof(codeModel.ref(Map.class)),
           thenBlock -> thenBlock.assign(reuse, JExpr.cast(codeModel.ref(Map.class), finalReuseSupplier.get())));
 
+      // the entries of the reused map are kept aside before it is cleared, so that values can be decoded into them
+      final JVar finalOldEntriesVar = isReusableMapValue(effectiveMapReaderSchema.getValueType())
+          ? ifBlockForChunkLenCheck.decl(codeModel.ref(Map.class), getUniqueName(name + "OldEntries"), JExpr._null())
+          : null;
+      oldEntriesVar = finalOldEntriesVar;
+
       // Check whether the reuse is null or not
       final Schema finalEffectiveMapReaderSchema = effectiveMapReaderSchema;
       ifCodeGen(ifBlockForChunkLenCheck,
           reuse.ne(JExpr.direct("null")),
           thenBlock -> {
+            if (finalOldEntriesVar != null) {
+              ifCodeGen(thenBlock, reuse.invoke("isEmpty").not(),
+                  copyBlock -> copyBlock.assign(finalOldEntriesVar, JExpr._new(codeModel.ref(HashMap.class)).arg(reuse)));
+            }
             thenBlock.invoke(reuse, "clear");
             thenBlock.assign(mapVar, reuse);
           },
@@ -974,17 +1307,24 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     forLoop.update(counter.incr());
     JBlock forBody = forLoop.body();
 
-    JClass keyClass = schemaAssistant.findStringClass(action.getShouldRead() ? effectiveMapReaderSchema : mapSchema);
-    JExpression keyValueExpression;
-    if (SchemaAssistant.hasStringableKey(mapSchema)) {
-      keyValueExpression = readStringableExpression(keyClass);
+    JVar key = null;
+    if (compactMapVar != null) {
+      key = forBody.decl(codeModel.ref(Utf8.class), getUniqueName("key"),
+          compactMapVar.invoke("readKey").arg(JExpr.direct(DECODER)));
+    } else if (action.getShouldRead()) {
+      JClass keyClass = schemaAssistant.findStringClass(effectiveMapReaderSchema);
+      JExpression keyValueExpression;
+      if (SchemaAssistant.hasStringableKey(mapSchema)) {
+        keyValueExpression = readStringableExpression(keyClass);
+      } else {
+        keyValueExpression = codeModel.ref(String.class).equals(keyClass) ?
+                JExpr.direct(DECODER + ".readString()")
+                : JExpr.direct(DECODER + ".readString(null)");
+      }
+      key = forBody.decl(keyClass, getUniqueName("key"), keyValueExpression);
     } else {
-      keyValueExpression = codeModel.ref(String.class).equals(keyClass) ?
-              JExpr.direct(DECODER + ".readString()")
-              : JExpr.direct(DECODER + ".readString(null)");
+      forBody.directStatement(DECODER + ".skipString();");
     }
-
-    JVar key = forBody.decl(keyClass, getUniqueName("key"), keyValueExpression);
     JVar mapValueSchemaVar = null;
     if (action.getShouldRead() && useGenericTypes) {
       mapValueSchemaVar =
@@ -993,24 +1333,56 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
 
     BiConsumer<JBlock, JExpression> putValueInMap = null;
     Schema readerMapValueSchema = null;
+    Supplier<JExpression> valueReuseSupplier = EMPTY_SUPPLIER;
     if (action.getShouldRead()) {
-      putValueInMap = (block, expression) -> block.invoke(mapVar, "put").arg(key).arg(expression);
+      JVar finalKey = key;
+      putValueInMap = (block, expression) -> block.invoke(mapVar, "put").arg(finalKey).arg(expression);
       readerMapValueSchema = effectiveMapReaderSchema.getValueType();
+      if (compactMapVar != null) {
+        JVar finalCompactMapVar = compactMapVar;
+        valueReuseSupplier = () -> finalCompactMapVar.invoke("get").arg(finalKey);
+      } else if (oldEntriesVar != null) {
+        JVar oldValueVar = forBody.decl(codeModel.ref(Object.class), getUniqueName(name + "OldValue"),
+            JOp.cond(oldEntriesVar.eq(JExpr._null()), JExpr._null(), oldEntriesVar.invoke("get").arg(finalKey)));
+        valueReuseSupplier = () -> oldValueVar;
+      }
     }
 
     if (SchemaAssistant.isComplexType(mapSchema.getValueType())) {
       String valueName = name + "Value";
       processComplexType(mapValueSchemaVar, valueName, mapSchema.getValueType(), readerMapValueSchema, forBody, action,
-          putValueInMap, EMPTY_SUPPLIER);
+          putValueInMap, valueReuseSupplier);
     } else {
-      processSimpleType(mapSchema.getValueType(), readerMapValueSchema, forBody, action, putValueInMap, EMPTY_SUPPLIER);
+      processSimpleType(mapSchema.getValueType(), readerMapValueSchema, forBody, action, putValueInMap,
+          valueReuseSupplier);
+    }
+    doLoop.body().assign(chunkLen, JExpr.direct(DECODER + nextBlockInvocation));
+    if (compactMapVar != null) {
+      parentBody.invoke(compactMapVar, "endRefill");
     }
-    doLoop.body().assign(chunkLen, JExpr.direct(DECODER + ".mapNext()"));
     if (action.getShouldRead()) {
       putMapIntoParent.accept(parentBody, mapVar);
     }
   }
 
+  /**
+   * Only values which can be decoded into a previous instance are worth looking up in the map being reused.
+   */
+  private static boolean isReusableMapValue(Schema valueSchema) {
+    switch (valueSchema.getType()) {
+      case BOOLEAN:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case ENUM:
+      case NULL:
+        return false;
+      default:
+        return true;
+    }
+  }
+
   private void processFixed(final Schema schema, JBlock body, FieldAction action,
       BiConsumer<JBlock, JExpression> putFixedIntoParent, Supplier<JExpression> reuseSupplier) {
     if (action.getShouldRead()) {
@@ -1157,8 +1529,10 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
         putValueIntoParent.accept(body, JExpr.invoke(JExpr.direct(DECODER), "readBytes").arg(JExpr.direct("null")));
       } else {
         final Supplier<JExpression> finalReuseSupplier = potentiallyCacheInvocation(reuseSupplier, body, "oldBytes");
+        // read-only buffers, such as the slices returned by ZeroCopyBinaryDecoder, can't be decoded into
         ifCodeGen(body,
-            finalReuseSupplier.get()._instanceof(codeModel.ref("java.nio.ByteBuffer")),
+            finalReuseSupplier.get()._instanceof(codeModel.ref("java.nio.ByteBuffer"))
+                .cand(JExpr.cast(codeModel.ref(ByteBuffer.class), finalReuseSupplier.get()).invoke("isReadOnly").not()),
             thenBlock -> putValueIntoParent.accept(thenBlock, JExpr.invoke(JExpr.direct(DECODER), "readBytes")
                 .arg(JExpr.cast(codeModel.ref(ByteBuffer.class), finalReuseSupplier.get()))),
             elseBlock -> putValueIntoParent.accept(elseBlock,
@@ -1174,7 +1548,12 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       BiConsumer<JBlock, JExpression> putValueIntoParent, Supplier<JExpression> reuseSupplier) {
     if (action.getShouldRead()) {
       JClass stringClass = schemaAssistant.findStringClass(schema);
-      if (stringClass.equals(codeModel.ref(Utf8.class))) {
+      if (schemaAssistant.isInternedString(schema)) {
+        // the interned instances are shared, so they are never reused
+        boolean javaStrings = stringClass.equals(codeModel.ref(String.class));
+        putValueIntoParent.accept(body, declareStringInternTableVar(javaStrings)
+            .invoke(javaStrings ? "readString" : "readUtf8").arg(JExpr.direct(DECODER)));
+      } else if (stringClass.equals(codeModel.ref(Utf8.class))) {
         if (reuseSupplier.equals(EMPTY_SUPPLIER)) {
           putValueIntoParent.accept(body, JExpr.invoke(JExpr.direct(DECODER), "readString").arg(JExpr._null()));
         } else {
@@ -1194,6 +1573,16 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     }
   }
 
+  private JVar declareStringInternTableVar(boolean javaStrings) {
+    return stringInternTableVarMap.computeIfAbsent(javaStrings, k -> {
+      JVar internTableVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, StringInternTable.class,
+          getUniqueName(javaStrings ? "internedStrings" : "internedUtf8s"));
+      constructor.body().assign(JExpr.refthis(internTableVar.name()),
+          JExpr._new(codeModel.ref(StringInternTable.class)).arg(JExpr.lit(javaStrings)));
+      return internTableVar;
+    });
+  }
+
   private void processPrimitive(final Schema schema, JBlock body, FieldAction action,
       BiConsumer<JBlock, JExpression> putValueIntoParent, Supplier<JExpression> reuseSupplier) {
 
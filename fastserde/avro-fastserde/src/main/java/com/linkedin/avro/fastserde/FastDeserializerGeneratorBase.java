@@ -14,6 +14,7 @@ import org.apache.avro.util.Utf8;
 
 /** TODO all of this could be moved to {@link FastDeserializerGenerator} */
 public abstract class FastDeserializerGeneratorBase<T> extends FastSerdeBase {
+  protected static final String DESCRIPTION = "deserialization";
   protected static final Symbol EMPTY_SYMBOL = new Symbol(Symbol.Kind.TERMINAL, new Symbol[]{}) {};
   protected static final Symbol END_SYMBOL = new Symbol(Symbol.Kind.TERMINAL, new Symbol[]{}) {};
   protected final Schema writer;
@@ -21,7 +22,7 @@ public abstract class FastDeserializerGeneratorBase<T> extends FastSerdeBase {
 
   FastDeserializerGeneratorBase(boolean useGenericTypes, Schema writer, Schema reader, File destination, ClassLoader classLoader,
       String compileClassPath) {
-    super("deserialization", useGenericTypes, Utf8.class, destination, classLoader, compileClassPath, false);
+    super(DESCRIPTION, useGenericTypes, Utf8.class, destination, classLoader, compileClassPath, false);
     this.writer = writer;
     this.reader = reader;
   }
@@ -37,12 +38,16 @@ public abstract class FastDeserializerGeneratorBase<T> extends FastSerdeBase {
   }
 
   public static String getClassName(Schema writerSchema, Schema readerSchema, String description) {
-    int writerSchemaId = Math.abs(Utils.getSchemaFingerprint(writerSchema));
-    int readerSchemaId = Math.abs(Utils.getSchemaFingerprint(readerSchema));
+    String writerSchemaId = Long.toHexString(Utils.getSchemaFingerprint64(writerSchema));
+    String readerSchemaId = Long.toHexString(Utils.getSchemaFingerprint64(readerSchema));
     String typeName = SchemaAssistant.getTypeName(readerSchema);
     return typeName + SEP + description + "Deserializer" + SEP + writerSchemaId + SEP + readerSchemaId;
   }
 
+  public static String getClassFullName(Schema writerSchema, Schema readerSchema, String description) {
+    return getGeneratedPackageName(DESCRIPTION) + "." + getClassName(writerSchema, readerSchema, description);
+  }
+
   protected static String getSymbolPrintName(Symbol symbol) {
     String printName;
     try {
@@ -1,6 +1,7 @@
 package com.linkedin.avro.fastserde;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.avro.Schema;
@@ -21,6 +22,15 @@ public class FastGenericDatumReader<T> implements DatumReader<T> {
   private FastSerdeCache cache;
 
   private final AtomicReference<FastDeserializer<T>> cachedFastDeserializer = new AtomicReference<>();
+  /**
+   * Whether calls to the cached fast deserializer are counted in the usages recorded by the cache, which is pointless
+   * for the vanilla avro ones cached for unsupported versions and schema types.
+   */
+  private final boolean countsUsage;
+  /**
+   * Written without synchronization, losing an update just causes another lookup of the counter.
+   */
+  private FastSerdeCache.UsageCounter usageCounter;
 
   public FastGenericDatumReader(Schema schema) {
     this(schema, schema);
@@ -55,6 +65,7 @@ public class FastGenericDatumReader<T> implements DatumReader<T> {
             + " is not supported");
       }
     }
+    this.countsUsage = cachedFastDeserializer.get() == null;
   }
 
   @Override
@@ -69,18 +80,37 @@ public class FastGenericDatumReader<T> implements DatumReader<T> {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public T read(T reuse, Decoder in) throws IOException {
+    return getOrCreateFastDeserializer(1).deserialize(reuse, in);
+  }
+
+  /**
+   * Reads a batch of binary encoded values, looking the deserializer up once for the whole batch.
+   *
+   * @see FastDeserializer#deserializeBatch(List, List)
+   */
+  public List<T> readBatch(List<byte[]> sources, List<T> reuse) throws IOException {
+    return getOrCreateFastDeserializer(sources.size()).deserializeBatch(sources, reuse);
+  }
+
+  /**
+   * @param calls number of calls about to be made, counted if they are served by the cached fast deserializer
+   */
+  private FastDeserializer<T> getOrCreateFastDeserializer(int calls) {
     FastDeserializer<T> fastDeserializer = null;
 
     if (cachedFastDeserializer.get() != null) {
       fastDeserializer = cachedFastDeserializer.get();
+      if (countsUsage) {
+        usageCounter = cache.countCalls(usageCounter, getCacheType(), writerSchema, readerSchema, calls);
+      }
     } else {
       fastDeserializer = getFastDeserializerFromCache(cache, writerSchema, readerSchema);
       if (!FastSerdeCache.isFastDeserializer(fastDeserializer)) {
         // don't cache
       } else {
         cachedFastDeserializer.compareAndSet(null, fastDeserializer);
+        usageCounter = cache.countCalls(usageCounter, getCacheType(), writerSchema, readerSchema, calls);
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("FastGenericDeserializer was generated and cached for reader schema: ["
               + readerSchema + "], writer schema: [" + writerSchema + "]");
@@ -88,7 +118,7 @@ public class FastGenericDatumReader<T> implements DatumReader<T> {
       }
     }
 
-    return fastDeserializer.deserialize(reuse, in);
+    return fastDeserializer;
   }
 
   public CompletableFuture<FastDeserializer<T>> getFastDeserializer() {
@@ -114,6 +144,10 @@ public class FastGenericDatumReader<T> implements DatumReader<T> {
     return new FastSerdeCache.FastDeserializerWithAvroGenericImpl<>(writerSchema, readerSchema);
   }
 
+  FastSerdeCacheListener.CacheType getCacheType() {
+    return FastSerdeCacheListener.CacheType.GENERIC_DESERIALIZER;
+  }
+
   /**
    * Return a flag to indicate whether fast deserializer is being used or not.
    * @return true if fast deserializer is being used.
@@ -1,6 +1,7 @@
 package com.linkedin.avro.fastserde;
 
 import java.io.IOException;
+import java.util.List;
 import org.apache.avro.Schema;
 import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.Encoder;
@@ -16,6 +17,12 @@ public class FastGenericDatumWriter<T> implements DatumWriter<T> {
   private final FastSerdeCache cache;
   private Schema writerSchema;
   private FastSerializer<T> cachedFastSerializer;
+  /**
+   * Whether calls to the cached fast serializer are counted in the usages recorded by the cache, which is pointless
+   * for the vanilla avro ones cached for unsupported versions and schema types.
+   */
+  private final boolean countsUsage;
+  private FastSerdeCache.UsageCounter usageCounter;
 
   public FastGenericDatumWriter(Schema schema) {
     this(schema, FastSerdeCache.getDefaultInstance());
@@ -40,6 +47,7 @@ public class FastGenericDatumWriter<T> implements DatumWriter<T> {
             + " is not supported");
       }
     }
+    this.countsUsage = cachedFastSerializer == null;
   }
 
   @Override
@@ -48,24 +56,43 @@ public class FastGenericDatumWriter<T> implements DatumWriter<T> {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public void write(T data, Encoder out) throws IOException {
+    getOrCreateFastSerializer(1).serialize(data, out);
+  }
+
+  /**
+   * Writes a batch of values, looking the serializer up once for the whole batch.
+   *
+   * @see FastSerializer#serializeBatch(List)
+   */
+  public List<byte[]> writeBatch(List<? extends T> data) throws IOException {
+    return getOrCreateFastSerializer(data.size()).serializeBatch(data);
+  }
+
+  /**
+   * @param calls number of calls about to be made, counted if they are served by the cached fast serializer
+   */
+  private FastSerializer<T> getOrCreateFastSerializer(int calls) {
     FastSerializer<T> fastSerializer;
     if (cachedFastSerializer != null) {
       fastSerializer = cachedFastSerializer;
+      if (countsUsage) {
+        usageCounter = cache.countCalls(usageCounter, getCacheType(), writerSchema, writerSchema, calls);
+      }
     } else {
       fastSerializer = getFastSerializerFromCache(cache, writerSchema);
       if (!isFastSerializer(fastSerializer)) {
         // don't cache
       } else {
         cachedFastSerializer = fastSerializer;
+        usageCounter = cache.countCalls(usageCounter, getCacheType(), writerSchema, writerSchema, calls);
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("FastSerializer has been generated and cached for writer schema: [" + writerSchema + "]");
         }
       }
     }
 
-    fastSerializer.serialize(data, out);
+    return fastSerializer;
   }
 
   protected FastSerializer<T> getFastSerializerFromCache(FastSerdeCache fastSerdeCache, Schema schema) {
@@ -76,6 +103,10 @@ public class FastGenericDatumWriter<T> implements DatumWriter<T> {
     return new FastSerdeCache.FastSerializerWithAvroGenericImpl<>(schema);
   }
 
+  FastSerdeCacheListener.CacheType getCacheType() {
+    return FastSerdeCacheListener.CacheType.GENERIC_SERIALIZER;
+  }
+
   private static boolean isFastSerializer(FastSerializer serializer) {
     return !(serializer instanceof FastSerdeCache.FastSerializerWithAvroSpecificImpl
         || serializer instanceof FastSerdeCache.FastSerializerWithAvroGenericImpl);
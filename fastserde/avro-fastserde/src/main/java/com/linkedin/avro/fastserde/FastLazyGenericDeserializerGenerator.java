@@ -0,0 +1,16 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.File;
+import org.apache.avro.Schema;
+
+
+/**
+ * Generates deserializers returning {@link LazyGenericRecord}s, see {@link FastSerdeCache#buildFastLazyGenericDeserializer}.
+ */
+public final class FastLazyGenericDeserializerGenerator<T> extends FastDeserializerGenerator<T> {
+
+  FastLazyGenericDeserializerGenerator(Schema writer, Schema reader, File destination, ClassLoader classLoader,
+      String compileClassPath) {
+    super(true, true, writer, reader, destination, classLoader, compileClassPath);
+  }
+}
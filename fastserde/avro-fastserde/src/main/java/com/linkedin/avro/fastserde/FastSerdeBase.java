@@ -1,28 +1,35 @@
 package com.linkedin.avro.fastserde;
 
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JMod;
 import com.sun.codemodel.JVar;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import javax.tools.JavaCompiler;
-import javax.tools.ToolProvider;
 import org.apache.avro.Schema;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static com.linkedin.avro.fastserde.Utils.*;
-
 
 /**
  * Utilities used by both serialization and deserialization code.
@@ -31,13 +38,26 @@ public abstract class FastSerdeBase {
   private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeBase.class);
   protected static final String SEP = "_";
   public static final String GENERATED_PACKAGE_NAME_PREFIX = "com.linkedin.avro.fastserde.generated.";
+  /**
+   * Version of the generated code. It must be bumped whenever the shape of the generated classes changes,
+   * so that classes generated by a previous version of this library and kept around on disk are not picked up.
+   */
+  public static final int GENERATOR_VERSION = 8;
+  /**
+   * Only available in avro 1.9 and later, so it is referenced by name.
+   */
+  protected static final String CONVERSIONS_CLASS_NAME = "org.apache.avro.Conversions";
+  /**
+   * Name of the static field of the generated classes listing the members of the specific record classes they access
+   * directly, see {@link #hasMatchingDirectAccessMembers(Class)}.
+   */
+  public static final String DIRECT_ACCESS_MEMBERS = "DIRECT_ACCESS_MEMBERS";
 
   /**
    * A repository of how many times a given name was used.
    * N.B.: Does not actually need to be threadsafe, but it is made so just for defensive coding reasons.
    */
   private final ConcurrentMap<String, AtomicInteger> counterPerName = new FastAvroConcurrentHashMap<>();
-  private final String generatedSourcesPath;
   protected final String generatedPackageName;
   protected final JCodeModel codeModel = new JCodeModel();
   protected final boolean useGenericTypes;
@@ -46,6 +66,12 @@ public abstract class FastSerdeBase {
   protected final ClassLoader classLoader;
   protected final String compileClassPath;
   protected JDefinedClass generatedClass;
+  private FastSerdeCompiler compiler;
+  private final Map<String, LogicalTypeVars> logicalTypeVarsMap = new HashMap<>();
+  /**
+   * Sorted, so that the code gen is deterministic.
+   */
+  private final Set<String> directAccessMembers = new TreeSet<>();
 
   public FastSerdeBase(String description, boolean useGenericTypes, Class defaultStringClass, File destination, ClassLoader classLoader,
       String compileClassPath, boolean isForSerializer) {
@@ -54,8 +80,22 @@ public abstract class FastSerdeBase {
     this.destination = destination;
     this.classLoader = classLoader;
     this.compileClassPath = (null == compileClassPath ? "" : compileClassPath);
-    this.generatedPackageName = GENERATED_PACKAGE_NAME_PREFIX + description + "." + AvroCompatibilityHelper.getRuntimeAvroVersion().name();
-    this.generatedSourcesPath = generateSourcePathFromPackageName(generatedPackageName);
+    this.generatedPackageName = getGeneratedPackageName(description);
+  }
+
+  /**
+   * @param compiler compiler to use instead of {@link FastSerdeCompiler#getDefaultInstance()}
+   */
+  void setCompiler(FastSerdeCompiler compiler) {
+    this.compiler = compiler;
+  }
+
+  /**
+   * @param description "serialization" or "deserialization"
+   * @return name of the package the generated classes are put in for the current avro runtime
+   */
+  public static String getGeneratedPackageName(String description) {
+    return GENERATED_PACKAGE_NAME_PREFIX + description + "." + AvroCompatibilityHelper.getRuntimeAvroVersion().name();
   }
 
   /**
@@ -100,51 +140,270 @@ public abstract class FastSerdeBase {
     }
   }
 
-  @SuppressWarnings("unchecked")
-  protected Class compileClass(final String className, Set<String> knownUsedFullyQualifiedClassNameSet)
-      throws IOException, ClassNotFoundException {
-    codeModel.build(destination);
+  /**
+   * Logical types are only converted by the specific serdes on avro 1.9 and later, where the specific records hold
+   * the converted values. The generic serdes deal with the raw values, as the vanilla generic ones do by default.
+   *
+   * @param schema schema to check, unions are converting if any of their branches is
+   * @return true if the values of the given schema are converted from/to a logical type
+   */
+  protected boolean isConvertingLogicalType(Schema schema) {
+    if (useGenericTypes || schema == null || !Utils.isAbleToSupportLogicalTypes()) {
+      return false;
+    }
+    if (Schema.Type.UNION.equals(schema.getType())) {
+      for (Schema option : schema.getTypes()) {
+        if (isConvertingLogicalType(option)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return SchemaAssistant.hasLogicalType(schema);
+  }
+
+  /**
+   * @return the class of the specific records of the given schema, or null if it can't be loaded or accessed by the
+   * generated code
+   */
+  protected Class<?> loadSpecificClass(Schema recordSchema) {
+    try {
+      Class<?> recordClass = Class.forName(AvroCompatibilityHelper.getSchemaFullName(recordSchema), false, classLoader);
+      return Modifier.isPublic(recordClass.getModifiers()) ? recordClass : null;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the public instance field holding the given record field, or null if there is none
+   */
+  protected static Field findPublicField(Class<?> recordClass, String fieldName) {
+    // reserved words are mangled by the avro compiler
+    for (String javaFieldName : new String[]{fieldName, fieldName + "$"}) {
+      try {
+        Field javaField = recordClass.getField(javaFieldName);
+        if (!Modifier.isStatic(javaField.getModifiers())) {
+          return javaField;
+        }
+      } catch (NoSuchFieldException e) {
+        // looking for the mangled name
+      }
+    }
+    return null;
+  }
 
-    String filePath = destination.getAbsolutePath() + generatedSourcesPath + className + ".java";
+  /**
+   * Records that the generated code reads or writes the given public field directly.
+   */
+  protected void addDirectAccessMember(Class<?> recordClass, Field javaField, boolean write) {
+    directAccessMembers.add(recordClass.getName() + "#" + javaField.getName() + (write ? "=" : ":")
+        + javaField.getType().getName());
+  }
+
+  /**
+   * Records that the generated code calls the given public getter or setter directly.
+   */
+  protected void addDirectAccessMember(Class<?> recordClass, Method method) {
+    String member = recordClass.getName() + "#" + method.getName();
+    directAccessMembers.add(method.getParameterCount() == 0
+        ? member + "():" + method.getReturnType().getName()
+        : member + "(" + method.getParameterTypes()[0].getName() + ")");
+  }
 
-    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-    if (null == compiler) {
-      /**
-       * If the above function returns null, it is very likely that the env setting: "JAVA_HOME" is not being setup properly.
-       */
-      throw new FastSerdeGeneratorException("Couldn't locate java compiler at runtime, please double check your env "
-          + "setting for 'JAVA_HOME', and here is the value for 'System.getProperty(\"java.home\")': " + System.getProperty("java.home"));
+  /**
+   * Declares the {@value #DIRECT_ACCESS_MEMBERS} field, if the generated code accesses any record member directly.
+   */
+  protected void declareDirectAccessMembers() {
+    if (directAccessMembers.isEmpty()) {
+      return;
     }
-    String compileClassPathForCurrentFile = Utils.inferCompileDependencies(compileClassPath, filePath, knownUsedFullyQualifiedClassNameSet);
-    int compileResult;
+    JArray members = JExpr.newArray(codeModel.ref(String.class));
+    for (String member : directAccessMembers) {
+      members.add(JExpr.lit(member));
+    }
+    generatedClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, codeModel.ref(String.class).array(),
+        DIRECT_ACCESS_MEMBERS, members);
+  }
+
+  /**
+   * Classes generated ahead of time or by a previous run are looked up by schema fingerprints only, while the ones
+   * accessing the fields of specific records directly are bound to the record classes they were generated against.
+   * A field which is no longer public, or was turned into another type, would only fail when the class is used.
+   *
+   * @param generatedClass previously generated serializer or deserializer class
+   * @return true if all the members it accesses directly are still there as they were, when it was generated
+   */
+  static boolean hasMatchingDirectAccessMembers(Class<?> generatedClass) {
+    String[] members;
     try {
-      /*
-       * Disable sharedNameTable in runtime complication
-       *
-       * The SharedNameTable was introduced to speed up Java complication by using soft references
-       * to avoid re-allocations. However, in fast-avro runtime compilation, sharedNameTable brings
-       * severe Memory and GC issue. When fast-avro needed to process a large number of different
-       * schemas, SharedNameTable objects will consume huge memory and cannot be freed.
-       *
-       * SharedNameTable should be disabled for runtime compilation by "-XDuseUnsharedTable" config.
-       * The memory issue by SharedNameTable does not exist in Java 11 (tested JDK-11_0_5-zulu
-       * and JDK-11_0_5-zing_19_12_100_0_1), thus the change can be reverted in java 11.
-       * Keeping this config also does not bring any downgrade.
-       *
-       */
-      LOGGER.info("Starting compilation for the generated source file: {} ", filePath);
-      LOGGER.debug("The inferred compile class path for file: {} : {}", filePath, compileClassPathForCurrentFile);
-      compileResult = compiler.run(null, null, null, "-cp", compileClassPathForCurrentFile, filePath, "-XDuseUnsharedTable");
-    } catch (Exception e) {
-      throw new FastSerdeGeneratorException("Unable to compile:" + className + " from source file: " + filePath, e);
+      members = (String[]) generatedClass.getField(DIRECT_ACCESS_MEMBERS).get(null);
+    } catch (NoSuchFieldException e) {
+      return true;
+    } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+      return false;
     }
+    for (String member : members) {
+      if (!isMatchingMember(member, generatedClass.getClassLoader())) {
+        LOGGER.info("Record member: {} accessed by: {} changed since it was generated", member, generatedClass.getName());
+        return false;
+      }
+    }
+    return true;
+  }
 
-    if (compileResult != 0) {
-      throw new FastSerdeGeneratorException("Unable to compile:" + className + " from source file: " + filePath);
-    } else {
-      LOGGER.info("Successfully compiled class {} defined at source file: {}", className, filePath);
+  /**
+   * @param member record member, as recorded by {@link #addDirectAccessMember}
+   * @param classLoader class loader to load the record class with
+   * @return true if the record class still has the given member
+   */
+  static boolean isMatchingMember(String member, ClassLoader classLoader) {
+    int classEnd = member.indexOf('#');
+    int nameEnd = StringUtils.indexOfAny(member, ":=(");
+    if (classEnd < 0 || nameEnd < classEnd) {
+      return false;
+    }
+    String memberName = member.substring(classEnd + 1, nameEnd);
+    try {
+      Class<?> recordClass = Class.forName(member.substring(0, classEnd), false, classLoader);
+      if (!Modifier.isPublic(recordClass.getModifiers())) {
+        return false;
+      }
+      if (member.charAt(nameEnd) != '(') {
+        Field javaField = recordClass.getField(memberName);
+        boolean write = member.charAt(nameEnd) == '=';
+        return !Modifier.isStatic(javaField.getModifiers()) && !(write && Modifier.isFinal(javaField.getModifiers()))
+            && javaField.getType().getName().equals(member.substring(nameEnd + 1));
+      }
+      for (Method method : recordClass.getMethods()) {
+        if (method.getName().equals(memberName) && !Modifier.isStatic(method.getModifiers())) {
+          String signature = method.getParameterCount() == 0
+              ? "():" + method.getReturnType().getName()
+              : method.getParameterCount() == 1 ? "(" + method.getParameterTypes()[0].getName() + ")" : null;
+          if (member.substring(nameEnd).equals(signature)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    } catch (ClassNotFoundException | NoSuchFieldException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the java primitive type of the values of the given schema, or null if they are objects
+   */
+  protected static Class<?> primitiveClassOf(Schema schema) {
+    switch (schema.getType()) {
+      case BOOLEAN:
+        return boolean.class;
+      case INT:
+        return int.class;
+      case LONG:
+        return long.class;
+      case FLOAT:
+        return float.class;
+      case DOUBLE:
+        return double.class;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Declares the fields holding a logical type schema and the conversion registered for it, if not done yet.
+   *
+   * @param logicalTypeSchema schema carrying the logical type
+   * @param initBody block initializing the generated instances
+   * @param specificData expression of the {@link org.apache.avro.specific.SpecificData} to look the conversion up in
+   * @return the declared fields, the conversion is null at runtime when none is registered for the logical type
+   */
+  protected LogicalTypeVars declareLogicalTypeVars(Schema logicalTypeSchema, JBlock initBody, JExpression specificData) {
+    return logicalTypeVarsMap.computeIfAbsent(logicalTypeSchema.toString(), json -> {
+      JVar schemaVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, Schema.class, getUniqueName("logicalTypeSchema"));
+      JVar conversionVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL,
+          codeModel.ref("org.apache.avro.Conversion"), getUniqueName("conversion"));
+      initBody.assign(JExpr.refthis(schemaVar.name()),
+          JExpr._new(codeModel.ref(Schema.Parser.class)).invoke("parse").arg(json));
+      initBody.assign(JExpr.refthis(conversionVar.name()),
+          specificData.invoke("getConversionFor").arg(JExpr.refthis(schemaVar.name()).invoke("getLogicalType")));
+      return new LogicalTypeVars(schemaVar, conversionVar);
+    });
+  }
+
+  protected static final class LogicalTypeVars {
+    final JVar schemaVar;
+    final JVar conversionVar;
+
+    LogicalTypeVars(JVar schemaVar, JVar conversionVar) {
+      this.schemaVar = schemaVar;
+      this.conversionVar = conversionVar;
     }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected Class compileClass(final String className, Set<String> knownUsedFullyQualifiedClassNameSet)
+      throws IOException, ClassNotFoundException {
+    final String classFullName = getClassFullName(className);
+    Map<String, String> sources = generateSources();
+
+    LOGGER.info("Starting compilation for the generated class: {}", classFullName);
+    Map<String, byte[]> classBytes =
+        getCompiler().compile(sources, compileClassPath, knownUsedFullyQualifiedClassNameSet);
+    LOGGER.info("Successfully compiled class {}", classFullName);
+
+    return defineClass(classFullName, classBytes);
+  }
+
+  String getClassFullName(String className) {
+    return generatedPackageName + "." + className;
+  }
+
+  FastSerdeCompiler getCompiler() {
+    return compiler != null ? compiler : FastSerdeCompiler.getDefaultInstance();
+  }
 
-    return classLoader.loadClass(generatedPackageName + "." + className);
+  /**
+   * @return java sources of the generated code, keyed by fully qualified class name
+   */
+  Map<String, String> generateSources() throws IOException {
+    return FastSerdeCompiler.generateSources(codeModel);
+  }
+
+  /**
+   * @param classFullName fully qualified name of the generated class
+   * @param classBytes compiled classes, possibly including classes of other generators compiled along
+   * @return the generated class, defined by a class loader of its own
+   */
+  Class<?> defineClass(String classFullName, Map<String, byte[]> classBytes) throws IOException, ClassNotFoundException {
+    Map<String, byte[]> ownClassBytes = new HashMap<>();
+    classBytes.forEach((name, bytes) -> {
+      if (name.equals(classFullName) || name.startsWith(classFullName + "$")) {
+        ownClassBytes.put(name, bytes);
+      }
+    });
+    if (destination != null) {
+      writeClassFiles(ownClassBytes);
+    }
+    return new FastSerdeClassLoader(classLoader, ownClassBytes).loadClass(classFullName);
+  }
+
+  /**
+   * Keeps the compiled classes in {@link #destination}, so they can be picked up without compiling them again.
+   * Files are moved into place atomically, a concurrent reader never sees a partially written class.
+   */
+  private void writeClassFiles(Map<String, byte[]> classBytes) throws IOException {
+    for (Map.Entry<String, byte[]> entry : classBytes.entrySet()) {
+      Path classFile = destination.toPath().resolve(entry.getKey().replace('.', File.separatorChar) + ".class");
+      Files.createDirectories(classFile.getParent());
+      Path tempFile = Files.createTempFile(classFile.getParent(), classFile.getFileName().toString(), ".tmp");
+      try {
+        Files.write(tempFile, entry.getValue());
+        Files.move(tempFile, classFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    }
   }
 }
@@ -0,0 +1,193 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Coalesces generated classes into batches compiled by a single compiler task, so that warming up many schemas
+ * at once costs roughly one compilation instead of one per schema.
+ *
+ * At most one batch is in progress at a time: classes requested while a batch is being compiled are all compiled
+ * together by the next one. If a batch fails to compile, its classes are compiled one by one, so that a single
+ * bad schema only fails its own class.
+ */
+final class FastSerdeBatchCompiler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeBatchCompiler.class);
+
+  private final Executor executor;
+  private final List<PendingClass<?>> pendingClasses = new ArrayList<>();
+  private boolean batchScheduled;
+
+  FastSerdeBatchCompiler(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * @param generator generator of the class
+   * @param codeGenerator generates the code of the class and returns its name
+   * @param instantiator creates an instance of the compiled class
+   * @param listener notified of the generation and compilation timings
+   * @return future completed with the instance, or exceptionally if the class could not be generated
+   */
+  <T> CompletableFuture<T> submit(FastSerdeBase generator, Supplier<String> codeGenerator,
+      Function<Class<?>, T> instantiator, FastSerdeCacheListener listener) {
+    PendingClass<T> pendingClass = new PendingClass<>(generator, codeGenerator, instantiator, listener);
+    if (!generator.getCompiler().isAvailable()) {
+      // the class could not be compiled, so it is not even generated
+      pendingClass.future.completeExceptionally(new FastSerdeGeneratorException("No java compiler available at runtime"));
+      return pendingClass.future;
+    }
+    boolean scheduleBatch;
+    synchronized (this) {
+      pendingClasses.add(pendingClass);
+      scheduleBatch = !batchScheduled;
+      batchScheduled = true;
+    }
+    if (scheduleBatch) {
+      try {
+        executor.execute(this::compileBatches);
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          batchScheduled = false;
+        }
+        throw e;
+      }
+    }
+    return pendingClass.future;
+  }
+
+  private void compileBatches() {
+    while (true) {
+      List<PendingClass<?>> batch;
+      synchronized (this) {
+        if (pendingClasses.isEmpty()) {
+          batchScheduled = false;
+          return;
+        }
+        batch = new ArrayList<>(pendingClasses);
+        pendingClasses.clear();
+      }
+      compileBatch(batch);
+    }
+  }
+
+  private void compileBatch(List<PendingClass<?>> batch) {
+    List<PendingClass<?>> generated = new ArrayList<>(batch.size());
+    for (PendingClass<?> pendingClass : batch) {
+      try {
+        pendingClass.generateCode();
+        generated.add(pendingClass);
+      } catch (Throwable e) {
+        pendingClass.future.completeExceptionally(e);
+      }
+    }
+    if (generated.isEmpty()) {
+      return;
+    }
+
+    if (generated.size() > 1) {
+      Map<String, byte[]> classBytes;
+      try {
+        classBytes = compile(generated);
+      } catch (Throwable e) {
+        LOGGER.warn("Unable to compile a batch of {} generated classes, compiling them one by one", generated.size(), e);
+        classBytes = null;
+      }
+      if (classBytes != null) {
+        for (PendingClass<?> pendingClass : generated) {
+          pendingClass.complete(classBytes);
+        }
+        return;
+      }
+    }
+
+    for (PendingClass<?> pendingClass : generated) {
+      try {
+        pendingClass.complete(compile(Collections.singletonList(pendingClass)));
+      } catch (Throwable e) {
+        pendingClass.future.completeExceptionally(e);
+      }
+    }
+  }
+
+  private static Map<String, byte[]> compile(List<PendingClass<?>> pendingClasses) {
+    Map<String, String> sources = new LinkedHashMap<>();
+    Set<String> usedFullyQualifiedClassNameSet = new HashSet<>();
+    for (PendingClass<?> pendingClass : pendingClasses) {
+      sources.putAll(pendingClass.sources);
+      usedFullyQualifiedClassNameSet.addAll(pendingClass.generator.schemaAssistant.getUsedFullyQualifiedClassNameSet());
+    }
+    // all the generators of a batch come from the same cache, so they share compiler, compile classpath and listener
+    PendingClass<?> first = pendingClasses.get(0);
+    FastSerdeBase generator = first.generator;
+
+    LOGGER.info("Starting compilation for {} generated classes: {}", sources.size(), sources.keySet());
+    long startTime = System.nanoTime();
+    Map<String, byte[]> classBytes =
+        generator.getCompiler().compile(sources, generator.compileClassPath, usedFullyQualifiedClassNameSet);
+    long compilationNanos = System.nanoTime() - startTime;
+    LOGGER.info("Successfully compiled {} generated classes in {} ms", sources.size(), compilationNanos / 1_000_000);
+    first.listener.onClassesCompiled(sources.size(), compilationNanos);
+    return classBytes;
+  }
+
+  private static class PendingClass<T> {
+    private final FastSerdeBase generator;
+    private final Supplier<String> codeGenerator;
+    private final Function<Class<?>, T> instantiator;
+    private final FastSerdeCacheListener listener;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private String classFullName;
+    private Map<String, String> sources;
+    private long codeGenerationNanos;
+
+    PendingClass(FastSerdeBase generator, Supplier<String> codeGenerator, Function<Class<?>, T> instantiator,
+        FastSerdeCacheListener listener) {
+      this.generator = generator;
+      this.codeGenerator = codeGenerator;
+      this.instantiator = instantiator;
+      this.listener = listener;
+    }
+
+    void generateCode() throws Exception {
+      long startTime = System.nanoTime();
+      classFullName = generator.getClassFullName(codeGenerator.get());
+      sources = generator.generateSources();
+      codeGenerationNanos = System.nanoTime() - startTime;
+    }
+
+    void complete(Map<String, byte[]> classBytes) {
+      try {
+        long startTime = System.nanoTime();
+        T instance = instantiator.apply(generator.defineClass(classFullName, classBytes));
+        listener.onClassGenerated(classFullName, codeGenerationNanos, System.nanoTime() - startTime,
+            getClassSize(classBytes));
+        future.complete(instance);
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+    private int getClassSize(Map<String, byte[]> classBytes) {
+      int classSize = 0;
+      for (Map.Entry<String, byte[]> entry : classBytes.entrySet()) {
+        if (entry.getKey().equals(classFullName) || entry.getKey().startsWith(classFullName + "$")) {
+          classSize += entry.getValue().length;
+        }
+      }
+      return classSize;
+    }
+  }
+}
@@ -1,24 +1,38 @@
 package com.linkedin.avro.fastserde;
 
-import static com.linkedin.avro.fastserde.Utils.getSchemaFingerprint;
+import static com.linkedin.avro.fastserde.Utils.getSchemaFingerprint64;
 import static com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper.getSchemaFullName;
 
+import com.linkedin.avro.fastserde.FastSerdeCacheListener.CacheType;
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.ParameterizedType;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
+import javax.tools.JavaCompiler;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.ColdGenericDatumReader;
@@ -44,28 +58,61 @@ public final class FastSerdeCache {
 
   public static final String CLASSPATH = "avro.fast.serde.classpath";
   public static final String CLASSPATH_SUPPLIER = "avro.fast.serde.classpath.supplier";
+  public static final String CLASSES_DIR = "avro.fast.serde.classes.dir";
+  public static final String COMPILER = "avro.fast.serde.compiler";
+  public static final String MAX_SIZE = "avro.fast.serde.cache.max.size";
+  public static final String COMPILE_THRESHOLD = "avro.fast.serde.compile.threshold";
+  public static final String COMPILE_THRESHOLD_DECAY_MS = "avro.fast.serde.compile.threshold.decay.ms";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeCache.class);
 
+  // Identity based cache of the keys of schema pairs, indexed by identity hash code, see getSchemaKey
+  private static final int SCHEMA_KEYS_IDENTITY_CACHE_SIZE = 4096;
+  private static final AtomicReferenceArray<SchemaKeySlot> SCHEMA_KEYS_IDENTITY_CACHE =
+      new AtomicReferenceArray<>(SCHEMA_KEYS_IDENTITY_CACHE_SIZE);
+
+  private static final FastSerdeCacheListener NO_OP_LISTENER = new FastSerdeCacheListener() {
+  };
+
   private static volatile FastSerdeCache _INSTANCE;
 
-  private final Map<String, FastDeserializer<?>> fastSpecificRecordDeserializersCache =
-      new FastAvroConcurrentHashMap<>();
-  private final Map<String, FastDeserializer<?>> fastGenericRecordDeserializersCache =
-      new FastAvroConcurrentHashMap<>();
+  private final EvictingCache<SchemaKey, FastDeserializer<?>> fastSpecificRecordDeserializersCache;
+  private final EvictingCache<SchemaKey, FastDeserializer<?>> fastGenericRecordDeserializersCache;
+  private final EvictingCache<SchemaKey, FastDeserializer<?>> fastLazyGenericRecordDeserializersCache;
+
+  private final EvictingCache<SchemaKey, FastSerializer<?>> fastSpecificRecordSerializersCache;
+  private final EvictingCache<SchemaKey, FastSerializer<?>> fastGenericRecordSerializersCache;
 
-  private final Map<String, FastSerializer<?>> fastSpecificRecordSerializersCache =
-      new FastAvroConcurrentHashMap<>();
-  private final Map<String, FastSerializer<?>> fastGenericRecordSerializersCache =
-      new FastAvroConcurrentHashMap<>();
+  private final EvictingCache<ProjectionKey, Schema> projectedSchemasCache;
 
   private Executor executor;
+  private FastSerdeBatchCompiler batchCompiler;
 
   private File classesDir;
+  private boolean persistentClassesDir;
   private ClassLoader classLoader;
 
   private Optional<String> compileClassPath;
 
+  private volatile FastSerdeCompiler compiler;
+
+  private volatile FastSerdeCacheListener listener = NO_OP_LISTENER;
+
+  private volatile FastSerdeUsageManifest usageManifest;
+  /**
+   * Usages read by the last {@link #prewarm(File, long)}, whose counts are carried over to the usages recorded.
+   */
+  private List<FastSerdeUsageManifest.Usage> prewarmedUsages = Collections.emptyList();
+
+  private volatile int compileThreshold;
+  private volatile long compileThresholdDecayNanos;
+
+  /**
+   * Classes generated ahead of time for the current avro runtime, provided by {@link FastSerdeRegistry}s,
+   * mapped to the class loader to load them with.
+   */
+  private final Map<String, ClassLoader> pregeneratedClasses = loadPregeneratedClasses();
+
   /**
    *
    * @param compileClassPathSupplier
@@ -103,22 +150,105 @@ public final class FastSerdeCache {
     this.compileClassPath = Optional.ofNullable(compileClassPath);
   }
 
+  /**
+   *
+   * @param executorService
+   *            customized {@link Executor} used by serializer/deserializer compile threads
+   * @param compileClassPath
+   *            custom classpath as string
+   * @param classesDir
+   *            persistent directory for generated classes, see {@link #FastSerdeCache(Executor, File)}
+   */
+  public FastSerdeCache(Executor executorService, String compileClassPath, File classesDir) {
+    this(executorService, classesDir);
+    this.compileClassPath = Optional.ofNullable(compileClassPath);
+  }
+
+  /**
+   *
+   * @param executorService
+   *            customized {@link Executor} used by serializer/deserializer compile threads
+   * @param compileClassPath
+   *            custom classpath as string
+   * @param classesDir
+   *            persistent directory for generated classes, see {@link #FastSerdeCache(Executor, File)}
+   * @param javaCompiler
+   *            compiler used for generated classes, e.g. the Eclipse compiler on runtimes without javac. If null,
+   *            the system java compiler is used, or the first {@link JavaCompiler} registered as a service. If
+   *            there is none either, vanilla avro serializers and deserializers are used.
+   */
+  public FastSerdeCache(Executor executorService, String compileClassPath, File classesDir, JavaCompiler javaCompiler) {
+    this(executorService, compileClassPath, classesDir, javaCompiler, 0);
+  }
+
+  /**
+   *
+   * @param executorService
+   *            customized {@link Executor} used by serializer/deserializer compile threads
+   * @param compileClassPath
+   *            custom classpath as string
+   * @param classesDir
+   *            persistent directory for generated classes, see {@link #FastSerdeCache(Executor, File)}
+   * @param javaCompiler
+   *            compiler used for generated classes, see {@link #FastSerdeCache(Executor, String, File, JavaCompiler)}
+   * @param maxSize
+   *            maximum number of serializers and deserializers kept by each of the specific/generic
+   *            serializer/deserializer caches, 0 or less for no limit. The least recently used ones are evicted
+   *            beyond that, and their generated classes are unloaded once no longer referenced.
+   */
+  public FastSerdeCache(Executor executorService, String compileClassPath, File classesDir, JavaCompiler javaCompiler,
+      int maxSize) {
+    this(executorService, classesDir, maxSize);
+    this.compileClassPath = Optional.ofNullable(compileClassPath);
+    this.compiler = javaCompiler != null ? new FastSerdeCompiler(javaCompiler) : null;
+  }
+
   /**
    *
    * @param executorService
    *            customized {@link Executor} used by serializer/deserializer compile threads
    */
   public FastSerdeCache(Executor executorService) {
+    this(executorService, (File) null);
+  }
+
+  /**
+   *
+   * @param executorService
+   *            customized {@link Executor} used by serializer/deserializer compile threads
+   * @param classesDir
+   *            directory where generated classes are kept across JVM restarts. Classes generated by a previous run
+   *            for the same schemas, avro runtime and {@link FastSerdeBase#GENERATOR_VERSION} are loaded from it
+   *            instead of being generated and compiled again. If null, generated classes are only kept in memory.
+   */
+  public FastSerdeCache(Executor executorService, File classesDir) {
+    this(executorService, classesDir, 0);
+  }
+
+  private FastSerdeCache(Executor executorService, File classesDir, int maxSize) {
+    this.fastSpecificRecordDeserializersCache = new EvictingCache<>(maxSize);
+    this.fastGenericRecordDeserializersCache = new EvictingCache<>(maxSize);
+    this.fastLazyGenericRecordDeserializersCache = new EvictingCache<>(maxSize);
+    this.fastSpecificRecordSerializersCache = new EvictingCache<>(maxSize);
+    this.fastGenericRecordSerializersCache = new EvictingCache<>(maxSize);
+    this.projectedSchemasCache = new EvictingCache<>(maxSize);
+
     this.executor = executorService != null ? executorService : getDefaultExecutor();
+    this.batchCompiler = new FastSerdeBatchCompiler(executor);
 
-    try {
-      Path classesPath = Files.createTempDirectory("generated");
-      classesDir = classesPath.toFile();
-      classLoader =
-          URLClassLoader.newInstance(new URL[]{classesDir.toURI().toURL()}, FastSerdeCache.class.getClassLoader());
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+    if (classesDir != null) {
+      try {
+        this.classesDir = new File(classesDir, "v" + FastSerdeBase.GENERATOR_VERSION);
+        if (!this.classesDir.isDirectory() && !this.classesDir.mkdirs()) {
+          throw new IOException("Unable to create generated classes dir: " + this.classesDir);
+        }
+        this.persistentClassesDir = true;
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
     }
+    // generated classes get their own loaders on top of this one, see FastSerdeClassLoader
+    this.classLoader = FastSerdeCache.class.getClassLoader();
 
     this.compileClassPath = Optional.empty();
   }
@@ -129,7 +259,12 @@ public final class FastSerdeCache {
 
   /**
    * Gets default {@link FastSerdeCache} instance. Default instance classpath can be customized via
-   * {@value #CLASSPATH} or {@value #CLASSPATH_SUPPLIER} system properties.
+   * {@value #CLASSPATH} or {@value #CLASSPATH_SUPPLIER} system properties. Generated classes are kept in
+   * the directory given by {@value #CLASSES_DIR} system property, if set. {@value #COMPILER} system property can
+   * name the {@link JavaCompiler} implementation class to compile them with, and {@value #MAX_SIZE} system property
+   * can bound the number of cached serializers and deserializers. {@value #COMPILE_THRESHOLD} and
+   * {@value #COMPILE_THRESHOLD_DECAY_MS} system properties set the compile threshold, see
+   * {@link #setCompileThreshold(int, long)}.
    *
    * @return default {@link FastSerdeCache} instance
    */
@@ -139,6 +274,10 @@ public final class FastSerdeCache {
         if (_INSTANCE == null) {
           String classPath = System.getProperty(CLASSPATH);
           String classpathSupplierClassName = System.getProperty(CLASSPATH_SUPPLIER);
+          String classesDirName = System.getProperty(CLASSES_DIR);
+          File classesDir = classesDirName != null ? new File(classesDirName) : null;
+          JavaCompiler javaCompiler = getJavaCompiler(System.getProperty(COMPILER));
+          int maxSize = Integer.getInteger(MAX_SIZE, 0);
           if (classpathSupplierClassName != null) {
             Supplier<String> classpathSupplier = null;
             try {
@@ -154,29 +293,267 @@ public final class FastSerdeCache {
             } catch (ReflectiveOperationException e) {
               LOGGER.warn("unable to instantiate classpath supplier: " + classpathSupplierClassName, e);
             }
-            _INSTANCE = new FastSerdeCache(classpathSupplier);
+            _INSTANCE = new FastSerdeCache(null, classpathSupplier != null ? classpathSupplier.get() : null, classesDir,
+                javaCompiler, maxSize);
           } else if (classPath != null) {
-            _INSTANCE = new FastSerdeCache(classPath);
+            _INSTANCE = new FastSerdeCache(null, classPath, classesDir, javaCompiler, maxSize);
           } else {
             /**
              * The fast-class generator will figure out the compile dependencies during fast-class generation.
              */
-            _INSTANCE = new FastSerdeCache("");
+            _INSTANCE = new FastSerdeCache(null, "", classesDir, javaCompiler, maxSize);
           }
+          _INSTANCE.setCompileThreshold(Integer.getInteger(COMPILE_THRESHOLD, 0),
+              Long.getLong(COMPILE_THRESHOLD_DECAY_MS, 0L));
         }
       }
     }
     return _INSTANCE;
   }
 
+  private static JavaCompiler getJavaCompiler(String javaCompilerClassName) {
+    if (javaCompilerClassName == null) {
+      return null;
+    }
+    try {
+      Class<?> javaCompilerClass = Class.forName(javaCompilerClassName);
+      if (JavaCompiler.class.isAssignableFrom(javaCompilerClass)) {
+        return (JavaCompiler) javaCompilerClass.newInstance();
+      }
+      LOGGER.warn("java compiler must be subtype of javax.tools.JavaCompiler: " + javaCompilerClassName);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      LOGGER.warn("unable to instantiate java compiler: " + javaCompilerClassName, e);
+    }
+    return null;
+  }
+
+  /**
+   * @param compiler compiler of the generated classes, instead of the one given at construction
+   */
+  void setCompiler(FastSerdeCompiler compiler) {
+    this.compiler = compiler;
+  }
+
+  /**
+   * Each cache compiles with its own compiler, created on first use unless given at construction, so that caches
+   * don't wait for each other and each compile classpath only holds the libraries used by the classes of its cache.
+   */
+  private FastSerdeCompiler getCompiler() {
+    FastSerdeCompiler compiler = this.compiler;
+    if (compiler == null) {
+      synchronized (this) {
+        compiler = this.compiler;
+        if (compiler == null) {
+          compiler = new FastSerdeCompiler(FastSerdeCompiler.findJavaCompiler());
+          this.compiler = compiler;
+        }
+      }
+    }
+    return compiler;
+  }
+
+  /**
+   * @param listener listener notified of the cache lifecycle events, e.g. to publish them as metrics,
+   *                 null to stop notifying the previous one
+   */
+  public void setListener(FastSerdeCacheListener listener) {
+    this.listener = listener != null ? listener : NO_OP_LISTENER;
+  }
+
+  /**
+   * Defers the generation of serializers and deserializers until they are actually hot: until then, the cold ones
+   * backed by vanilla avro are used. Long-tail schemas used only now and then are then never compiled.
+   *
+   * @param compileThreshold number of calls after which a serializer or deserializer gets generated, 0 or less to
+   *                         generate it on first use
+   * @param decayPeriodMillis period after which call counts are halved, so that a schema must be used at some rate
+   *                          to get hot, 0 or less to never decay them
+   */
+  public void setCompileThreshold(int compileThreshold, long decayPeriodMillis) {
+    this.compileThresholdDecayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(decayPeriodMillis, 0));
+    this.compileThreshold = compileThreshold;
+  }
+
+  /**
+   * Starts or stops recording which serializers and deserializers are used, along with how often they are called,
+   * so that they can be written to a manifest with {@link #writeUsageManifest(File)} and generated ahead of their
+   * first use by the next run with {@link #prewarm(File, long)}. Stopping discards the usages recorded so far.
+   *
+   * Calls are counted by the cold serializers and deserializers, and by the datum readers and writers for the fast
+   * ones. The counts of the manifest given to {@link #prewarm(File, long)}, if any, are carried over, so that the
+   * serializers and deserializers it generates keep their rank even though they never go through the cold path.
+   */
+  public synchronized void setUsageRecording(boolean enabled) {
+    if (!enabled) {
+      usageManifest = null;
+    } else if (usageManifest == null) {
+      FastSerdeUsageManifest usageManifest = new FastSerdeUsageManifest();
+      carryOver(prewarmedUsages, usageManifest);
+      this.usageManifest = usageManifest;
+    }
+  }
+
+  private static void carryOver(List<FastSerdeUsageManifest.Usage> usages, FastSerdeUsageManifest usageManifest) {
+    for (FastSerdeUsageManifest.Usage usage : usages) {
+      usageManifest.recordUsage(usage.cacheType, getSchemaKey(usage.writerSchema, usage.readerSchema),
+          usage.writerSchema, usage.readerSchema).add(usage.getCount());
+    }
+  }
+
+  /**
+   * Writes the usages recorded since {@link #setUsageRecording(boolean)} enabled recording, most used first.
+   *
+   * @param manifest file to write, replaced atomically if it exists
+   * @throws IOException if the manifest can't be written
+   */
+  public void writeUsageManifest(File manifest) throws IOException {
+    FastSerdeUsageManifest usageManifest = this.usageManifest;
+    if (usageManifest == null) {
+      throw new IllegalStateException("Usage recording is not enabled");
+    }
+    usageManifest.write(manifest);
+  }
+
+  /**
+   * Generates the serializers and deserializers listed in a manifest written by {@link #writeUsageManifest(File)},
+   * most used first, e.g. before a service reports itself ready. They are all compiled together, see
+   * {@link FastSerdeBatchCompiler}, and those not ready within the time budget keep being generated in the
+   * background.
+   *
+   * @param manifest manifest written by a previous run, nothing is generated if it doesn't exist
+   * @param timeBudgetMillis maximum time to wait for the generation
+   * @return true if all the listed serializers and deserializers are ready
+   */
+  public boolean prewarm(File manifest, long timeBudgetMillis) {
+    if (!manifest.isFile()) {
+      LOGGER.info("No fast serde usage manifest found at: {}, skipping prewarm", manifest);
+      return true;
+    }
+    List<FastSerdeUsageManifest.Usage> usages;
+    try {
+      usages = FastSerdeUsageManifest.read(manifest);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to read fast serde usage manifest: {}, skipping prewarm", manifest, e);
+      return false;
+    }
+    synchronized (this) {
+      prewarmedUsages = usages;
+      if (usageManifest != null) {
+        carryOver(usages, usageManifest);
+      }
+    }
+
+    long startTime = System.nanoTime();
+    List<CompletableFuture<?>> futures = new ArrayList<>(usages.size());
+    for (FastSerdeUsageManifest.Usage usage : usages) {
+      futures.add(prewarm(usage));
+    }
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(timeBudgetMillis, TimeUnit.MILLISECONDS);
+      LOGGER.info("Prewarmed {} fast serializers and deserializers in {} ms", usages.size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+      return true;
+    } catch (TimeoutException e) {
+      LOGGER.warn("Prewarm of {} fast serializers and deserializers did not complete within {} ms", usages.size(),
+          timeBudgetMillis);
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      LOGGER.warn("Prewarm of fast serializers and deserializers failed", e);
+      return false;
+    }
+  }
+
+  private CompletableFuture<?> prewarm(FastSerdeUsageManifest.Usage usage) {
+    Schema writerSchema = usage.writerSchema;
+    Schema readerSchema = usage.readerSchema;
+    SchemaKey schemaKey = getSchemaKey(writerSchema, readerSchema);
+    switch (usage.cacheType) {
+      case SPECIFIC_DESERIALIZER:
+        return getFastSpecificDeserializerAsync(writerSchema, readerSchema);
+      case GENERIC_DESERIALIZER:
+        return getFastGenericDeserializerAsync(writerSchema, readerSchema);
+      case SPECIFIC_SERIALIZER:
+        return buildSpecificSerializer(readerSchema, true).thenAccept(s -> fastSpecificRecordSerializersCache.put(schemaKey, s));
+      case GENERIC_SERIALIZER:
+        return buildGenericSerializer(readerSchema, true).thenAccept(s -> fastGenericRecordSerializersCache.put(schemaKey, s));
+      default:
+        throw new IllegalStateException("Unexpected cache type: " + usage.cacheType);
+    }
+  }
+
+  /**
+   * Only records that the serializer or deserializer is used, calls are counted when they are served, see
+   * {@link #getCallCount} and {@link #countCalls}.
+   */
+  private void recordUsage(CacheType cacheType, SchemaKey schemaKey, Schema writerSchema, Schema readerSchema) {
+    FastSerdeUsageManifest usageManifest = this.usageManifest;
+    if (usageManifest != null) {
+      usageManifest.recordUsage(cacheType, schemaKey, writerSchema, readerSchema);
+    }
+  }
+
+  /**
+   * @return counter of the calls served by a new cold serializer or deserializer, which is the one of the usage
+   *         manifest while recording
+   */
+  private LongAdder getCallCount(CacheType cacheType, SchemaKey schemaKey, Schema writerSchema, Schema readerSchema) {
+    FastSerdeUsageManifest usageManifest = this.usageManifest;
+    return usageManifest != null ? usageManifest.recordUsage(cacheType, schemaKey, writerSchema, readerSchema)
+        : new LongAdder();
+  }
+
+  /**
+   * Counts calls to a fast serializer or deserializer held by a datum reader or writer, which doesn't go through the
+   * lookups of this cache anymore. Cold ones count their calls themselves, see {@link #getCallCount}. Costs a volatile
+   * read when usages are not recorded.
+   *
+   * @param usageCounter counter returned by the previous call for the same serializer or deserializer, may be null
+   * @param calls number of calls to count
+   * @return the counter to pass to the next call
+   */
+  UsageCounter countCalls(UsageCounter usageCounter, CacheType cacheType, Schema writerSchema, Schema readerSchema,
+      int calls) {
+    FastSerdeUsageManifest usageManifest = this.usageManifest;
+    if (usageManifest == null) {
+      return usageCounter;
+    }
+    if (usageCounter == null || usageCounter.usageManifest != usageManifest) {
+      usageCounter = new UsageCounter(usageManifest,
+          usageManifest.recordUsage(cacheType, getSchemaKey(writerSchema, readerSchema), writerSchema, readerSchema));
+    }
+    usageCounter.callCount.add(calls);
+    return usageCounter;
+  }
+
+  private CompileTrigger newCompileTrigger(Runnable compilation) {
+    int threshold = compileThreshold;
+    return threshold > 0 ? new CompileTrigger(threshold, compileThresholdDecayNanos, compilation, executor) : null;
+  }
+
+  /**
+   * @return number of serializers and deserializers evicted so far because the cache reached its maximum size
+   */
+  public long getEvictionCount() {
+    return fastSpecificRecordDeserializersCache.getEvictionCount() + fastGenericRecordDeserializersCache.getEvictionCount()
+        + fastLazyGenericRecordDeserializersCache.getEvictionCount()
+        + fastSpecificRecordSerializersCache.getEvictionCount() + fastGenericRecordSerializersCache.getEvictionCount();
+  }
+
+  /**
+   * Every top-level schema type is supported but null, which is not worth generating code for.
+   */
   public static boolean isSupportedForFastDeserializer(Schema.Type readerSchemaType) {
-    return readerSchemaType.equals(Schema.Type.RECORD) || readerSchemaType.equals(Schema.Type.MAP)
-        || readerSchemaType.equals(Schema.Type.ARRAY);
+    return !readerSchemaType.equals(Schema.Type.NULL);
   }
 
+  /**
+   * Every top-level schema type is supported but null, which is not worth generating code for.
+   */
   public static boolean isSupportedForFastSerializer(Schema.Type schemaType) {
-    return schemaType.equals(Schema.Type.RECORD) || schemaType.equals(Schema.Type.MAP) || schemaType.equals(
-        Schema.Type.ARRAY);
+    return !schemaType.equals(Schema.Type.NULL);
   }
 
   public static boolean isFastDeserializer(FastDeserializer deserializer) {
@@ -194,22 +571,35 @@ public final class FastSerdeCache {
    * @return specific-class aware avro {@link FastDeserializer}
    */
   public FastDeserializer<?> getFastSpecificDeserializer(Schema writerSchema, Schema readerSchema) {
-    String schemaKey = getSchemaKey(writerSchema, readerSchema);
+    SchemaKey schemaKey = getSchemaKey(writerSchema, readerSchema);
+    recordUsage(CacheType.SPECIFIC_DESERIALIZER, schemaKey, writerSchema, readerSchema);
     FastDeserializer<?> deserializer = fastSpecificRecordDeserializersCache.get(schemaKey);
 
     if (deserializer == null) {
-      AtomicBoolean status = new AtomicBoolean(false);
+      listener.onCacheMiss(CacheType.SPECIFIC_DESERIALIZER);
+      AtomicReference<FastDeserializerWithAvroSpecificImpl<?>> coldDeserializer = new AtomicReference<>();
+      Runnable compilation = () -> buildSpecificDeserializer(writerSchema, readerSchema, false).thenAccept(d -> {
+        fastSpecificRecordDeserializersCache.put(schemaKey, d);
+        listener.onColdPathReplaced(CacheType.SPECIFIC_DESERIALIZER, coldDeserializer.get().getCallCount());
+      });
+      CompileTrigger compileTrigger = newCompileTrigger(compilation);
       deserializer = fastSpecificRecordDeserializersCache.computeIfAbsent(
           schemaKey,
           k -> {
-            status.set(true);
-            return new FastDeserializerWithAvroSpecificImpl<>(writerSchema, readerSchema);
+            FastDeserializer<?> persisted = loadPersistedDeserializer(writerSchema, readerSchema, "Specific");
+            if (persisted != null) {
+              return persisted;
+            }
+            coldDeserializer.set(new FastDeserializerWithAvroSpecificImpl<>(writerSchema, readerSchema, compileTrigger,
+                getCallCount(CacheType.SPECIFIC_DESERIALIZER, schemaKey, writerSchema, readerSchema)));
+            return coldDeserializer.get();
           });
 
-      if (status.get()) {
-        CompletableFuture.supplyAsync(() -> buildSpecificDeserializer(writerSchema, readerSchema), executor)
-            .thenAccept(d -> fastSpecificRecordDeserializersCache.put(schemaKey, d));
+      if (coldDeserializer.get() != null && compileTrigger == null) {
+        compilation.run();
       }
+    } else {
+      listener.onCacheHit(CacheType.SPECIFIC_DESERIALIZER);
     }
 
     return deserializer;
@@ -225,26 +615,58 @@ public final class FastSerdeCache {
    * @return generic-class aware avro {@link FastDeserializer}
    */
   public FastDeserializer<?> getFastGenericDeserializer(Schema writerSchema, Schema readerSchema) {
-    String schemaKey = getSchemaKey(writerSchema, readerSchema);
+    SchemaKey schemaKey = getSchemaKey(writerSchema, readerSchema);
+    recordUsage(CacheType.GENERIC_DESERIALIZER, schemaKey, writerSchema, readerSchema);
     FastDeserializer<?> deserializer = fastGenericRecordDeserializersCache.get(schemaKey);
 
     if (deserializer == null) {
-      AtomicBoolean status = new AtomicBoolean(false);
+      listener.onCacheMiss(CacheType.GENERIC_DESERIALIZER);
+      AtomicReference<FastDeserializerWithAvroGenericImpl<?>> coldDeserializer = new AtomicReference<>();
+      Runnable compilation = () -> buildGenericDeserializer(writerSchema, readerSchema, false).thenAccept(d -> {
+        fastGenericRecordDeserializersCache.put(schemaKey, d);
+        listener.onColdPathReplaced(CacheType.GENERIC_DESERIALIZER, coldDeserializer.get().getCallCount());
+      });
+      CompileTrigger compileTrigger = newCompileTrigger(compilation);
       deserializer = fastGenericRecordDeserializersCache.computeIfAbsent(
           schemaKey,
           k -> {
-            status.set(true);
-            return new FastDeserializerWithAvroGenericImpl<>(writerSchema, readerSchema);
+            FastDeserializer<?> persisted = loadPersistedDeserializer(writerSchema, readerSchema, "Generic");
+            if (persisted != null) {
+              return persisted;
+            }
+            coldDeserializer.set(new FastDeserializerWithAvroGenericImpl<>(writerSchema, readerSchema, compileTrigger,
+                getCallCount(CacheType.GENERIC_DESERIALIZER, schemaKey, writerSchema, readerSchema)));
+            return coldDeserializer.get();
           });
 
-      if (status.get()) {
-        CompletableFuture.supplyAsync(() -> buildGenericDeserializer(writerSchema, readerSchema), executor)
-            .thenAccept(d -> fastGenericRecordDeserializersCache.put(schemaKey, d));
+      if (coldDeserializer.get() != null && compileTrigger == null) {
+        compilation.run();
       }
+    } else {
+      listener.onCacheHit(CacheType.GENERIC_DESERIALIZER);
     }
     return deserializer;
   }
 
+  /**
+   * Generates if needed and returns a generic-class aware avro {@link FastDeserializer} which only reads the given
+   * fields, skipping everything else. The records it returns are of the reader schema derived by
+   * {@link SchemaProjection#project}, which is cached along with the projection.
+   *
+   * @param writerSchema
+   *            record {@link Schema} of written data
+   * @param fieldPaths
+   *            dot-separated paths of the fields to read, such as {@code header.timestamp}
+   * @return generic-class aware avro {@link FastDeserializer}
+   * @throws IllegalArgumentException if a path designates no field of the writer schema
+   */
+  public FastDeserializer<?> getProjectingDeserializer(Schema writerSchema, Set<String> fieldPaths) {
+    Schema readerSchema = projectedSchemasCache.computeIfAbsent(
+        new ProjectionKey(getSchemaFingerprint64(writerSchema), new TreeSet<>(fieldPaths)),
+        k -> SchemaProjection.project(writerSchema, fieldPaths));
+    return getFastGenericDeserializer(writerSchema, readerSchema);
+  }
+
   /**
    * Generates if needed and returns specific-class aware avro {@link FastSerializer}.
    *
@@ -253,22 +675,35 @@ public final class FastSerdeCache {
    * @return specific-class aware avro {@link FastSerializer}
    */
   public FastSerializer<?> getFastSpecificSerializer(Schema schema) {
-    String schemaKey = getSchemaKey(schema, schema);
+    SchemaKey schemaKey = getSchemaKey(schema, schema);
+    recordUsage(CacheType.SPECIFIC_SERIALIZER, schemaKey, schema, schema);
     FastSerializer<?> serializer = fastSpecificRecordSerializersCache.get(schemaKey);
 
     if (serializer == null) {
-      AtomicBoolean status = new AtomicBoolean(false);
+      listener.onCacheMiss(CacheType.SPECIFIC_SERIALIZER);
+      AtomicReference<FastSerializerWithAvroSpecificImpl<?>> coldSerializer = new AtomicReference<>();
+      Runnable compilation = () -> buildSpecificSerializer(schema, false).thenAccept(s -> {
+        fastSpecificRecordSerializersCache.put(schemaKey, s);
+        listener.onColdPathReplaced(CacheType.SPECIFIC_SERIALIZER, coldSerializer.get().getCallCount());
+      });
+      CompileTrigger compileTrigger = newCompileTrigger(compilation);
       serializer = fastSpecificRecordSerializersCache.computeIfAbsent(
           schemaKey,
           k -> {
-            status.set(true);
-            return new FastSerializerWithAvroSpecificImpl<>(schema);
+            FastSerializer<?> persisted = loadPersistedSerializer(schema, "Specific");
+            if (persisted != null) {
+              return persisted;
+            }
+            coldSerializer.set(new FastSerializerWithAvroSpecificImpl<>(schema, compileTrigger,
+                getCallCount(CacheType.SPECIFIC_SERIALIZER, schemaKey, schema, schema)));
+            return coldSerializer.get();
           });
 
-      if (status.get()) {
-        CompletableFuture.supplyAsync(() -> buildSpecificSerializer(schema), executor)
-            .thenAccept(s -> fastSpecificRecordSerializersCache.put(schemaKey, s));
+      if (coldSerializer.get() != null && compileTrigger == null) {
+        compilation.run();
       }
+    } else {
+      listener.onCacheHit(CacheType.SPECIFIC_SERIALIZER);
     }
 
     return serializer;
@@ -282,22 +717,35 @@ public final class FastSerdeCache {
    * @return generic-class aware avro {@link FastSerializer}
    */
   public FastSerializer<?> getFastGenericSerializer(Schema schema) {
-    String schemaKey = getSchemaKey(schema, schema);
+    SchemaKey schemaKey = getSchemaKey(schema, schema);
+    recordUsage(CacheType.GENERIC_SERIALIZER, schemaKey, schema, schema);
     FastSerializer<?> serializer = fastGenericRecordSerializersCache.get(schemaKey);
 
     if (serializer == null) {
-      AtomicBoolean status = new AtomicBoolean(false);
+      listener.onCacheMiss(CacheType.GENERIC_SERIALIZER);
+      AtomicReference<FastSerializerWithAvroGenericImpl<?>> coldSerializer = new AtomicReference<>();
+      Runnable compilation = () -> buildGenericSerializer(schema, false).thenAccept(s -> {
+        fastGenericRecordSerializersCache.put(schemaKey, s);
+        listener.onColdPathReplaced(CacheType.GENERIC_SERIALIZER, coldSerializer.get().getCallCount());
+      });
+      CompileTrigger compileTrigger = newCompileTrigger(compilation);
       serializer = fastGenericRecordSerializersCache.computeIfAbsent(
           schemaKey,
           k -> {
-            status.set(true);
-            return new FastSerializerWithAvroGenericImpl<>(schema);
+            FastSerializer<?> persisted = loadPersistedSerializer(schema, "Generic");
+            if (persisted != null) {
+              return persisted;
+            }
+            coldSerializer.set(new FastSerializerWithAvroGenericImpl<>(schema, compileTrigger,
+                getCallCount(CacheType.GENERIC_SERIALIZER, schemaKey, schema, schema)));
+            return coldSerializer.get();
           });
 
-      if (status.get()) {
-        CompletableFuture.supplyAsync(() -> buildGenericSerializer(schema), executor)
-            .thenAccept(s -> fastGenericRecordSerializersCache.put(schemaKey, s));
+      if (coldSerializer.get() != null && compileTrigger == null) {
+        compilation.run();
       }
+    } else {
+      listener.onCacheHit(CacheType.GENERIC_SERIALIZER);
     }
 
     return serializer;
@@ -312,7 +760,7 @@ public final class FastSerdeCache {
    */
   public CompletableFuture<FastDeserializer<?>> getFastSpecificDeserializerAsync(Schema writerSchema, Schema readerSchema) {
     return getFastDeserializerAsync(writerSchema, readerSchema, fastSpecificRecordDeserializersCache,
-        () -> buildSpecificDeserializer(writerSchema, readerSchema));
+        () -> buildSpecificDeserializer(writerSchema, readerSchema, true));
   }
 
   /**
@@ -324,24 +772,238 @@ public final class FastSerdeCache {
    */
   public CompletableFuture<FastDeserializer<?>> getFastGenericDeserializerAsync(Schema writerSchema, Schema readerSchema) {
     return getFastDeserializerAsync(writerSchema, readerSchema, fastGenericRecordDeserializersCache,
-        () -> buildGenericDeserializer(writerSchema, readerSchema));
+        () -> buildGenericDeserializer(writerSchema, readerSchema, true));
   }
 
   private CompletableFuture<FastDeserializer<?>> getFastDeserializerAsync(Schema writerSchema, Schema readerSchema,
-      Map<String, FastDeserializer<?>> fastDeserializerCache, Supplier<FastDeserializer<?>> fastDeserializerSupplier) {
-    String schemaKey = getSchemaKey(writerSchema, readerSchema);
+      EvictingCache<SchemaKey, FastDeserializer<?>> fastDeserializerCache,
+      Supplier<CompletableFuture<FastDeserializer<?>>> fastDeserializerSupplier) {
+    SchemaKey schemaKey = getSchemaKey(writerSchema, readerSchema);
     FastDeserializer<?> deserializer = fastDeserializerCache.get(schemaKey);
     return deserializer != null && isFastDeserializer(deserializer) ? CompletableFuture.completedFuture(deserializer)
-        : CompletableFuture.supplyAsync(fastDeserializerSupplier, executor)
+        : fastDeserializerSupplier.get()
             .thenApply(d -> {
               fastDeserializerCache.put(schemaKey, d);
               return d;
             });
   }
 
-  private static String getSchemaKey(Schema writerSchema, Schema readerSchema) {
-    return String.valueOf(Math.abs(getSchemaFingerprint(writerSchema))) + Math.abs(
-        getSchemaFingerprint(readerSchema));
+  private static Map<String, ClassLoader> loadPregeneratedClasses() {
+    Map<String, ClassLoader> pregeneratedClasses = new HashMap<>();
+    String deserializersPackagePrefix = FastSerdeBase.getGeneratedPackageName(FastDeserializerGeneratorBase.DESCRIPTION) + ".";
+    String serializersPackagePrefix = FastSerdeBase.getGeneratedPackageName(FastSerializerGenerator.DESCRIPTION) + ".";
+    try {
+      for (FastSerdeRegistry registry : ServiceLoader.load(FastSerdeRegistry.class)) {
+        if (registry.getGeneratorVersion() != FastSerdeBase.GENERATOR_VERSION) {
+          LOGGER.warn("Ignoring fast serde registry: {} generated by generator version: {}, current version is: {}",
+              registry.getClass().getName(), registry.getGeneratorVersion(), FastSerdeBase.GENERATOR_VERSION);
+          continue;
+        }
+        // classes generated with another avro version are in other packages
+        for (String className : registry.getClassNames()) {
+          if (className.startsWith(deserializersPackagePrefix) || className.startsWith(serializersPackagePrefix)) {
+            pregeneratedClasses.put(className, registry.getClass().getClassLoader());
+          }
+        }
+      }
+    } catch (ServiceConfigurationError e) {
+      LOGGER.warn("Unable to load fast serde registries", e);
+    }
+    return pregeneratedClasses;
+  }
+
+  /**
+   * Looks up a deserializer class generated ahead of time, or by a previous run in the persistent classes dir.
+   *
+   * @return an instance of the previously generated deserializer, or null if there is none or it can't be used
+   */
+  private FastDeserializer<?> loadPersistedDeserializer(Schema writerSchema, Schema readerSchema, String description) {
+    Class<?> clazz =
+        loadPersistedClass(FastDeserializerGeneratorBase.getClassFullName(writerSchema, readerSchema, description));
+    if (clazz == null) {
+      return null;
+    }
+    if (!FastSerdeBase.hasMatchingDirectAccessMembers(clazz)) {
+      LOGGER.warn("Previously generated class: {} doesn't match the record classes anymore, it will be generated again",
+          clazz.getName());
+      return null;
+    }
+    try {
+      FastDeserializer<?> deserializer = (FastDeserializer<?>) clazz.getConstructor(Schema.class).newInstance(readerSchema);
+      LOGGER.info("Loaded previously generated {} FastDeserializer: {}", description, clazz.getName());
+      return deserializer;
+    } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+      LOGGER.warn("Unable to instantiate previously generated class: {}, it will be generated again", clazz.getName(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Looks up a serializer class generated ahead of time, or by a previous run in the persistent classes dir.
+   *
+   * @return an instance of the previously generated serializer, or null if there is none or it can't be used
+   */
+  private FastSerializer<?> loadPersistedSerializer(Schema schema, String description) {
+    if (!Utils.isSupportedAvroVersionsForSerializer()) {
+      return null;
+    }
+    Class<?> clazz = loadPersistedClass(FastSerializerGenerator.getClassFullName(schema, description));
+    if (clazz == null) {
+      return null;
+    }
+    if (!FastSerdeBase.hasMatchingDirectAccessMembers(clazz)) {
+      LOGGER.warn("Previously generated class: {} doesn't match the record classes anymore, it will be generated again",
+          clazz.getName());
+      return null;
+    }
+    try {
+      FastSerializer<?> serializer = (FastSerializer<?>) clazz.getConstructor(Schema.class).newInstance(schema);
+      LOGGER.info("Loaded previously generated {} FastSerializer: {}", description, clazz.getName());
+      return serializer;
+    } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+      LOGGER.warn("Unable to instantiate previously generated class: {}, it will be generated again", clazz.getName(), e);
+      return null;
+    }
+  }
+
+  private Class<?> loadPersistedClass(String classFullName) {
+    ClassLoader pregeneratedClassLoader = pregeneratedClasses.get(classFullName);
+    if (pregeneratedClassLoader != null) {
+      try {
+        return Class.forName(classFullName, true, pregeneratedClassLoader);
+      } catch (ClassNotFoundException | LinkageError e) {
+        LOGGER.warn("Unable to load pre-generated class: {}, it will be generated again", classFullName, e);
+      }
+    }
+    if (!persistentClassesDir) {
+      return null;
+    }
+    File classFile = new File(classesDir, classFullName.replace('.', File.separatorChar) + ".class");
+    if (!classFile.isFile()) {
+      return null;
+    }
+    try {
+      // loaded through its own loader, like freshly generated classes, so it can be unloaded once evicted
+      byte[] classBytes = Files.readAllBytes(classFile.toPath());
+      return new FastSerdeClassLoader(classLoader, Collections.singletonMap(classFullName, classBytes), classesDir)
+          .loadClass(classFullName);
+    } catch (IOException | ClassNotFoundException | LinkageError e) {
+      // most likely a class file left truncated by a crashed process, drop it so it gets generated again
+      LOGGER.warn("Unable to load previously generated class: {} from: {}, it will be generated again", classFullName,
+          classFile, e);
+      if (!classFile.delete()) {
+        LOGGER.warn("Unable to delete class file: {}", classFile);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Repeated lookups of the same pair of schema instances get the same key from an identity based cache, without
+   * fingerprinting the schemas nor allocating.
+   */
+  private static SchemaKey getSchemaKey(Schema writerSchema, Schema readerSchema) {
+    int slot = (31 * System.identityHashCode(writerSchema) + System.identityHashCode(readerSchema))
+        & (SCHEMA_KEYS_IDENTITY_CACHE_SIZE - 1);
+    SchemaKeySlot cached = SCHEMA_KEYS_IDENTITY_CACHE.get(slot);
+    if (cached != null && cached.get() == writerSchema && cached.readerSchema.get() == readerSchema) {
+      return cached.schemaKey;
+    }
+
+    SchemaKey schemaKey = new SchemaKey(getSchemaFingerprint64(writerSchema), getSchemaFingerprint64(readerSchema));
+    // schema pairs sharing a slot simply replace each other
+    SCHEMA_KEYS_IDENTITY_CACHE.set(slot, new SchemaKeySlot(writerSchema, readerSchema, schemaKey));
+    return schemaKey;
+  }
+
+  /**
+   * Slot of the identity based cache of {@link SchemaKey}s, which doesn't keep the schemas from being collected.
+   */
+  private static final class SchemaKeySlot extends WeakReference<Schema> {
+    private final WeakReference<Schema> readerSchema;
+    private final SchemaKey schemaKey;
+
+    SchemaKeySlot(Schema writerSchema, Schema readerSchema, SchemaKey schemaKey) {
+      super(writerSchema);
+      this.readerSchema = new WeakReference<>(readerSchema);
+      this.schemaKey = schemaKey;
+    }
+  }
+
+  /**
+   * Cache key made of the 64-bit fingerprints of the writer and reader schemas.
+   */
+  private static final class SchemaKey {
+    private final long writerSchemaFingerprint;
+    private final long readerSchemaFingerprint;
+
+    SchemaKey(long writerSchemaFingerprint, long readerSchemaFingerprint) {
+      this.writerSchemaFingerprint = writerSchemaFingerprint;
+      this.readerSchemaFingerprint = readerSchemaFingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SchemaKey)) {
+        return false;
+      }
+      SchemaKey that = (SchemaKey) o;
+      return writerSchemaFingerprint == that.writerSchemaFingerprint
+          && readerSchemaFingerprint == that.readerSchemaFingerprint;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Long.hashCode(writerSchemaFingerprint) + Long.hashCode(readerSchemaFingerprint);
+    }
+  }
+
+  /**
+   * Counter of the calls to a serializer or deserializer in the usage manifest being recorded, see
+   * {@link #countCalls}.
+   */
+  static final class UsageCounter {
+    private final FastSerdeUsageManifest usageManifest;
+    private final LongAdder callCount;
+
+    UsageCounter(FastSerdeUsageManifest usageManifest, LongAdder callCount) {
+      this.usageManifest = usageManifest;
+      this.callCount = callCount;
+    }
+  }
+
+  /**
+   * Cache key of the projected reader schemas, made of the 64-bit fingerprint of the writer schema and of the
+   * projected field paths.
+   */
+  private static final class ProjectionKey {
+    private final long writerSchemaFingerprint;
+    private final Set<String> fieldPaths;
+
+    ProjectionKey(long writerSchemaFingerprint, Set<String> fieldPaths) {
+      this.writerSchemaFingerprint = writerSchemaFingerprint;
+      this.fieldPaths = fieldPaths;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ProjectionKey)) {
+        return false;
+      }
+      ProjectionKey that = (ProjectionKey) o;
+      return writerSchemaFingerprint == that.writerSchemaFingerprint && fieldPaths.equals(that.fieldPaths);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Long.hashCode(writerSchemaFingerprint) + fieldPaths.hashCode();
+    }
   }
 
   /**
@@ -353,20 +1015,25 @@ public final class FastSerdeCache {
    * @return a fast deserializer
    */
   public FastDeserializer<?> buildFastSpecificDeserializer(Schema writerSchema, Schema readerSchema) {
+    FastDeserializer<?> persisted = loadPersistedDeserializer(writerSchema, readerSchema, "Specific");
+    if (persisted != null) {
+      return persisted;
+    }
     FastSpecificDeserializerGenerator<?> generator =
         new FastSpecificDeserializerGenerator<>(writerSchema, readerSchema, classesDir, classLoader,
             compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
     FastDeserializer<?> fastDeserializer = generator.generateDeserializer();
 
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Generated classes dir: {} and generation of specific FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
               + " and content: [\n{}\n] and reader schema of type: {} with fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(writerSchema),
-              writerSchema.toString(true), getSchemaFingerprint(writerSchema), getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema),
+              writerSchema.toString(true), getSchemaFingerprint64(writerSchema), getSchemaFullName(readerSchema), getSchemaFingerprint64(readerSchema),
               readerSchema.toString(true));
     } else {
       LOGGER.info("Generated classes dir: {} and generation of specific FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
-              + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint(writerSchema),
-              getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema));
+              + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint64(writerSchema),
+              getSchemaFullName(readerSchema), getSchemaFingerprint64(readerSchema));
     }
 
     return fastDeserializer;
@@ -377,26 +1044,49 @@ public final class FastSerdeCache {
    * {@link SpecificDatumReader} if anything wrong happens.
    * @param writerSchema
    * @param readerSchema
+   * @param lookUpPersisted false when the caller already looked the previously generated class up
    * @return
    */
-  private FastDeserializer<?> buildSpecificDeserializer(Schema writerSchema, Schema readerSchema) {
-    try {
-      return buildFastSpecificDeserializer(writerSchema, readerSchema);
-    } catch (FastDeserializerGeneratorException e) {
-      LOGGER.warn("Deserializer generation exception when generating specific FastDeserializer for writer schema: "
-              + "[\n{}\n] and reader schema: [\n{}\n]", writerSchema.toString(true), readerSchema.toString(true), e);
-    } catch (Exception e) {
-      LOGGER.warn("Deserializer class instantiation exception", e);
-    }
+  private CompletableFuture<FastDeserializer<?>> buildSpecificDeserializer(Schema writerSchema, Schema readerSchema,
+      boolean lookUpPersisted) {
+    return generateSpecificDeserializer(writerSchema, readerSchema, lookUpPersisted).handle((fastDeserializer, e) -> {
+      if (e == null) {
+        return fastDeserializer;
+      }
+      if (e instanceof FastDeserializerGeneratorException) {
+        LOGGER.warn("Deserializer generation exception when generating specific FastDeserializer for writer schema: "
+                + "[\n{}\n] and reader schema: [\n{}\n]", writerSchema.toString(true), readerSchema.toString(true), e);
+      } else {
+        LOGGER.warn("Deserializer class instantiation exception", e);
+      }
+      listener.onFallback(CacheType.SPECIFIC_DESERIALIZER, writerSchema, readerSchema, e);
+      return new FastDeserializer<Object>() {
+        private DatumReader datumReader = new SpecificDatumReader<>(writerSchema, readerSchema);
 
-    return new FastDeserializer<Object>() {
-      private DatumReader datumReader = new SpecificDatumReader<>(writerSchema, readerSchema);
+        @Override
+        public Object deserialize(Object reuse, Decoder d) throws IOException {
+          return datumReader.read(reuse, d);
+        }
+      };
+    });
+  }
 
-      @Override
-      public Object deserialize(Object reuse, Decoder d) throws IOException {
-        return datumReader.read(reuse, d);
-      }
-    };
+  /**
+   * @param lookUpPersisted false when the caller already looked the previously generated class up
+   */
+  private CompletableFuture<FastDeserializer<?>> generateSpecificDeserializer(Schema writerSchema, Schema readerSchema,
+      boolean lookUpPersisted) {
+    FastDeserializer<?> persisted =
+        lookUpPersisted ? loadPersistedDeserializer(writerSchema, readerSchema, "Specific") : null;
+    if (persisted != null) {
+      return CompletableFuture.completedFuture(persisted);
+    }
+    FastSpecificDeserializerGenerator<?> generator =
+        new FastSpecificDeserializerGenerator<>(writerSchema, readerSchema, classesDir, classLoader,
+            compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
+    return batchCompiler.<FastDeserializer<?>>submit(generator, generator::generateDeserializerCode,
+        generator::newDeserializer, listener);
   }
 
   /**
@@ -408,52 +1098,110 @@ public final class FastSerdeCache {
    * @return a fast deserializer
    */
   public FastDeserializer<?> buildFastGenericDeserializer(Schema writerSchema, Schema readerSchema) {
+    FastDeserializer<?> persisted = loadPersistedDeserializer(writerSchema, readerSchema, "Generic");
+    if (persisted != null) {
+      return persisted;
+    }
     FastGenericDeserializerGenerator<?> generator =
         new FastGenericDeserializerGenerator<>(writerSchema, readerSchema, classesDir, classLoader,
             compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
 
     FastDeserializer<?> fastDeserializer = generator.generateDeserializer();
 
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Generated classes dir: {} and generation of generic FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
               + " and content: [\n{}\n] and reader schema of type: {} with fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(writerSchema),
-              writerSchema.toString(true), getSchemaFingerprint(writerSchema), getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema),
+              writerSchema.toString(true), getSchemaFingerprint64(writerSchema), getSchemaFullName(readerSchema), getSchemaFingerprint64(readerSchema),
               readerSchema.toString(true));
     } else {
       LOGGER.info("Generated classes dir: {} and generation of generic FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
-              + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint(writerSchema),
-              getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema));
+              + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint64(writerSchema),
+              getSchemaFullName(readerSchema), getSchemaFingerprint64(readerSchema));
     }
 
     return fastDeserializer;
   }
 
+  /**
+   * This function will generate a fast generic deserializer returning {@link LazyGenericRecord}s, which only decode
+   * the fields actually accessed. It only accepts {@link ZeroCopyBinaryDecoder}s, since the records retain the
+   * source they are decoded from.
+   *
+   * Lazy deserializers are cached per schema pair, but there is no fallback to vanilla avro since the records would
+   * behave differently, so it will throw exception if anything wrong happens and nothing is cached then.
+   *
+   * @param writerSchema writer record schema
+   * @param readerSchema reader record schema
+   * @return a fast lazy deserializer
+   */
+  public FastDeserializer<?> buildFastLazyGenericDeserializer(Schema writerSchema, Schema readerSchema) {
+    return fastLazyGenericRecordDeserializersCache.computeIfAbsent(getSchemaKey(writerSchema, readerSchema),
+        k -> generateLazyGenericDeserializer(writerSchema, readerSchema));
+  }
+
+  private FastDeserializer<?> generateLazyGenericDeserializer(Schema writerSchema, Schema readerSchema) {
+    FastLazyGenericDeserializerGenerator<?> generator =
+        new FastLazyGenericDeserializerGenerator<>(writerSchema, readerSchema, classesDir, classLoader,
+            compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
+
+    FastDeserializer<?> fastDeserializer = generator.generateDeserializer();
+    LOGGER.info("Generated classes dir: {} and generation of lazy generic FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
+            + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint64(writerSchema),
+        getSchemaFullName(readerSchema), getSchemaFingerprint64(readerSchema));
+    return fastDeserializer;
+  }
+
   /**
    * This function is used to generate a fast generic deserializer, and it will fail back to use
    * {@link GenericDatumReader} if anything wrong happens.
    *
    * @param writerSchema
    * @param readerSchema
+   * @param lookUpPersisted false when the caller already looked the previously generated class up
    * @return
    */
-  private FastDeserializer<?> buildGenericDeserializer(Schema writerSchema, Schema readerSchema) {
-    try {
-      return buildFastGenericDeserializer(writerSchema, readerSchema);
-    } catch (FastDeserializerGeneratorException e) {
-      LOGGER.warn("Deserializer generation exception when generating generic FastDeserializer for writer schema: [\n"
-          + writerSchema.toString(true) + "\n] and reader schema:[\n" + readerSchema.toString(true) + "\n]", e);
-    } catch (Exception e) {
-      LOGGER.warn("Deserializer class instantiation exception:" + e);
-    }
+  private CompletableFuture<FastDeserializer<?>> buildGenericDeserializer(Schema writerSchema, Schema readerSchema,
+      boolean lookUpPersisted) {
+    return generateGenericDeserializer(writerSchema, readerSchema, lookUpPersisted).handle((fastDeserializer, e) -> {
+      if (e == null) {
+        return fastDeserializer;
+      }
+      if (e instanceof FastDeserializerGeneratorException) {
+        LOGGER.warn("Deserializer generation exception when generating generic FastDeserializer for writer schema: [\n"
+            + writerSchema.toString(true) + "\n] and reader schema:[\n" + readerSchema.toString(true) + "\n]", e);
+      } else {
+        LOGGER.warn("Deserializer class instantiation exception:" + e);
+      }
+      listener.onFallback(CacheType.GENERIC_DESERIALIZER, writerSchema, readerSchema, e);
+      return new FastDeserializer<Object>() {
+        private DatumReader datumReader = new GenericDatumReader<>(writerSchema, readerSchema);
 
-    return new FastDeserializer<Object>() {
-      private DatumReader datumReader = new GenericDatumReader<>(writerSchema, readerSchema);
+        @Override
+        public Object deserialize(Object reuse, Decoder d) throws IOException {
+          return datumReader.read(reuse, d);
+        }
+      };
+    });
+  }
 
-      @Override
-      public Object deserialize(Object reuse, Decoder d) throws IOException {
-        return datumReader.read(reuse, d);
-      }
-    };
+  /**
+   * @param lookUpPersisted false when the caller already looked the previously generated class up
+   */
+  private CompletableFuture<FastDeserializer<?>> generateGenericDeserializer(Schema writerSchema, Schema readerSchema,
+      boolean lookUpPersisted) {
+    FastDeserializer<?> persisted =
+        lookUpPersisted ? loadPersistedDeserializer(writerSchema, readerSchema, "Generic") : null;
+    if (persisted != null) {
+      return CompletableFuture.completedFuture(persisted);
+    }
+    FastGenericDeserializerGenerator<?> generator =
+        new FastGenericDeserializerGenerator<>(writerSchema, readerSchema, classesDir, classLoader,
+            compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
+    return batchCompiler.<FastDeserializer<?>>submit(generator, generator::generateDeserializerCode,
+        generator::newDeserializer, listener);
   }
 
   public FastSerializer<?> buildFastSpecificSerializer(Schema schema) {
@@ -462,42 +1210,72 @@ public final class FastSerdeCache {
       throw new FastDeserializerGeneratorException("Specific FastSerializer is only supported in following Avro versions: " +
           Utils.getAvroVersionsSupportedForSerializer());
     }
+    FastSerializer<?> persisted = loadPersistedSerializer(schema, "Specific");
+    if (persisted != null) {
+      return persisted;
+    }
     FastSpecificSerializerGenerator<?> generator =
         new FastSpecificSerializerGenerator<>(schema, classesDir, classLoader, compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
 
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Generated classes dir: {} and generation of specific FastSerializer is done for schema of type: {}" +
-              " and fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema),
+              " and fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(schema), getSchemaFingerprint64(schema),
               schema.toString(true));
     } else {
       LOGGER.info("Generated classes dir: {} and generation of specific FastSerializer is done for schema of type: {}" +
-              " and fingerprint: {}", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema));
+              " and fingerprint: {}", classesDir, getSchemaFullName(schema), getSchemaFingerprint64(schema));
     }
 
     return generator.generateSerializer();
   }
 
-  private FastSerializer<?> buildSpecificSerializer(Schema schema) {
+  private CompletableFuture<FastSerializer<?>> buildSpecificSerializer(Schema schema, boolean lookUpPersisted) {
+    CompletableFuture<FastSerializer<?>> fastSerializer;
     if (Utils.isSupportedAvroVersionsForSerializer()) {
       // Only build fast specific serializer for supported Avro versions.
-      try {
-        return buildFastSpecificSerializer(schema);
-      } catch (FastDeserializerGeneratorException e) {
+      fastSerializer = generateSpecificSerializer(schema, lookUpPersisted);
+    } else {
+      fastSerializer = new CompletableFuture<>();
+      fastSerializer.completeExceptionally(new FastDeserializerGeneratorException(
+          "Specific FastSerializer is only supported in following avro versions: " + Utils.getAvroVersionsSupportedForSerializer()));
+    }
+
+    return fastSerializer.handle((serializer, throwable) -> {
+      if (throwable == null) {
+        return serializer;
+      }
+      if (throwable instanceof FastDeserializerGeneratorException) {
         LOGGER.warn("Serializer generation exception when generating specific FastSerializer for schema: [\n{}\n]",
-            schema.toString(true), e);
-      } catch (Exception e) {
-        LOGGER.warn("Serializer class instantiation exception", e);
+            schema.toString(true), throwable);
+      } else {
+        LOGGER.warn("Serializer class instantiation exception", throwable);
       }
-    }
+      listener.onFallback(CacheType.SPECIFIC_SERIALIZER, schema, schema, throwable);
+      return new FastSerializer<Object>() {
+        private final DatumWriter datumWriter = new SpecificDatumWriter(schema);
 
-    return new FastSerializer<Object>() {
-      private final DatumWriter datumWriter = new SpecificDatumWriter(schema);
+        @Override
+        public void serialize(Object data, Encoder e) throws IOException {
+          datumWriter.write(data, e);
+        }
+      };
+    });
+  }
 
-      @Override
-      public void serialize(Object data, Encoder e) throws IOException {
-        datumWriter.write(data, e);
-      }
-    };
+  /**
+   * @param lookUpPersisted false when the caller already looked the previously generated class up
+   */
+  private CompletableFuture<FastSerializer<?>> generateSpecificSerializer(Schema schema, boolean lookUpPersisted) {
+    FastSerializer<?> persisted = lookUpPersisted ? loadPersistedSerializer(schema, "Specific") : null;
+    if (persisted != null) {
+      return CompletableFuture.completedFuture(persisted);
+    }
+    FastSpecificSerializerGenerator<?> generator =
+        new FastSpecificSerializerGenerator<>(schema, classesDir, classLoader, compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
+    return batchCompiler.<FastSerializer<?>>submit(generator, generator::generateSerializerCode,
+        generator::newSerializer, listener);
   }
 
   public FastSerializer<?> buildFastGenericSerializer(Schema schema) {
@@ -506,42 +1284,72 @@ public final class FastSerdeCache {
       throw new FastDeserializerGeneratorException("Generic FastSerializer is only supported in following avro versions:"
           + Utils.getAvroVersionsSupportedForSerializer());
     }
+    FastSerializer<?> persisted = loadPersistedSerializer(schema, "Generic");
+    if (persisted != null) {
+      return persisted;
+    }
     FastGenericSerializerGenerator<?> generator =
         new FastGenericSerializerGenerator<>(schema, classesDir, classLoader, compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
 
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Generated classes dir: {} and generation of generic FastSerializer is done for schema of type: {}" +
-              " and fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema),
+              " and fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(schema), getSchemaFingerprint64(schema),
               schema.toString(true));
     } else {
       LOGGER.info("Generated classes dir: {} and generation of generic FastSerializer is done for schema of type: {}" +
-              " and fingerprint: {}", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema));
+              " and fingerprint: {}", classesDir, getSchemaFullName(schema), getSchemaFingerprint64(schema));
     }
 
     return generator.generateSerializer();
   }
 
-  private FastSerializer<?> buildGenericSerializer(Schema schema) {
+  private CompletableFuture<FastSerializer<?>> buildGenericSerializer(Schema schema, boolean lookUpPersisted) {
+    CompletableFuture<FastSerializer<?>> fastSerializer;
     if (Utils.isSupportedAvroVersionsForSerializer()) {
       // Only build fast generic serializer for supported Avro versions.
-      try {
-        return buildFastGenericSerializer(schema);
-      } catch (FastDeserializerGeneratorException e) {
+      fastSerializer = generateGenericSerializer(schema, lookUpPersisted);
+    } else {
+      fastSerializer = new CompletableFuture<>();
+      fastSerializer.completeExceptionally(new FastDeserializerGeneratorException(
+          "Generic FastSerializer is only supported in following avro versions: " + Utils.getAvroVersionsSupportedForSerializer()));
+    }
+
+    return fastSerializer.handle((serializer, throwable) -> {
+      if (throwable == null) {
+        return serializer;
+      }
+      if (throwable instanceof FastDeserializerGeneratorException) {
         LOGGER.warn("Serializer generation exception when generating generic FastSerializer for schema: [\n{}\n]",
-            schema.toString(true), e);
-      } catch (Exception e) {
-        LOGGER.warn("Serializer class instantiation exception", e);
+            schema.toString(true), throwable);
+      } else {
+        LOGGER.warn("Serializer class instantiation exception", throwable);
       }
-    }
+      listener.onFallback(CacheType.GENERIC_SERIALIZER, schema, schema, throwable);
+      return new FastSerializer<Object>() {
+        private final DatumWriter datumWriter = new GenericDatumWriter(schema);
 
-    return new FastSerializer<Object>() {
-      private final DatumWriter datumWriter = new GenericDatumWriter(schema);
+        @Override
+        public void serialize(Object data, Encoder e) throws IOException {
+          datumWriter.write(data, e);
+        }
+      };
+    });
+  }
 
-      @Override
-      public void serialize(Object data, Encoder e) throws IOException {
-        datumWriter.write(data, e);
-      }
-    };
+  /**
+   * @param lookUpPersisted false when the caller already looked the previously generated class up
+   */
+  private CompletableFuture<FastSerializer<?>> generateGenericSerializer(Schema schema, boolean lookUpPersisted) {
+    FastSerializer<?> persisted = lookUpPersisted ? loadPersistedSerializer(schema, "Generic") : null;
+    if (persisted != null) {
+      return CompletableFuture.completedFuture(persisted);
+    }
+    FastGenericSerializerGenerator<?> generator =
+        new FastGenericSerializerGenerator<>(schema, classesDir, classLoader, compileClassPath.orElse(null));
+    generator.setCompiler(getCompiler());
+    return batchCompiler.<FastSerializer<?>>submit(generator, generator::generateSerializerCode,
+        generator::newSerializer, listener);
   }
 
   private Executor getDefaultExecutor() {
@@ -558,55 +1366,183 @@ public final class FastSerdeCache {
     });
   }
 
+  /**
+   * Counts the calls to a cold serializer or deserializer and starts generating the fast one once they reach the
+   * compile threshold. Counts are halved every decay period, as the JVM does for its own compile thresholds.
+   * Counting is racy, calls may get lost under contention, which only delays the compilation a bit.
+   *
+   * The generation is started on the executor of the cache, so that the serving thread making the call that reaches
+   * the threshold doesn't run any part of it.
+   */
+  private static final class CompileTrigger {
+    private final int threshold;
+    private final long decayPeriodNanos;
+    private final Runnable compilation;
+    private final Executor executor;
+    private final AtomicBoolean triggered = new AtomicBoolean();
+    private int count;
+    private long periodStart = System.nanoTime();
+
+    CompileTrigger(int threshold, long decayPeriodNanos, Runnable compilation, Executor executor) {
+      this.threshold = threshold;
+      this.decayPeriodNanos = decayPeriodNanos;
+      this.compilation = compilation;
+      this.executor = executor;
+    }
+
+    void recordCall() {
+      if (triggered.get()) {
+        return;
+      }
+      if (decayPeriodNanos > 0) {
+        long periods = (System.nanoTime() - periodStart) / decayPeriodNanos;
+        if (periods > 0) {
+          count = periods < Integer.SIZE ? count >>> periods : 0;
+          periodStart += periods * decayPeriodNanos;
+        }
+      }
+      if (++count >= threshold && triggered.compareAndSet(false, true)) {
+        CompletableFuture.runAsync(compilation, executor).exceptionally(e -> {
+          LOGGER.warn("Unable to start the generation of a hot serializer or deserializer", e);
+          return null;
+        });
+      }
+    }
+  }
+
   public static class FastDeserializerWithAvroSpecificImpl<V> implements FastDeserializer<V> {
     private final SpecificDatumReader<V> datumReader;
+    private final LongAdder callCount;
+    private final long initialCallCount;
+    private final CompileTrigger compileTrigger;
 
     public FastDeserializerWithAvroSpecificImpl(Schema writerSchema, Schema readerSchema) {
+      this(writerSchema, readerSchema, null, new LongAdder());
+    }
+
+    FastDeserializerWithAvroSpecificImpl(Schema writerSchema, Schema readerSchema, CompileTrigger compileTrigger, LongAdder callCount) {
       this.datumReader = new ColdSpecificDatumReader<>(writerSchema, readerSchema);
+      this.compileTrigger = compileTrigger;
+      this.callCount = callCount;
+      this.initialCallCount = callCount.sum();
     }
 
     @Override
     public V deserialize(V reuse, Decoder d) throws IOException {
+      callCount.increment();
+      if (compileTrigger != null) {
+        compileTrigger.recordCall();
+      }
       return datumReader.read(reuse, d);
     }
+
+    /**
+     * @return number of calls served so far
+     */
+    public long getCallCount() {
+      return callCount.sum() - initialCallCount;
+    }
   }
 
   public static class FastDeserializerWithAvroGenericImpl<V> implements FastDeserializer<V> {
     private final GenericDatumReader<V> datumReader;
+    private final LongAdder callCount;
+    private final long initialCallCount;
+    private final CompileTrigger compileTrigger;
 
     public FastDeserializerWithAvroGenericImpl(Schema writerSchema, Schema readerSchema) {
+      this(writerSchema, readerSchema, null, new LongAdder());
+    }
+
+    FastDeserializerWithAvroGenericImpl(Schema writerSchema, Schema readerSchema, CompileTrigger compileTrigger, LongAdder callCount) {
       this.datumReader = new ColdGenericDatumReader<>(writerSchema, readerSchema);
+      this.compileTrigger = compileTrigger;
+      this.callCount = callCount;
+      this.initialCallCount = callCount.sum();
     }
 
     @Override
     public V deserialize(V reuse, Decoder d) throws IOException {
+      callCount.increment();
+      if (compileTrigger != null) {
+        compileTrigger.recordCall();
+      }
       return datumReader.read(reuse, d);
     }
+
+    /**
+     * @return number of calls served so far
+     */
+    public long getCallCount() {
+      return callCount.sum() - initialCallCount;
+    }
   }
 
   public static class FastSerializerWithAvroSpecificImpl<V> implements FastSerializer<V> {
     private final SpecificDatumWriter<V> datumWriter;
+    private final LongAdder callCount;
+    private final long initialCallCount;
+    private final CompileTrigger compileTrigger;
 
     public FastSerializerWithAvroSpecificImpl(Schema schema) {
+      this(schema, null, new LongAdder());
+    }
+
+    FastSerializerWithAvroSpecificImpl(Schema schema, CompileTrigger compileTrigger, LongAdder callCount) {
       this.datumWriter = new SpecificDatumWriter<>(schema);
+      this.compileTrigger = compileTrigger;
+      this.callCount = callCount;
+      this.initialCallCount = callCount.sum();
     }
 
     @Override
     public void serialize(V data, Encoder e) throws IOException {
+      callCount.increment();
+      if (compileTrigger != null) {
+        compileTrigger.recordCall();
+      }
       datumWriter.write(data, e);
     }
+
+    /**
+     * @return number of calls served so far
+     */
+    public long getCallCount() {
+      return callCount.sum() - initialCallCount;
+    }
   }
 
   public static class FastSerializerWithAvroGenericImpl<V> implements FastSerializer<V> {
     private final DatumWriter<V> datumWriter;
+    private final LongAdder callCount;
+    private final long initialCallCount;
+    private final CompileTrigger compileTrigger;
 
     public FastSerializerWithAvroGenericImpl(Schema schema) {
+      this(schema, null, new LongAdder());
+    }
+
+    FastSerializerWithAvroGenericImpl(Schema schema, CompileTrigger compileTrigger, LongAdder callCount) {
       this.datumWriter = new GenericDatumWriter<>(schema);
+      this.compileTrigger = compileTrigger;
+      this.callCount = callCount;
+      this.initialCallCount = callCount.sum();
     }
 
     @Override
     public void serialize(V data, Encoder e) throws IOException {
+      callCount.increment();
+      if (compileTrigger != null) {
+        compileTrigger.recordCall();
+      }
       datumWriter.write(data, e);
     }
+
+    /**
+     * @return number of calls served so far
+     */
+    public long getCallCount() {
+      return callCount.sum() - initialCallCount;
+    }
   }
 }
@@ -0,0 +1,70 @@
+package com.linkedin.avro.fastserde;
+
+import org.apache.avro.Schema;
+
+
+/**
+ * Receives {@link FastSerdeCache} lifecycle events, e.g. to publish them as metrics.
+ * See {@link FastSerdeCache#setListener(FastSerdeCacheListener)}.
+ *
+ * All methods have empty default implementations. Cache lookups are reported on the serialization hot path, and
+ * other events from compile threads, so implementations must be thread-safe, cheap and must not throw.
+ */
+public interface FastSerdeCacheListener {
+
+  enum CacheType {
+    SPECIFIC_DESERIALIZER, GENERIC_DESERIALIZER, SPECIFIC_SERIALIZER, GENERIC_SERIALIZER
+  }
+
+  /**
+   * A serializer or deserializer was found in the cache.
+   */
+  default void onCacheHit(CacheType cacheType) {
+  }
+
+  /**
+   * No serializer or deserializer was cached yet, a previously generated one is looked up, or a cold one (backed by
+   * vanilla avro) is cached until the fast one is generated.
+   */
+  default void onCacheMiss(CacheType cacheType) {
+  }
+
+  /**
+   * A batch of generated classes was compiled.
+   *
+   * @param classCount number of compiled classes
+   * @param compilationNanos time spent compiling them
+   */
+  default void onClassesCompiled(int classCount, long compilationNanos) {
+  }
+
+  /**
+   * A serializer or deserializer class was generated, compiled and loaded.
+   *
+   * @param classFullName generated class name
+   * @param codeGenerationNanos time spent generating its code
+   * @param classLoadingNanos time spent loading and instantiating it
+   * @param classSize size in bytes of its bytecode, nested classes included
+   */
+  default void onClassGenerated(String classFullName, long codeGenerationNanos, long classLoadingNanos,
+      int classSize) {
+  }
+
+  /**
+   * A fast serializer or deserializer could not be generated, vanilla avro is used instead.
+   *
+   * @param writerSchema writer schema, or schema of the serialized data
+   * @param readerSchema reader schema, or schema of the serialized data
+   * @param cause the failure
+   */
+  default void onFallback(CacheType cacheType, Schema writerSchema, Schema readerSchema, Throwable cause) {
+  }
+
+  /**
+   * A cold serializer or deserializer was replaced by the generated one.
+   *
+   * @param callCount number of calls the cold one served
+   */
+  default void onColdPathReplaced(CacheType cacheType, long callCount) {
+  }
+}
@@ -0,0 +1,75 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+
+/**
+ * Defines classes compiled in memory by {@link FastSerdeCompiler}. Its own classes are defined before delegating
+ * to the parent, so a stale class of the same name visible to the parent never shadows a freshly compiled one.
+ *
+ * Each generated serializer or deserializer gets its own loader, so its classes can be unloaded once it is evicted
+ * from {@link FastSerdeCache} and no longer referenced.
+ */
+class FastSerdeClassLoader extends ClassLoader {
+  private final Map<String, byte[]> classBytes;
+  private final File classesDir;
+
+  /**
+   * @param parent class loader resolving everything the generated classes depend on
+   * @param classBytes bytecode keyed by binary class name
+   */
+  FastSerdeClassLoader(ClassLoader parent, Map<String, byte[]> classBytes) {
+    this(parent, classBytes, null);
+  }
+
+  /**
+   * @param parent class loader resolving everything the generated classes depend on
+   * @param classBytes bytecode keyed by binary class name
+   * @param classesDir directory the nested classes of the given classes are read from when first used, may be null
+   */
+  FastSerdeClassLoader(ClassLoader parent, Map<String, byte[]> classBytes, File classesDir) {
+    super(parent);
+    this.classBytes = classBytes;
+    this.classesDir = classesDir;
+  }
+
+  @Override
+  protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    synchronized (getClassLoadingLock(name)) {
+      Class<?> clazz = findLoadedClass(name);
+      if (clazz == null) {
+        byte[] bytes = classBytes.get(name);
+        if (bytes == null) {
+          bytes = readNestedClass(name);
+        }
+        if (bytes == null) {
+          return super.loadClass(name, resolve);
+        }
+        clazz = defineClass(name, bytes, 0, bytes.length);
+      }
+      if (resolve) {
+        resolveClass(clazz);
+      }
+      return clazz;
+    }
+  }
+
+  private byte[] readNestedClass(String name) throws ClassNotFoundException {
+    int nestedSeparatorIndex = name.indexOf('$');
+    if (classesDir == null || nestedSeparatorIndex < 0 || !classBytes.containsKey(name.substring(0, nestedSeparatorIndex))) {
+      return null;
+    }
+    File classFile = new File(classesDir, name.replace('.', File.separatorChar) + ".class");
+    if (!classFile.isFile()) {
+      return null;
+    }
+    try {
+      return Files.readAllBytes(classFile.toPath());
+    } catch (IOException e) {
+      throw new ClassNotFoundException(name, e);
+    }
+  }
+}
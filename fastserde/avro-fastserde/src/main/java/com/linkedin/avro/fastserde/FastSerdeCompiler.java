@@ -0,0 +1,314 @@
+package com.linkedin.avro.fastserde;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JPackage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Compiles generated sources fully in memory. The {@link JavaCompiler} and its file manager are created once and
+ * reused, and so is the compile classpath inferred from the generated sources, so jars are only located, opened and
+ * indexed once instead of for every generated class.
+ *
+ * Compilations of an instance are serialized, since they share the file manager and its classpath. Each
+ * {@link FastSerdeCache} has its own instance, so caches don't wait for each other, and
+ * {@link #getDefaultInstance()} is only used by generators working outside of any cache.
+ *
+ * Any {@link JavaCompiler} implementation can be used, by default the system java compiler is picked, or if there
+ * is none (e.g. on JRE-only runtimes) the first one registered as a service, such as the Eclipse compiler (ecj).
+ * Generation still goes through java sources, so it takes a compiler run either way. Without any compiler, or
+ * without javax.tools at all as on runtimes linked without the java.compiler module, compilation fails with a
+ * {@link FastSerdeGeneratorException} and the caches keep using vanilla avro.
+ */
+final class FastSerdeCompiler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeCompiler.class);
+
+  private static volatile FastSerdeCompiler _DEFAULT_INSTANCE;
+
+  /**
+   * Null if there is no compiler on this runtime, see {@link #findJavaCompiler()}.
+   */
+  private final JavaCompiler compiler;
+  private final List<String> options;
+  private final StandardJavaFileManager standardFileManager;
+  /**
+   * Classes already looked up to infer the compile classpath, and the resulting classpath entries.
+   * Both only ever grow, a wider classpath than needed is harmless for compilation.
+   */
+  private final Set<String> resolvedClassNames = new HashSet<>();
+  private final Set<String> classPath = new LinkedHashSet<>();
+
+  FastSerdeCompiler(JavaCompiler compiler) {
+    this.compiler = compiler;
+    if (compiler == null) {
+      this.options = Collections.emptyList();
+      this.standardFileManager = null;
+      return;
+    }
+    /*
+     * Disable sharedNameTable in runtime complication
+     *
+     * The SharedNameTable was introduced to speed up Java complication by using soft references
+     * to avoid re-allocations. However, in fast-avro runtime compilation, sharedNameTable brings
+     * severe Memory and GC issue. When fast-avro needed to process a large number of different
+     * schemas, SharedNameTable objects will consume huge memory and cannot be freed.
+     *
+     * SharedNameTable should be disabled for runtime compilation by "-XDuseUnsharedTable" config.
+     * The memory issue by SharedNameTable does not exist in Java 11 (tested JDK-11_0_5-zulu
+     * and JDK-11_0_5-zing_19_12_100_0_1), thus the change can be reverted in java 11.
+     * Keeping this config also does not bring any downgrade.
+     *
+     * The option is javac specific, other compilers would reject it.
+     */
+    this.options = compiler.getClass().getName().startsWith("com.sun.tools.javac.")
+        ? Collections.singletonList("-XDuseUnsharedTable") : Collections.emptyList();
+    this.standardFileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+  }
+
+  static FastSerdeCompiler getDefaultInstance() {
+    if (_DEFAULT_INSTANCE == null) {
+      synchronized (FastSerdeCompiler.class) {
+        if (_DEFAULT_INSTANCE == null) {
+          _DEFAULT_INSTANCE = new FastSerdeCompiler(findJavaCompiler());
+        }
+      }
+    }
+    return _DEFAULT_INSTANCE;
+  }
+
+  /**
+   * @return the compiler to use on this runtime, see {@link #findJavaCompiler(JavaCompiler, ClassLoader)}, or null
+   *         if there is none
+   */
+  static JavaCompiler findJavaCompiler() {
+    JavaCompiler compiler;
+    try {
+      compiler = findJavaCompiler(ToolProvider.getSystemJavaCompiler(), Thread.currentThread().getContextClassLoader());
+    } catch (LinkageError e) {
+      LOGGER.warn("javax.tools is not available on this runtime, fast serializers and deserializers won't be generated", e);
+      return null;
+    }
+    if (compiler == null) {
+      /**
+       * If no compiler is found, it is very likely that the env setting: "JAVA_HOME" is not being setup properly,
+       * or the runtime is a JRE without any compiler on the classpath.
+       */
+      LOGGER.warn("Couldn't locate java compiler at runtime, fast serializers and deserializers won't be generated. "
+          + "Please double check your env setting for 'JAVA_HOME' ('java.home' is: {}), or add a "
+          + "javax.tools.JavaCompiler implementation such as ecj to the classpath", System.getProperty("java.home"));
+    }
+    return compiler;
+  }
+
+  /**
+   * @param systemCompiler system java compiler, may be null
+   * @param classLoader class loader to look the {@link JavaCompiler} services up with
+   * @return the system java compiler, or the first compiler registered as a service, or null if there is none
+   */
+  static JavaCompiler findJavaCompiler(JavaCompiler systemCompiler, ClassLoader classLoader) {
+    if (systemCompiler != null) {
+      return systemCompiler;
+    }
+    Iterator<JavaCompiler> compilers = ServiceLoader.load(JavaCompiler.class, classLoader).iterator();
+    if (compilers.hasNext()) {
+      JavaCompiler compiler = compilers.next();
+      LOGGER.info("System java compiler is not available, using: {}", compiler.getClass().getName());
+      return compiler;
+    }
+    return null;
+  }
+
+  /**
+   * @return false if there is no compiler on this runtime, in which case {@link #compile} always fails
+   */
+  boolean isAvailable() {
+    return compiler != null;
+  }
+
+  /**
+   * Renders all the classes of the given code model into java sources.
+   *
+   * @param codeModel code model to render
+   * @return java sources keyed by fully qualified class name
+   * @throws IOException on rendering issues
+   */
+  static Map<String, String> generateSources(JCodeModel codeModel) throws IOException {
+    Map<String, ByteArrayOutputStream> outputs = new LinkedHashMap<>();
+    codeModel.build(new CodeWriter() {
+      @Override
+      public OutputStream openBinary(JPackage pkg, String fileName) {
+        String className = fileName.substring(0, fileName.length() - JavaFileObject.Kind.SOURCE.extension.length());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        outputs.put(pkg.isUnnamed() ? className : pkg.name() + "." + className, output);
+        return output;
+      }
+
+      @Override
+      public void close() {
+      }
+    });
+
+    Map<String, String> sources = new LinkedHashMap<>();
+    // codemodel writes sources with the platform default encoding, escaping non-ascii characters
+    outputs.forEach((className, output) -> sources.put(className, new String(output.toByteArray(), Charset.defaultCharset())));
+    return sources;
+  }
+
+  /**
+   * @param sources java sources keyed by fully qualified class name
+   * @param compileClassPath extra compile classpath, may be empty
+   * @param knownUsedFullyQualifiedClassNameSet classes known to be used by the sources
+   * @return bytecode of the compiled classes, including nested ones, keyed by binary class name
+   */
+  synchronized Map<String, byte[]> compile(Map<String, String> sources, String compileClassPath,
+      Set<String> knownUsedFullyQualifiedClassNameSet) {
+    if (compiler == null) {
+      throw new FastSerdeGeneratorException("No java compiler available at runtime to compile: " + sources.keySet());
+    }
+    try {
+      updateClassPath(sources, compileClassPath, knownUsedFullyQualifiedClassNameSet);
+    } catch (IOException | ClassNotFoundException e) {
+      throw new FastSerdeGeneratorException("Unable to infer compile classpath for: " + sources.keySet(), e);
+    }
+
+    List<JavaFileObject> compilationUnits = new ArrayList<>(sources.size());
+    sources.forEach((className, source) -> compilationUnits.add(new SourceFileObject(className, source)));
+    ClassOutputFileManager fileManager = new ClassOutputFileManager(standardFileManager);
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+    boolean success;
+    try {
+      success = compiler.getTask(null, fileManager, diagnostics, options, null, compilationUnits).call();
+    } catch (Exception e) {
+      throw new FastSerdeGeneratorException("Unable to compile: " + sources.keySet(), e);
+    }
+
+    if (!success) {
+      String errors = diagnostics.getDiagnostics()
+          .stream()
+          .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+          .map(Object::toString)
+          .collect(Collectors.joining("\n"));
+      throw new FastSerdeGeneratorException("Unable to compile: " + sources.keySet() + ", errors:\n" + errors);
+    }
+    return fileManager.getClassBytes();
+  }
+
+  private void updateClassPath(Map<String, String> sources, String compileClassPath,
+      Set<String> knownUsedFullyQualifiedClassNameSet) throws IOException, ClassNotFoundException {
+    Set<String> usedFullyQualifiedClassNameSet = new HashSet<>(knownUsedFullyQualifiedClassNameSet);
+    for (String source : sources.values()) {
+      usedFullyQualifiedClassNameSet.addAll(Utils.getImportedClassNames(new BufferedReader(new StringReader(source))));
+    }
+
+    boolean changed = false;
+    if (compileClassPath != null && !compileClassPath.isEmpty()) {
+      for (String entry : compileClassPath.split(File.pathSeparator)) {
+        changed |= classPath.add(entry);
+      }
+    }
+    for (String requiredClass : usedFullyQualifiedClassNameSet) {
+      if (resolvedClassNames.add(requiredClass)) {
+        String libPath = Utils.getLibraryPath(requiredClass);
+        if (libPath != null) {
+          changed |= classPath.add(libPath);
+        }
+      }
+    }
+
+    if (changed) {
+      LOGGER.debug("Updated compile class path: {}", classPath);
+      standardFileManager.setLocation(StandardLocation.CLASS_PATH,
+          classPath.stream().map(File::new).collect(Collectors.toList()));
+    }
+  }
+
+  private static class SourceFileObject extends SimpleJavaFileObject {
+    private final String source;
+
+    SourceFileObject(String className, String source) {
+      super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+      this.source = source;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+  }
+
+  private static class ClassFileObject extends SimpleJavaFileObject {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    ClassFileObject(String className) {
+      super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+      return output;
+    }
+  }
+
+  /**
+   * Keeps the compiled classes in memory, everything else is delegated to the shared file manager.
+   */
+  private static class ClassOutputFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+    private final Map<String, ClassFileObject> classFiles = new HashMap<>();
+
+    ClassOutputFileManager(JavaFileManager fileManager) {
+      super(fileManager);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+        FileObject sibling) throws IOException {
+      if (location == StandardLocation.CLASS_OUTPUT && kind == JavaFileObject.Kind.CLASS) {
+        ClassFileObject classFile = new ClassFileObject(className);
+        classFiles.put(className, classFile);
+        return classFile;
+      }
+      return super.getJavaFileForOutput(location, className, kind, sibling);
+    }
+
+    Map<String, byte[]> getClassBytes() {
+      Map<String, byte[]> classBytes = new HashMap<>();
+      classFiles.forEach((className, classFile) -> classBytes.put(className, classFile.output.toByteArray()));
+      return classBytes;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.Collection;
+
+
+/**
+ * Provides fast serializer/deserializer classes generated ahead of time, e.g. at build time by
+ * {@link FastSerdeSourceGenerator}, so that {@link FastSerdeCache} can use them right away instead of generating and
+ * compiling them at runtime. Implementations are found with {@link java.util.ServiceLoader}.
+ */
+public interface FastSerdeRegistry {
+
+  /**
+   * @return {@link FastSerdeBase#GENERATOR_VERSION} the classes were generated with, registries generated by other
+   *         versions are ignored
+   */
+  int getGeneratorVersion();
+
+  /**
+   * @return fully qualified names of the provided classes, loadable by the class loader of this registry
+   */
+  Collection<String> getClassNames();
+}
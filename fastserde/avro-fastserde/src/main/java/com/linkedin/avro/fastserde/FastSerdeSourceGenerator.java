@@ -0,0 +1,126 @@
+package com.linkedin.avro.fastserde;
+
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.apache.avro.Schema;
+
+
+/**
+ * Generates the sources of fast serializers and deserializers ahead of time (e.g. at build time), along with a
+ * {@link FastSerdeRegistry} through which {@link FastSerdeCache} picks them up at runtime instead of generating them.
+ *
+ * Generated classes are specific to the avro major version they are generated with, {@link FastSerdeCache} ignores
+ * them when running with another one.
+ */
+public final class FastSerdeSourceGenerator {
+  public static final String REGISTRY_SERVICE_FILE = "META-INF/services/" + FastSerdeRegistry.class.getName();
+
+  private final Map<String, String> sources = new TreeMap<>();
+  private final Set<String> classNames = new TreeSet<>();
+
+  public void addSpecificDeserializer(Schema writerSchema, Schema readerSchema) {
+    FastSpecificDeserializerGenerator<?> generator =
+        new FastSpecificDeserializerGenerator<>(writerSchema, readerSchema, null, getClass().getClassLoader(), null);
+    add(generator, generator.generateDeserializerCode());
+  }
+
+  public void addGenericDeserializer(Schema writerSchema, Schema readerSchema) {
+    FastGenericDeserializerGenerator<?> generator =
+        new FastGenericDeserializerGenerator<>(writerSchema, readerSchema, null, getClass().getClassLoader(), null);
+    add(generator, generator.generateDeserializerCode());
+  }
+
+  public void addSpecificSerializer(Schema schema) {
+    FastSpecificSerializerGenerator<?> generator =
+        new FastSpecificSerializerGenerator<>(schema, null, getClass().getClassLoader(), null);
+    add(generator, generator.generateSerializerCode());
+  }
+
+  public void addGenericSerializer(Schema schema) {
+    FastGenericSerializerGenerator<?> generator =
+        new FastGenericSerializerGenerator<>(schema, null, getClass().getClassLoader(), null);
+    add(generator, generator.generateSerializerCode());
+  }
+
+  private void add(FastSerdeBase generator, String className) {
+    classNames.add(generator.getClassFullName(className));
+    try {
+      sources.putAll(generator.generateSources());
+    } catch (IOException e) {
+      throw new FastSerdeGeneratorException("Unable to generate sources for: " + className, e);
+    }
+  }
+
+  /**
+   * @return fully qualified name of the registry of the classes added so far
+   */
+  public String getRegistryClassName() {
+    return FastSerdeBase.getGeneratedPackageName("registry") + ".FastSerdeRegistry_" + Math.abs(classNames.hashCode());
+  }
+
+  /**
+   * @return sources of the classes added so far and of their registry, keyed by fully qualified class name
+   */
+  public Map<String, String> getSources() {
+    Map<String, String> allSources = new TreeMap<>(sources);
+    allSources.putAll(generateRegistrySources());
+    return Collections.unmodifiableMap(allSources);
+  }
+
+  /**
+   * Writes the generated sources, and the {@value #REGISTRY_SERVICE_FILE} file registering them.
+   *
+   * @param sourcesDir root directory for java sources
+   * @param resourcesDir root directory for resources
+   * @throws IOException on io issues
+   */
+  public void writeTo(File sourcesDir, File resourcesDir) throws IOException {
+    for (Map.Entry<String, String> source : getSources().entrySet()) {
+      File sourceFile = new File(sourcesDir, source.getKey().replace('.', File.separatorChar) + ".java");
+      Files.createDirectories(sourceFile.getParentFile().toPath());
+      Files.write(sourceFile.toPath(), source.getValue().getBytes(StandardCharsets.UTF_8));
+    }
+    File serviceFile = new File(resourcesDir, REGISTRY_SERVICE_FILE.replace('/', File.separatorChar));
+    Files.createDirectories(serviceFile.getParentFile().toPath());
+    Files.write(serviceFile.toPath(), (getRegistryClassName() + "\n").getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Map<String, String> generateRegistrySources() {
+    JCodeModel codeModel = new JCodeModel();
+    try {
+      JDefinedClass registryClass = codeModel._class(getRegistryClassName());
+      registryClass._implements(FastSerdeRegistry.class);
+
+      JMethod generatorVersionMethod = registryClass.method(JMod.PUBLIC, codeModel.INT, "getGeneratorVersion");
+      generatorVersionMethod.body()._return(JExpr.lit(FastSerdeBase.GENERATOR_VERSION));
+
+      JMethod classNamesMethod =
+          registryClass.method(JMod.PUBLIC, codeModel.ref(Collection.class).narrow(String.class), "getClassNames");
+      JInvocation classNamesList = codeModel.ref(Arrays.class).staticInvoke("asList");
+      for (String className : classNames) {
+        classNamesList.arg(JExpr.lit(className));
+      }
+      classNamesMethod.body()._return(classNamesList);
+
+      return FastSerdeCompiler.generateSources(codeModel);
+    } catch (JClassAlreadyExistsException | IOException e) {
+      throw new FastSerdeGeneratorException("Unable to generate registry: " + getRegistryClassName(), e);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.FastSerdeCacheListener.CacheType;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.linkedin.avroutil1.compatibility.AvscGenerationConfig;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.avro.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Records which serializers and deserializers a {@link FastSerdeCache} serves, and how many calls they served before
+ * being generated, so that the next run can generate them ahead of their first use, most used first, see
+ * {@link FastSerdeCache#prewarm(File, long)}.
+ *
+ * The manifest is a text file with one line per serializer or deserializer: cache type, usage count, writer schema
+ * and reader schema, separated by tabs. Schemas are written as single line json, which never contains tabs.
+ */
+final class FastSerdeUsageManifest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeUsageManifest.class);
+  private static final String SEPARATOR = "\t";
+
+  private final Map<CacheType, Map<Object, Usage>> usages = new EnumMap<>(CacheType.class);
+
+  FastSerdeUsageManifest() {
+    for (CacheType cacheType : CacheType.values()) {
+      usages.put(cacheType, new FastAvroConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Records that a serializer or deserializer is used, which is cheap once recorded: its calls are not counted here
+   * but by the cold path, through the returned counter.
+   *
+   * @param schemaKey key identifying the writer and reader schemas
+   * @return counter of the calls to the serializer or deserializer
+   */
+  LongAdder recordUsage(CacheType cacheType, Object schemaKey, Schema writerSchema, Schema readerSchema) {
+    return usages.get(cacheType).computeIfAbsent(schemaKey, k -> new Usage(cacheType, writerSchema, readerSchema, 0))
+        .count;
+  }
+
+  /**
+   * Writes the recorded usages, most used first. The file is replaced atomically.
+   */
+  void write(File manifest) throws IOException {
+    // snapshot the counts, which keep changing while sorting
+    List<Usage> sortedUsages = new ArrayList<>();
+    usages.values().forEach(cacheUsages -> cacheUsages.values().forEach(usage -> sortedUsages.add(
+        new Usage(usage.cacheType, usage.writerSchema, usage.readerSchema, usage.getCount()))));
+    sortedUsages.sort(Comparator.comparingLong(Usage::getCount).reversed());
+
+    Path manifestPath = manifest.toPath().toAbsolutePath();
+    Files.createDirectories(manifestPath.getParent());
+    Path tempFile = Files.createTempFile(manifestPath.getParent(), manifestPath.getFileName().toString(), ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        for (Usage usage : sortedUsages) {
+          writer.write(usage.cacheType.name() + SEPARATOR + usage.getCount() + SEPARATOR + toJson(usage.writerSchema)
+              + SEPARATOR + toJson(usage.readerSchema));
+          writer.newLine();
+        }
+      }
+      Files.move(tempFile, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * @return the usages listed in the given manifest, most used first. Lines which can't be parsed are skipped.
+   */
+  static List<Usage> read(File manifest) throws IOException {
+    List<Usage> usages = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] fields = line.split(SEPARATOR);
+        try {
+          if (fields.length != 4) {
+            throw new IllegalArgumentException("expected 4 fields, found " + fields.length);
+          }
+          usages.add(new Usage(CacheType.valueOf(fields[0]), AvroCompatibilityHelper.parse(fields[2]),
+              AvroCompatibilityHelper.parse(fields[3]), Long.parseLong(fields[1])));
+        } catch (RuntimeException e) {
+          LOGGER.warn("Skipping invalid line of fast serde usage manifest: {}", manifest, e);
+        }
+      }
+    }
+    usages.sort(Comparator.comparingLong(Usage::getCount).reversed());
+    return usages;
+  }
+
+  private static String toJson(Schema schema) {
+    return AvroCompatibilityHelper.toAvsc(schema, AvscGenerationConfig.CORRECT_ONELINE);
+  }
+
+  static final class Usage {
+    final CacheType cacheType;
+    final Schema writerSchema;
+    final Schema readerSchema;
+    private final LongAdder count = new LongAdder();
+
+    Usage(CacheType cacheType, Schema writerSchema, Schema readerSchema, long count) {
+      this.cacheType = cacheType;
+      this.writerSchema = writerSchema;
+      this.readerSchema = readerSchema;
+      this.count.add(count);
+    }
+
+    long getCount() {
+      return count.sum();
+    }
+  }
+}
@@ -1,10 +1,34 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.Encoder;
 
 
 public interface FastSerializer<T> {
 
   void serialize(T data, Encoder e) throws IOException;
+
+  /**
+   * Serializes a batch of values, with a single encoder and output buffer reused for all of them.
+   *
+   * @param data values to serialize
+   * @return the binary encoded values, in the order of the given values
+   */
+  default List<byte[]> serializeBatch(List<? extends T> data) throws IOException {
+    List<byte[]> results = new ArrayList<>(data.size());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, null);
+    for (T datum : data) {
+      out.reset();
+      serialize(datum, encoder);
+      encoder.flush();
+      results.add(out.toByteArray());
+    }
+    return results;
+  }
 }
@@ -11,15 +11,23 @@ import com.sun.codemodel.JForEach;
 import com.sun.codemodel.JForLoop;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
 import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JVar;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.Encoder;
+import org.apache.avro.specific.SpecificData;
 import org.apache.avro.util.Utf8;
 import org.apache.commons.lang3.StringUtils;
 
@@ -27,6 +35,7 @@ import org.apache.commons.lang3.StringUtils;
 public class FastSerializerGenerator<T> extends FastSerdeBase {
 
   private static final String ENCODER = "encoder";
+  protected static final String DESCRIPTION = "serialization";
   protected final Schema schema;
 
   private final Map<String, JMethod> serializeMethodMap = new HashMap<>();
@@ -35,26 +44,59 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
    * Enum schema mapping for Avro-1.4 to record schema id and corresponding schema JVar.
    */
   private final Map<Integer, JVar> enumSchemaVarMap = new HashMap<>();
+  /**
+   * Named schemas, by full name, resolved from the schema the serializer is instantiated with.
+   */
+  private final Map<String, JVar> namedSchemaVarMap = new HashMap<>();
+  private JVar specificDataVar;
+  private JVar encodedStringCacheVar;
+  private JMethod constructor;
+  private JVar schemaVar;
 
 
   public FastSerializerGenerator(boolean useGenericTypes, Schema schema, File destination, ClassLoader classLoader,
       String compileClassPath) {
-    super("serialization", useGenericTypes, CharSequence.class, destination, classLoader, compileClassPath, true);
+    super(DESCRIPTION, useGenericTypes, CharSequence.class, destination, classLoader, compileClassPath, true);
     this.schema = schema;
   }
 
   public static String getClassName(Schema schema, String description) {
-    int schemaId = Math.abs(Utils.getSchemaFingerprint(schema));
+    String schemaId = Long.toHexString(Utils.getSchemaFingerprint64(schema));
     String typeName = SchemaAssistant.getTypeName(schema);
     return typeName + SEP + description + "Serializer" + SEP + schemaId;
   }
 
+  public static String getClassFullName(Schema schema, String description) {
+    return getGeneratedPackageName(DESCRIPTION) + "." + getClassName(schema, description);
+  }
+
   public FastSerializer<T> generateSerializer() {
+    final String className = generateSerializerCode();
+    try {
+      final Class<?> clazz = compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
+      return newSerializer(clazz);
+    } catch (FastSerdeGeneratorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FastSerdeGeneratorException(e);
+    }
+  }
+
+  /**
+   * Generates the code of the serializer class, without compiling it.
+   *
+   * @return name of the generated class
+   */
+  String generateSerializerCode() {
     final String className = getClassName(schema, useGenericTypes ? "Generic" : "Specific");
     final JPackage classPackage = codeModel._package(generatedPackageName);
 
     try {
       generatedClass = classPackage._class(className);
+      schemaVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, Schema.class, "schema");
+      constructor = generatedClass.constructor(JMod.PUBLIC);
+      JVar constructorParam = constructor.param(Schema.class, "schema");
+      constructor.body().assign(JExpr.refthis(schemaVar.name()), constructorParam);
 
       final JMethod serializeMethod = generatedClass.method(JMod.PUBLIC, void.class, "serialize");
       final JVar serializeMethodParam;
@@ -65,7 +107,7 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
 
       switch (schema.getType()) {
         case RECORD:
-          processRecord(schema, serializeMethodParam, serializeMethod.body());
+          processRecord(schema, serializeMethodParam, serializeMethod.body(), false);
           break;
         case ARRAY:
           processArray(schema, serializeMethodParam, serializeMethod.body());
@@ -73,22 +115,70 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
         case MAP:
           processMap(schema, serializeMethodParam, serializeMethod.body());
           break;
+        case UNION:
+          processUnion(schema, serializeMethodParam, serializeMethod.body());
+          break;
         default:
-          throw new FastSerdeGeneratorException("Unsupported input schema type: " + schema.getType());
+          if (isConvertingLogicalType(schema)) {
+            throw new FastSerdeGeneratorException("Top-level logical types are not supported: " + schema);
+          }
+          processSimpleType(schema, serializeMethodParam, serializeMethod.body());
+          break;
       }
 
       serializeMethod.param(codeModel.ref(Encoder.class), ENCODER);
       serializeMethod._throws(codeModel.ref(IOException.class));
-
-      final Class<FastSerializer<T>> clazz = compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
-      return clazz.newInstance();
+      generateSerializeBatchMethod(outputClass);
+      declareDirectAccessMembers();
+      return className;
     } catch (JClassAlreadyExistsException e) {
       throw new FastSerdeGeneratorException("Class: " + className + " already exists");
+    } catch (FastSerdeGeneratorException e) {
+      throw e;
     } catch (Exception e) {
       throw new FastSerdeGeneratorException(e);
     }
   }
 
+  /**
+   * Overrides {@link FastSerializer#serializeBatch} with the same loop, so that the call to serialize is made on the
+   * generated class itself, instead of on whichever serializer the shared default method last saw.
+   */
+  private void generateSerializeBatchMethod(JClass outputClass) {
+    JClass resultsClass = codeModel.ref(List.class).narrow(codeModel.BYTE.array());
+    JMethod batchMethod = generatedClass.method(JMod.PUBLIC, resultsClass, "serializeBatch");
+    JVar dataParam = batchMethod.param(codeModel.ref(List.class).narrow(outputClass.wildcard()), "data");
+    batchMethod._throws(codeModel.ref(IOException.class));
+
+    JBlock body = batchMethod.body();
+    JVar resultsVar = body.decl(resultsClass, "results",
+        JExpr._new(codeModel.ref(ArrayList.class).narrow(codeModel.BYTE.array())).arg(dataParam.invoke("size")));
+    JVar outVar = body.decl(codeModel.ref(ByteArrayOutputStream.class), "out",
+        JExpr._new(codeModel.ref(ByteArrayOutputStream.class)));
+    JVar encoderVar = body.decl(codeModel.ref(BinaryEncoder.class), ENCODER,
+        codeModel.ref(AvroCompatibilityHelper.class).staticInvoke("newBinaryEncoder")
+            .arg(outVar).arg(JExpr.TRUE).arg(JExpr._null()));
+    JForEach forEach = body.forEach(outputClass, "datum", dataParam);
+    forEach.body().add(outVar.invoke("reset"));
+    forEach.body().add(JExpr.invoke("serialize").arg(forEach.var()).arg(encoderVar));
+    forEach.body().add(encoderVar.invoke("flush"));
+    forEach.body().add(resultsVar.invoke("add").arg(outVar.invoke("toByteArray")));
+    body._return(resultsVar);
+  }
+
+  /**
+   * @param clazz compiled serializer class
+   * @return a new instance of the serializer
+   */
+  @SuppressWarnings("unchecked")
+  FastSerializer<T> newSerializer(Class<?> clazz) {
+    try {
+      return (FastSerializer<T>) clazz.getConstructor(Schema.class).newInstance(schema);
+    } catch (ReflectiveOperationException e) {
+      throw new FastSerdeGeneratorException(e);
+    }
+  }
+
   private void processComplexType(Schema schema, JExpression valueExpr, JBlock body) {
     switch (schema.getType()) {
       case RECORD:
@@ -113,6 +203,18 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
   }
 
   private void processSimpleType(Schema schema, JExpression valueExpression, JBlock body, boolean cast) {
+    if (isConvertingLogicalType(schema)) {
+      LogicalTypeVars logicalTypeVars = declareLogicalTypeVars(schema);
+      JVar logicalValue = body.decl(codeModel.ref(Object.class), getUniqueName("logicalValue"), valueExpression);
+      valueExpression = body.decl(codeModel.ref(Object.class), getUniqueName("rawValue"),
+          JOp.cond(logicalTypeVars.conversionVar.eq(JExpr._null()), logicalValue,
+              codeModel.ref(CONVERSIONS_CLASS_NAME).staticInvoke("convertToRawType")
+                  .arg(logicalValue)
+                  .arg(logicalTypeVars.schemaVar)
+                  .arg(logicalTypeVars.schemaVar.invoke("getLogicalType"))
+                  .arg(logicalTypeVars.conversionVar)));
+      cast = true;
+    }
     switch (schema.getType()) {
       case ENUM:
         processEnum(schema, valueExpression, body);
@@ -126,33 +228,137 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     }
   }
 
+  /**
+   * Logical type conversions are looked up in the {@link SpecificData} of the serialized schema,
+   * just like the vanilla specific writer does.
+   */
+  private LogicalTypeVars declareLogicalTypeVars(Schema logicalTypeSchema) {
+    if (specificDataVar == null) {
+      JExpression specificData = Schema.Type.RECORD.equals(schema.getType())
+          ? codeModel.ref(SpecificData.class).staticInvoke("getForSchema")
+              .arg(schemaAssistant.classFromSchema(schema).staticRef("SCHEMA$"))
+          : codeModel.ref(SpecificData.class).staticInvoke("get");
+      specificDataVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, SpecificData.class,
+          getUniqueName("specificData"), specificData);
+    }
+    return declareLogicalTypeVars(logicalTypeSchema, generatedClass.instanceInit(), specificDataVar);
+  }
+
   private void processRecord(final Schema recordSchema, JExpression recordExpr, final JBlock containerBody) {
+    processRecord(recordSchema, recordExpr, containerBody, true);
+  }
+
+  /**
+   * @param nested true if the record is written as part of another value, in which case it may be an
+   *               {@link ImmutableGenericRecord}, whose encoded bytes are reused
+   */
+  private void processRecord(final Schema recordSchema, JExpression recordExpr, final JBlock containerBody,
+      boolean nested) {
     if (methodAlreadyDefined(recordSchema)) {
-      containerBody.invoke(getMethod(recordSchema)).arg(recordExpr).arg(JExpr.direct(ENCODER));
+      invokeRecordMethod(recordSchema, recordExpr, containerBody, nested);
       return;
     }
     JMethod method = createMethod(recordSchema);
-    containerBody.invoke(getMethod(recordSchema)).arg(recordExpr).arg(JExpr.direct(ENCODER));
+    invokeRecordMethod(recordSchema, recordExpr, containerBody, nested);
 
     JBlock body = method.body();
     recordExpr = method.listParams()[0];
+    Class<?> recordClass = useGenericTypes ? null : loadSpecificClass(recordSchema);
 
     for (Schema.Field field : recordSchema.getFields()) {
       Schema fieldSchema = field.schema();
-      if (SchemaAssistant.isComplexType(fieldSchema)) {
+      JExpression directFieldExpression = recordClass == null || isConvertingLogicalType(fieldSchema)
+          ? null : directFieldAccess(recordClass, field, recordExpr);
+      if (directFieldExpression != null && SchemaAssistant.isPrimitive(fieldSchema)) {
+        // primitive fields are written as they are, without being boxed
+        processSimpleType(fieldSchema, directFieldExpression, body, false);
+      } else if (isConvertingLogicalType(fieldSchema) && Schema.Type.UNION.equals(fieldSchema.getType())) {
+        // the specific record holds a union of converted logical type values, which the raw types don't describe
+        JVar containerVar = body.decl(codeModel.ref(Object.class), getUniqueName(field.name()),
+            JExpr.invoke(recordExpr, "get").arg(JExpr.lit(field.pos())));
+        processComplexType(fieldSchema, containerVar, body);
+      } else if (SchemaAssistant.isComplexType(fieldSchema)) {
         JClass fieldClass = schemaAssistant.classFromSchema(fieldSchema);
         JVar containerVar = declareValueVar(field.name(), fieldSchema, body);
-        JExpression valueExpression = JExpr.invoke(recordExpr, "get").arg(JExpr.lit(field.pos()));
+        JExpression valueExpression = directFieldExpression != null
+            ? directFieldExpression : JExpr.invoke(recordExpr, "get").arg(JExpr.lit(field.pos()));
         containerVar.init(JExpr.cast(fieldClass, valueExpression));
 
         processComplexType(fieldSchema, containerVar, body);
       } else {
-        processSimpleType(fieldSchema, recordExpr.invoke("get").arg(JExpr.lit(field.pos())), body);
+        processSimpleType(fieldSchema, directFieldExpression != null
+            ? directFieldExpression : recordExpr.invoke("get").arg(JExpr.lit(field.pos())), body);
       }
     }
   }
 
+  private void invokeRecordMethod(final Schema recordSchema, JExpression recordExpr, JBlock containerBody,
+      boolean nested) {
+    JMethod method = getMethod(recordSchema);
+    if (!useGenericTypes || !nested) {
+      containerBody.invoke(method).arg(recordExpr).arg(JExpr.direct(ENCODER));
+      return;
+    }
+    JClass immutableRecordClass = codeModel.ref(ImmutableGenericRecord.class);
+    JConditional immutableRecordIf = containerBody._if(recordExpr._instanceof(immutableRecordClass)
+        .cand(JExpr.direct(ENCODER)._instanceof(codeModel.ref(BinaryEncoder.class))));
+    JBlock immutableRecordBlock = immutableRecordIf._then();
+    JVar immutableRecordVar = immutableRecordBlock.decl(immutableRecordClass, getUniqueName("immutableRecord"),
+        JExpr.cast(immutableRecordClass, recordExpr));
+    JVar recordSchemaVar = declareNamedSchemaVar(recordSchema);
+    JVar encodedRecordVar = immutableRecordBlock.decl(codeModel.BYTE.array(), getUniqueName("encodedRecord"),
+        immutableRecordVar.invoke("getEncoded").arg(recordSchemaVar));
+    JBlock encodingBlock = immutableRecordBlock._if(encodedRecordVar.eq(JExpr._null()))._then();
+    JClass encodingClass = codeModel.ref(ImmutableGenericRecord.Encoding.class);
+    JVar encodingVar = encodingBlock.decl(encodingClass, getUniqueName("encoding"), JExpr._new(encodingClass));
+    encodingBlock.invoke(method).arg(immutableRecordVar).arg(encodingVar.invoke("getEncoder"));
+    encodingBlock.assign(encodedRecordVar,
+        immutableRecordVar.invoke("setEncoded").arg(recordSchemaVar).arg(encodingVar.invoke("toByteArray")));
+    // the encoded record is copied as it is
+    immutableRecordBlock.invoke(JExpr.direct(ENCODER), "writeFixed")
+        .arg(encodedRecordVar).arg(JExpr.lit(0)).arg(encodedRecordVar.ref("length"));
+    immutableRecordIf._else().invoke(method).arg(recordExpr).arg(JExpr.direct(ENCODER));
+  }
+
+  /**
+   * Specific record fields are read through {@link org.apache.avro.generic.IndexedRecord#get(int)} by default, which
+   * boxes primitive values and may convert the value held by the record (e.g. the string collections of the records
+   * generated by avro-builder). This looks for a way to read the field directly instead:
+   * <ul>
+   *   <li>a public field, of the primitive type matching the schema, or of any type if the values of the schema
+   *   can't hold strings, which get(int) might convert,</li>
+   *   <li>a public getter named after the field, returning the primitive type matching the schema.</li>
+   * </ul>
+   *
+   * @return expression reading the field directly, or null if get(int) must be used
+   */
+  private JExpression directFieldAccess(Class<?> recordClass, Schema.Field field, JExpression recordExpr) {
+    Class<?> primitiveClass = primitiveClassOf(field.schema());
+    Field javaField = findPublicField(recordClass, field.name());
+    if (javaField != null && (javaField.getType().isPrimitive()
+        ? javaField.getType().equals(primitiveClass)
+        : primitiveClass == null && !SchemaAssistant.containsString(field.schema()))) {
+      addDirectAccessMember(recordClass, javaField, false);
+      return recordExpr.ref(javaField.getName());
+    }
+    if (primitiveClass != null) {
+      try {
+        Method getter = recordClass.getMethod("get" + StringUtils.capitalize(field.name()));
+        if (!Modifier.isStatic(getter.getModifiers()) && getter.getReturnType().equals(primitiveClass)) {
+          addDirectAccessMember(recordClass, getter);
+          return recordExpr.invoke(getter.getName());
+        }
+      } catch (NoSuchMethodException e) {
+        // no getter
+      }
+    }
+    return null;
+  }
+
   private void processArray(final Schema arraySchema, JExpression arrayExpr, JBlock body) {
+    if (isConvertingLogicalType(arraySchema.getElementType())) {
+      throw new FastSerdeGeneratorException("Arrays of logical types are not supported: " + arraySchema);
+    }
     final JClass arrayClass = schemaAssistant.classFromSchema(arraySchema);
     body.invoke(JExpr.direct(ENCODER), "writeArrayStart");
 
@@ -199,6 +405,9 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
   }
 
   private void processMap(final Schema mapSchema, JExpression mapExpr, JBlock body) {
+    if (isConvertingLogicalType(mapSchema.getValueType())) {
+      throw new FastSerdeGeneratorException("Maps of logical types are not supported: " + mapSchema);
+    }
     final JClass mapClass = schemaAssistant.classFromSchema(mapSchema);
     JClass keyClass = schemaAssistant.findStringClass(mapSchema);
 
@@ -212,34 +421,62 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     final JBlock nonEmptyMapBlock = emptyMapIf._else();
     nonEmptyMapBlock.invoke(JExpr.direct(ENCODER), "setItemCount").arg(JExpr.invoke(mapExpr, "size"));
 
-    final JForEach mapKeysLoop = nonEmptyMapBlock.forEach(keyClass, getUniqueName("key"),
-        JExpr.invoke(JExpr.cast(mapClass, mapExpr), "keySet"));
+    JBlock entrySetBlock = nonEmptyMapBlock;
+    if (SchemaAssistant.hasCompactMapProp(mapSchema) && !SchemaAssistant.hasStringableKey(mapSchema)) {
+      // the compact maps produced by the deserializers are iterated over their slots, without any entry object
+      JClass compactMapClass = codeModel.ref(CompactUtf8Map.class);
+      JConditional compactMapIf = nonEmptyMapBlock._if(mapExpr._instanceof(compactMapClass));
+      JBlock compactMapBlock = compactMapIf._then();
+      JVar compactMapVar = compactMapBlock.decl(compactMapClass, getUniqueName("compactMap"),
+          JExpr.cast(compactMapClass, mapExpr));
+      JForLoop slotsLoop = compactMapBlock._for();
+      JVar slotVar = slotsLoop.init(codeModel.INT, getUniqueName("slot"),
+          compactMapVar.invoke("nextSlot").arg(JExpr.lit(0)));
+      slotsLoop.test(slotVar.gte(JExpr.lit(0)));
+      slotsLoop.update(JExpr.assign(slotVar, compactMapVar.invoke("nextSlot").arg(slotVar.plus(JExpr.lit(1)))));
+      processMapEntry(mapSchema, codeModel.ref(Utf8.class), compactMapVar.invoke("keyAt").arg(slotVar),
+          compactMapVar.invoke("valueAt").arg(slotVar), slotsLoop.body());
+      entrySetBlock = compactMapIf._else();
+    }
+
+    List<JClass> entryTypeParameters = mapClass.getTypeParameters();
+    JClass entryClass = entryTypeParameters.isEmpty()
+        ? codeModel.ref(Map.Entry.class) : codeModel.ref(Map.Entry.class).narrow(entryTypeParameters);
+    final JForEach mapEntriesLoop = entrySetBlock.forEach(entryClass, getUniqueName("entry"),
+        JExpr.invoke(JExpr.cast(mapClass, mapExpr), "entrySet"));
+    processMapEntry(mapSchema, keyClass, mapEntriesLoop.var().invoke("getKey"),
+        mapEntriesLoop.var().invoke("getValue"), mapEntriesLoop.body());
+    body.invoke(JExpr.direct(ENCODER), "writeMapEnd");
+  }
 
-    final JBlock forBody = mapKeysLoop.body();
+  private void processMapEntry(final Schema mapSchema, JClass keyClass, JExpression keyExpr, JExpression valueExpr,
+      JBlock forBody) {
     forBody.invoke(JExpr.direct(ENCODER), "startItem");
 
-    JVar keyStringVar;
+    JVar keyVar = forBody.decl(keyClass, getUniqueName("key"), JExpr.cast(keyClass, keyExpr));
     if (SchemaAssistant.hasStringableKey(mapSchema)) {
-      keyStringVar =
-          forBody.decl(codeModel.ref(String.class), getUniqueName("keyString"), mapKeysLoop.var().invoke("toString"));
+      forBody.invoke(JExpr.direct(ENCODER), "writeString").arg(keyVar.invoke("toString"));
+    } else if (SchemaAssistant.hasCachedEncodingProp(mapSchema) && !keyClass.equals(codeModel.ref(Utf8.class))) {
+      forBody.invoke(declareEncodedStringCacheVar(), "writeString").arg(keyVar).arg(JExpr.direct(ENCODER));
+    } else if (keyClass.equals(codeModel.ref(String.class)) || keyClass.equals(codeModel.ref(Utf8.class))) {
+      forBody.invoke(JExpr.direct(ENCODER), "writeString").arg(keyVar);
     } else {
-      keyStringVar = mapKeysLoop.var();
+      // Utf8 keys are written straight from their bytes
+      JConditional utf8KeyCheck = forBody._if(keyVar._instanceof(codeModel.ref(Utf8.class)));
+      utf8KeyCheck._then().invoke(JExpr.direct(ENCODER), "writeString")
+          .arg(JExpr.cast(codeModel.ref(Utf8.class), keyVar));
+      utf8KeyCheck._else().invoke(JExpr.direct(ENCODER), "writeString").arg(keyVar.invoke("toString"));
     }
 
     final Schema valueSchema = mapSchema.getValueType();
-
-    forBody.invoke(JExpr.direct(ENCODER), "writeString").arg(keyStringVar);
-
-    JVar containerVar;
     if (SchemaAssistant.isComplexType(valueSchema)) {
-      containerVar = declareValueVar(valueSchema.getName(), valueSchema, forBody);
-      forBody.assign(containerVar, JExpr.invoke(JExpr.cast(mapClass, mapExpr), "get").arg(mapKeysLoop.var()));
+      JVar containerVar = declareValueVar(valueSchema.getName(), valueSchema, forBody);
+      forBody.assign(containerVar, JExpr.cast(schemaAssistant.classFromSchema(valueSchema), valueExpr));
 
       processComplexType(valueSchema, containerVar, forBody);
     } else {
-      processSimpleType(valueSchema, mapExpr.invoke("get").arg(mapKeysLoop.var()), forBody);
+      processSimpleType(valueSchema, valueExpr, forBody);
     }
-    body.invoke(JExpr.direct(ENCODER), "writeMapEnd");
   }
 
   /**
@@ -266,6 +503,20 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     throw new RuntimeException("Unknown schema: " + schema + " in union schema: " + unionSchema);
   }
 
+  /**
+   * @return field holding the given named schema, as found in the schema the serializer is instantiated with
+   */
+  private JVar declareNamedSchemaVar(Schema namedSchema) {
+    String fullName = AvroCompatibilityHelper.getSchemaFullName(namedSchema);
+    return namedSchemaVarMap.computeIfAbsent(fullName, name -> {
+      JVar namedSchemaVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, Schema.class,
+          getUniqueName(namedSchema.getName() + "Schema"));
+      constructor.body().assign(JExpr.refthis(namedSchemaVar.name()),
+          codeModel.ref(Utils.class).staticInvoke("findNamedSchema").arg(schemaVar).arg(JExpr.lit(name)));
+      return namedSchemaVar;
+    });
+  }
+
   private void processUnion(final Schema unionSchema, JExpression unionExpr, JBlock body) {
     JConditional ifBlock = null;
 
@@ -304,10 +555,21 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
        * both of them have associated 'Schema', so the serializer could recognize the right type
        * by checking the associated 'Schema' in generic mode.
        */
-      if (useGenericTypes && SchemaAssistant.isNamedTypeWithSchema(schemaOption)) {
-        condition = unionExpr._instanceof(rawOptionClass).cand(JExpr.invoke(JExpr.lit(AvroCompatibilityHelper.getSchemaFullName(schemaOption)), "equals")
+      if (isConvertingLogicalType(schemaOption)) {
+        // converted values are recognized by the type the conversion produces, if any is registered
+        JVar conversionVar = declareLogicalTypeVars(schemaOption).conversionVar;
+        condition = JOp.cond(conversionVar.eq(JExpr._null()), unionExpr._instanceof(rawOptionClass),
+            conversionVar.invoke("getConvertedType").invoke("isInstance").arg(unionExpr));
+      } else if (useGenericTypes && SchemaAssistant.isNamedTypeWithSchema(schemaOption)) {
+        /*
+         * The values are usually built with the very schema instances the serializer was instantiated with, which are
+         * recognized by reference, before falling back to comparing the full names.
+         */
+        JExpression optionSchemaExpr = JExpr.invoke(JExpr.cast(optionClass, unionExpr), "getSchema");
+        condition = unionExpr._instanceof(rawOptionClass).cand(optionSchemaExpr.eq(declareNamedSchemaVar(schemaOption))
+            .cor(JExpr.invoke(JExpr.lit(AvroCompatibilityHelper.getSchemaFullName(schemaOption)), "equals")
             /* TODO: Replace by {@link AvroCompatibilityHelper#getSchemaFullName} */
-            .arg(JExpr.invoke(JExpr.cast(optionClass, unionExpr), "getSchema").invoke("getFullName")));
+            .arg(optionSchemaExpr.invoke("getFullName"))));
       } else {
         if (unionExpr instanceof JVar && ((JVar)unionExpr).type().equals(rawOptionClass)) {
           condition = null;
@@ -384,6 +646,9 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
       } else {
         body.invoke(encodeVar, writeFunction).arg(primitiveValueExpression.invoke("toString"));
       }
+    } else if (SchemaAssistant.hasCachedEncodingProp(primitiveSchema)) {
+      body.invoke(declareEncodedStringCacheVar(), writeFunction)
+          .arg(JExpr.cast(codeModel.ref(CharSequence.class), primitiveValueExpression)).arg(encodeVar);
     } else {
       JConditional stringTypeCheck = body._if(primitiveValueExpression._instanceof(codeModel.ref(Utf8.class)));
       stringTypeCheck._then()
@@ -393,6 +658,14 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     }
   }
 
+  private JVar declareEncodedStringCacheVar() {
+    if (encodedStringCacheVar == null) {
+      encodedStringCacheVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, EncodedStringCache.class,
+          getUniqueName("encodedStrings"), JExpr._new(codeModel.ref(EncodedStringCache.class)));
+    }
+    return encodedStringCacheVar;
+  }
+
   private void processPrimitive(final Schema primitiveSchema, JExpression primitiveValueExpression, JBlock body, boolean cast) {
     String writeFunction;
     JClass primitiveClass = schemaAssistant.classFromSchema(primitiveSchema);
@@ -41,4 +41,9 @@ public class FastSpecificDatumReader<T> extends FastGenericDatumReader<T> {
   protected FastDeserializer<T> getRegularAvroImpl(Schema writerSchema, Schema readerSchema) {
     return new FastSerdeCache.FastDeserializerWithAvroSpecificImpl<>(writerSchema, readerSchema);
   }
+
+  @Override
+  FastSerdeCacheListener.CacheType getCacheType() {
+    return FastSerdeCacheListener.CacheType.SPECIFIC_DESERIALIZER;
+  }
 }
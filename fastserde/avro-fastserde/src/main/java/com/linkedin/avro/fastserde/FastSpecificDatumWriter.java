@@ -24,4 +24,9 @@ public class FastSpecificDatumWriter<T> extends FastGenericDatumWriter<T> {
   protected FastSerializer<T> getRegularAvroImpl(Schema schema) {
     return new FastSerdeCache.FastSerializerWithAvroSpecificImpl<>(schema);
   }
+
+  @Override
+  FastSerdeCacheListener.CacheType getCacheType() {
+    return FastSerdeCacheListener.CacheType.SPECIFIC_SERIALIZER;
+  }
 }
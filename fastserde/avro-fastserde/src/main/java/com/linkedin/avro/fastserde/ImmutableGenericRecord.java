@@ -0,0 +1,93 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+
+
+/**
+ * Generic record which can't be modified once created, so that the generated generic serializers write it as a nested
+ * record by copying its encoded bytes, encoded the first time it is written. This pays off for the records which are
+ * written again and again as part of other records, such as a header shared by many messages.
+ *
+ * Only the record itself is immutable: the arrays, maps and records it holds must not be modified either once it is
+ * created, or the records written afterwards would hold stale data.
+ */
+public class ImmutableGenericRecord extends GenericData.Record {
+  private final boolean initialized;
+  private volatile EncodedForm encodedForm;
+
+  /**
+   * @param record record to copy the values of
+   */
+  public ImmutableGenericRecord(GenericRecord record) {
+    super(record.getSchema());
+    for (Schema.Field field : record.getSchema().getFields()) {
+      super.put(field.pos(), record.get(field.pos()));
+    }
+    initialized = true;
+  }
+
+  @Override
+  public void put(String key, Object value) {
+    throw new UnsupportedOperationException("Immutable record: " + getSchema().getFullName());
+  }
+
+  @Override
+  public void put(int i, Object v) {
+    if (initialized) {
+      throw new UnsupportedOperationException("Immutable record: " + getSchema().getFullName());
+    }
+    super.put(i, v);
+  }
+
+  /**
+   * @param schema schema the record is written with
+   * @return the encoded bytes of this record, or null if it was not encoded with the given schema instance yet
+   */
+  public byte[] getEncoded(Schema schema) {
+    EncodedForm encodedForm = this.encodedForm;
+    return encodedForm != null && encodedForm.schema == schema ? encodedForm.bytes : null;
+  }
+
+  /**
+   * Keeps the bytes of this record encoded with the given schema instance, see {@link #getEncoded(Schema)}.
+   *
+   * @return the given bytes
+   */
+  public byte[] setEncoded(Schema schema, byte[] bytes) {
+    encodedForm = new EncodedForm(schema, bytes);
+    return bytes;
+  }
+
+  /**
+   * Binary encoder into a byte array, used by the generated serializers to encode the record the first time.
+   */
+  public static final class Encoding {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, false, null);
+
+    public BinaryEncoder getEncoder() {
+      return encoder;
+    }
+
+    public byte[] toByteArray() throws IOException {
+      encoder.flush();
+      return out.toByteArray();
+    }
+  }
+
+  private static final class EncodedForm {
+    private final Schema schema;
+    private final byte[] bytes;
+
+    private EncodedForm(Schema schema, byte[] bytes) {
+      this.schema = schema;
+      this.bytes = bytes;
+    }
+  }
+}
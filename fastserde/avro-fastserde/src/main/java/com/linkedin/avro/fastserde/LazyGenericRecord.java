@@ -0,0 +1,156 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Decoder;
+
+
+/**
+ * Generic record returned by the lazy fast deserializers (see {@link FastSerdeCache#buildFastLazyGenericDeserializer}).
+ * The deserializer only scans the encoded record, remembering where each of its fields starts, and each field is
+ * decoded from the source on its first access, then cached. This pays off for wide records of which only a few
+ * fields are read.
+ *
+ * Lazy records retain the source they were decoded from, so they come with the lifetime contract of
+ * {@link ZeroCopyBinaryDecoder}: the source must not be modified nor recycled while the record is in use.
+ * Like {@link GenericData.Record}, lazy records are not thread-safe, even for reading, as reading decodes the fields.
+ */
+public class LazyGenericRecord implements GenericRecord, Comparable<LazyGenericRecord> {
+  private final Schema schema;
+  private final FieldDeserializer fieldDeserializer;
+  private final ZeroCopyBinaryDecoder decoder;
+  private final int[] fieldOffsets;
+  private final Object[] values;
+  private final boolean[] decoded;
+
+  /**
+   * Decodes single fields of a lazy record, implemented by the generated lazy deserializers.
+   */
+  public interface FieldDeserializer {
+    /**
+     * @param fieldPos position of the field in the reader schema
+     * @param decoder decoder positioned at the start of the field, or null if the writer schema has no such field
+     * @return value of the field
+     */
+    Object deserializeField(int fieldPos, Decoder decoder) throws IOException;
+  }
+
+  /**
+   * @param schema reader schema of the record
+   * @param fieldDeserializer decoder of the fields
+   * @param decoder decoder the record was scanned from
+   * @param fieldOffsets positions of the fields in the source, by reader field position, negative for the fields
+   *                     missing from the writer schema
+   */
+  public LazyGenericRecord(Schema schema, FieldDeserializer fieldDeserializer, ZeroCopyBinaryDecoder decoder,
+      int[] fieldOffsets) {
+    this.schema = schema;
+    this.fieldDeserializer = fieldDeserializer;
+    this.decoder = new ZeroCopyBinaryDecoder(decoder.getSource());
+    this.fieldOffsets = fieldOffsets;
+    this.values = new Object[fieldOffsets.length];
+    this.decoded = new boolean[fieldOffsets.length];
+  }
+
+  /**
+   * @return the given decoder, if it can be used to decode lazy records
+   * @throws IllegalArgumentException if the decoder can't retain its source
+   */
+  public static ZeroCopyBinaryDecoder zeroCopyDecoder(Decoder decoder) {
+    if (!(decoder instanceof ZeroCopyBinaryDecoder)) {
+      throw new IllegalArgumentException("Lazy records can only be decoded by a "
+          + ZeroCopyBinaryDecoder.class.getSimpleName() + ", not by: " + decoder.getClass().getName());
+    }
+    return (ZeroCopyBinaryDecoder) decoder;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+
+  @Override
+  public void put(String key, Object v) {
+    Schema.Field field = schema.getField(key);
+    if (field == null) {
+      throw new AvroRuntimeException("Not a valid schema field: " + key);
+    }
+    put(field.pos(), v);
+  }
+
+  @Override
+  public Object get(String key) {
+    Schema.Field field = schema.getField(key);
+    return field == null ? null : get(field.pos());
+  }
+
+  @Override
+  public void put(int i, Object v) {
+    values[i] = v;
+    decoded[i] = true;
+  }
+
+  @Override
+  public Object get(int i) {
+    if (!decoded[i]) {
+      try {
+        values[i] = fieldDeserializer.deserializeField(i, fieldOffsets[i] < 0 ? null : decoder.seek(fieldOffsets[i]));
+      } catch (IOException e) {
+        throw new AvroRuntimeException("Unable to decode field: " + schema.getFields().get(i).name(), e);
+      }
+      decoded[i] = true;
+    }
+    return values[i];
+  }
+
+  /**
+   * @return true if the given field has already been decoded or set
+   */
+  public boolean isDecoded(int i) {
+    return decoded[i];
+  }
+
+  /**
+   * Lazy records are only equal to other lazy records holding the same values, since {@link GenericData.Record} is
+   * never equal to anything but another {@link GenericData.Record}: an equality with those would not be symmetric.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof LazyGenericRecord)) {
+      return false;
+    }
+    return materialize().equals(((LazyGenericRecord) o).materialize());
+  }
+
+  @Override
+  public int hashCode() {
+    return GenericData.get().hashCode(this, schema);
+  }
+
+  @Override
+  public int compareTo(LazyGenericRecord that) {
+    return GenericData.get().compare(this, that, schema);
+  }
+
+  /**
+   * @return a copy of this record with all its fields decoded, used to compare records just like vanilla avro does
+   */
+  private GenericData.Record materialize() {
+    GenericData.Record record = new GenericData.Record(schema);
+    for (int i = 0; i < values.length; i++) {
+      record.put(i, get(i));
+    }
+    return record;
+  }
+
+  @Override
+  public String toString() {
+    return GenericData.get().toString(this);
+  }
+}
@@ -49,6 +49,22 @@ public class SchemaAssistant {
   public static final String KEY_CLASS_PROP = "java-key-class";
   public static final String STRING_PROP = "avro.java.string";
   public static final String STRING_TYPE_STRING = "String";
+  /**
+   * Map schemas having this property set to "true" are decoded into {@link CompactUtf8Map} instances, which are
+   * refilled in place when reused, if their keys are decoded as {@link Utf8}.
+   */
+  public static final String COMPACT_MAP_PROP = "fastserde.compact.map";
+  /**
+   * String schemas having this property set to "true" are decoded through a {@link StringInternTable}, so that the
+   * same instance is returned for the same string, if they are decoded as {@link Utf8} or {@link String}. Such
+   * instances are shared, the {@link Utf8} ones must not be modified nor given to a decoder for reuse.
+   */
+  public static final String INTERNED_STRING_PROP = "fastserde.interned.string";
+  /**
+   * String schemas having this property set to "true" are encoded through an {@link EncodedStringCache}, and so are the
+   * keys of map schemas having it.
+   */
+  public static final String CACHED_ENCODING_PROP = "fastserde.cached.encoding";
 
   private final JCodeModel codeModel;
   private final boolean useGenericTypes;
@@ -110,6 +126,16 @@ public class SchemaAssistant {
     }
   }
 
+  /**
+   * N.B.: Logical types were added in avro 1.8, this must not be called on older runtimes.
+   *
+   * @param schema schema to check
+   * @return true if the schema carries a logical type
+   */
+  public static boolean hasLogicalType(Schema schema) {
+    return schema.getLogicalType() != null;
+  }
+
   /**
    * Determines if a data type is capable of reuse
    *
@@ -179,6 +205,69 @@ public class SchemaAssistant {
     }
   }
 
+  /**
+   * Nested records are not looked into, since they are handled on their own.
+   *
+   * @return true if values of the given schema may hold strings, including map keys
+   */
+  public static boolean containsString(Schema schema) {
+    switch (schema.getType()) {
+      case STRING:
+      case MAP:
+        return true;
+      case ARRAY:
+        return containsString(schema.getElementType());
+      case UNION:
+        for (Schema type : schema.getTypes()) {
+          if (containsString(type)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return true if the values of the given map schema are decoded into {@link CompactUtf8Map} instances
+   */
+  public boolean isCompactMap(Schema schema) {
+    if (!Schema.Type.MAP.equals(schema.getType())) {
+      throw new SchemaAssistantException("Map schema expected!");
+    }
+    return hasCompactMapProp(schema) && !hasStringableKey(schema)
+        && codeModel.ref(Utf8.class).equals(findStringClass(schema));
+  }
+
+  /**
+   * @return true if the values of the given string schema are decoded through a {@link StringInternTable}
+   */
+  public boolean isInternedString(Schema schema) {
+    if (!Schema.Type.STRING.equals(schema.getType())) {
+      throw new SchemaAssistantException("String schema expected!");
+    }
+    if (!Boolean.parseBoolean(schema.getProp(INTERNED_STRING_PROP))) {
+      return false;
+    }
+    JClass stringClass = findStringClass(schema);
+    return stringClass.equals(codeModel.ref(Utf8.class)) || stringClass.equals(codeModel.ref(String.class));
+  }
+
+  /**
+   * @return true if the given map schema has the {@link #COMPACT_MAP_PROP} property set to "true"
+   */
+  public static boolean hasCompactMapProp(Schema schema) {
+    return Boolean.parseBoolean(schema.getProp(COMPACT_MAP_PROP));
+  }
+
+  /**
+   * @return true if the given string or map schema has the {@link #CACHED_ENCODING_PROP} property set to "true"
+   */
+  public static boolean hasCachedEncodingProp(Schema schema) {
+    return Boolean.parseBoolean(schema.getProp(CACHED_ENCODING_PROP));
+  }
+
   public static boolean hasStringableKey(Schema schema) {
     if (!Schema.Type.MAP.equals(schema.getType())) {
       throw new SchemaAssistantException("Map schema expected!");
@@ -298,11 +387,11 @@ public class SchemaAssistant {
         if (primitiveList) {
           switch (schema.getElementType().getType()) {
             case BOOLEAN: klass = abstractType ? PrimitiveBooleanList.class : PrimitiveBooleanArrayList.class; break;
-            case DOUBLE: klass = abstractType ? PrimitiveDoubleList.class : PrimitiveDoubleArrayList.class; break;
             /**
-             * N.B.: FLOAT will get superseded in
+             * N.B.: DOUBLE and FLOAT will get superseded in
              * {@link FastDeserializerGenerator#processArray(JVar, String, Schema, Schema, JBlock, FastDeserializerGeneratorBase.FieldAction, BiConsumer, Supplier)}
              */
+            case DOUBLE: klass = abstractType ? PrimitiveDoubleList.class : PrimitiveDoubleArrayList.class; break;
             case FLOAT: klass = abstractType ? PrimitiveFloatList.class : PrimitiveFloatArrayList.class; break;
             case INT: klass = abstractType ? PrimitiveIntList.class : PrimitiveIntArrayList.class; break;
             case LONG: klass = abstractType ? PrimitiveLongList.class : PrimitiveLongArrayList.class; break;
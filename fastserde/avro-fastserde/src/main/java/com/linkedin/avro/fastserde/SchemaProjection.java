@@ -0,0 +1,173 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.avro.Schema;
+
+
+/**
+ * Derives the minimal reader schema needed to read a given set of fields out of a writer record schema, so that
+ * the deserializer generated for it skips everything else.
+ *
+ * Fields are designated by dot-separated paths of field names, such as {@code header.timestamp}. Arrays and maps
+ * are traversed transparently, e.g. {@code items.id} designates the {@code id} field of the records held by the
+ * {@code items} array, and so are unions, whose record branches having the next field of the path are all projected.
+ * The last field of a path is kept whole.
+ *
+ * A named record is projected the same way wherever it is used, with all the fields needed by any of its usages,
+ * and records reachable from a field kept whole are kept whole everywhere.
+ */
+public final class SchemaProjection {
+  private final Map<String, Set<String>> neededFieldNames = new HashMap<>();
+  private final Set<String> wholeRecordNames = new HashSet<>();
+  private final Map<String, Schema> projectedRecords = new HashMap<>();
+
+  private SchemaProjection() {
+  }
+
+  /**
+   * @param writerSchema writer record schema
+   * @param fieldPaths paths of the fields to read
+   * @return reader schema with only the given fields
+   * @throws IllegalArgumentException if the schema is not a record or if a path designates no field
+   */
+  public static Schema project(Schema writerSchema, Collection<String> fieldPaths) {
+    if (!Schema.Type.RECORD.equals(writerSchema.getType())) {
+      throw new IllegalArgumentException("Only record schemas can be projected, not: " + writerSchema.getType());
+    }
+    SchemaProjection projection = new SchemaProjection();
+    for (String fieldPath : fieldPaths) {
+      projection.addFieldPath(writerSchema, fieldPath, fieldPath.split("\\."), 0);
+    }
+    return projection.project(writerSchema);
+  }
+
+  private void addFieldPath(Schema recordSchema, String fieldPath, String[] fieldNames, int index) {
+    Schema.Field field = recordSchema.getField(fieldNames[index]);
+    if (field == null) {
+      throw new IllegalArgumentException("Record: " + AvroCompatibilityHelper.getSchemaFullName(recordSchema)
+          + " has no field: " + fieldNames[index] + ", from field path: " + fieldPath);
+    }
+    neededFieldNames.computeIfAbsent(AvroCompatibilityHelper.getSchemaFullName(recordSchema), k -> new HashSet<>())
+        .add(field.name());
+
+    if (index == fieldNames.length - 1) {
+      keepWhole(field.schema());
+      return;
+    }
+    List<Schema> nestedRecordSchemas = new ArrayList<>();
+    collectRecordsWithField(field.schema(), fieldNames[index + 1], nestedRecordSchemas);
+    if (nestedRecordSchemas.isEmpty()) {
+      throw new IllegalArgumentException("Field: " + field.name() + " holds no record with a field: "
+          + fieldNames[index + 1] + ", from field path: " + fieldPath);
+    }
+    for (Schema nestedRecordSchema : nestedRecordSchemas) {
+      addFieldPath(nestedRecordSchema, fieldPath, fieldNames, index + 1);
+    }
+  }
+
+  private static void collectRecordsWithField(Schema schema, String fieldName, List<Schema> recordSchemas) {
+    switch (schema.getType()) {
+      case RECORD:
+        if (schema.getField(fieldName) != null) {
+          recordSchemas.add(schema);
+        }
+        break;
+      case ARRAY:
+        collectRecordsWithField(schema.getElementType(), fieldName, recordSchemas);
+        break;
+      case MAP:
+        collectRecordsWithField(schema.getValueType(), fieldName, recordSchemas);
+        break;
+      case UNION:
+        for (Schema type : schema.getTypes()) {
+          collectRecordsWithField(type, fieldName, recordSchemas);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void keepWhole(Schema schema) {
+    switch (schema.getType()) {
+      case RECORD:
+        if (wholeRecordNames.add(AvroCompatibilityHelper.getSchemaFullName(schema))) {
+          for (Schema.Field field : schema.getFields()) {
+            keepWhole(field.schema());
+          }
+        }
+        break;
+      case ARRAY:
+        keepWhole(schema.getElementType());
+        break;
+      case MAP:
+        keepWhole(schema.getValueType());
+        break;
+      case UNION:
+        for (Schema type : schema.getTypes()) {
+          keepWhole(type);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private Schema project(Schema schema) {
+    switch (schema.getType()) {
+      case RECORD:
+        return projectRecord(schema);
+      case ARRAY:
+        Schema elementType = project(schema.getElementType());
+        return elementType == schema.getElementType() ? schema : Schema.createArray(elementType);
+      case MAP:
+        Schema valueType = project(schema.getValueType());
+        return valueType == schema.getValueType() ? schema : Schema.createMap(valueType);
+      case UNION:
+        List<Schema> types = new ArrayList<>(schema.getTypes().size());
+        boolean projected = false;
+        for (Schema type : schema.getTypes()) {
+          Schema projectedType = project(type);
+          projected |= projectedType != type;
+          types.add(projectedType);
+        }
+        return projected ? Schema.createUnion(types) : schema;
+      default:
+        return schema;
+    }
+  }
+
+  private Schema projectRecord(Schema recordSchema) {
+    String fullName = AvroCompatibilityHelper.getSchemaFullName(recordSchema);
+    if (wholeRecordNames.contains(fullName)) {
+      return recordSchema;
+    }
+    Schema projectedRecord = projectedRecords.get(fullName);
+    if (projectedRecord != null) {
+      return projectedRecord;
+    }
+
+    // registered before its fields get projected, since they may refer to it
+    projectedRecord = Schema.createRecord(recordSchema.getName(), recordSchema.getDoc(), recordSchema.getNamespace(),
+        recordSchema.isError());
+    projectedRecords.put(fullName, projectedRecord);
+
+    Set<String> fieldNames = neededFieldNames.getOrDefault(fullName, Collections.emptySet());
+    List<Schema.Field> fields = new ArrayList<>(fieldNames.size());
+    for (Schema.Field field : recordSchema.getFields()) {
+      if (fieldNames.contains(field.name())) {
+        fields.add(AvroCompatibilityHelper.newField(field).setSchema(project(field.schema())).build());
+      }
+    }
+    projectedRecord.setFields(fields);
+    return projectedRecord;
+  }
+}
@@ -0,0 +1,152 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * Bounded table of decoded strings, used by the generated deserializers for the string schemas having the
+ * {@link SchemaAssistant#INTERNED_STRING_PROP} property: a string whose bytes were already decoded is returned as the
+ * instance held by the table, instead of allocating a new one.
+ *
+ * Once the table holds its maximum number of strings, the other ones are allocated on every decode as usual, so the
+ * table only pays off for low-cardinality strings. Long strings are never interned.
+ *
+ * Lookups don't lock, so that the table can be shared by the threads using the same deserializer.
+ */
+public final class StringInternTable {
+  public static final int DEFAULT_MAX_SIZE = 1024;
+  private static final int MAX_INTERNED_BYTE_LENGTH = 128;
+
+  // holds the bytes of the string being looked up
+  private static final ThreadLocal<Utf8> SCRATCH = ThreadLocal.withInitial(Utf8::new);
+
+  private final boolean javaStrings;
+  private final int maxSize;
+  private final Entry[] entries;
+  private int size;
+
+  /**
+   * @param javaStrings true if the strings are decoded as {@link String}, false if they are decoded as {@link Utf8}
+   */
+  public StringInternTable(boolean javaStrings) {
+    this(javaStrings, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param javaStrings true if the strings are decoded as {@link String}, false if they are decoded as {@link Utf8}
+   * @param maxSize maximum number of strings held by the table
+   */
+  public StringInternTable(boolean javaStrings, int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The max size must be positive, not: " + maxSize);
+    }
+    this.javaStrings = javaStrings;
+    this.maxSize = maxSize;
+    // load factor of 0.5 at most, the table is never resized
+    this.entries = new Entry[Integer.highestOneBit(maxSize) << 2];
+  }
+
+  /**
+   * Reads a string decoded as {@link Utf8}. The returned instance may be shared, so it must not be modified.
+   */
+  public Utf8 readUtf8(Decoder decoder) throws IOException {
+    if (javaStrings) {
+      throw new IllegalStateException("This table holds java strings");
+    }
+    return (Utf8) read(decoder);
+  }
+
+  /**
+   * Reads a string decoded as {@link String}.
+   */
+  public String readString(Decoder decoder) throws IOException {
+    if (!javaStrings) {
+      throw new IllegalStateException("This table holds Utf8 strings");
+    }
+    return (String) read(decoder);
+  }
+
+  private CharSequence read(Decoder decoder) throws IOException {
+    Utf8 scratch = decoder.readString(SCRATCH.get());
+    byte[] bytes = scratch.getBytes();
+    int length = scratch.getLength();
+    if (length > MAX_INTERNED_BYTE_LENGTH) {
+      // the scratch is not kept, so that a single long string doesn't hold a large buffer for the thread
+      SCRATCH.remove();
+      return javaStrings ? new String(bytes, 0, length, StandardCharsets.UTF_8) : scratch;
+    }
+
+    int hash = hash(bytes, length);
+    Entry[] entries = this.entries;
+    int mask = entries.length - 1;
+    for (int slot = hash & mask; entries[slot] != null; slot = (slot + 1) & mask) {
+      Entry entry = entries[slot];
+      if (entry.hash == hash && entry.matches(bytes, length)) {
+        return entry.value;
+      }
+    }
+
+    byte[] copy = Arrays.copyOf(bytes, length);
+    CharSequence value = javaStrings ? new String(copy, StandardCharsets.UTF_8) : new Utf8(copy);
+    if (size < maxSize) {
+      add(new Entry(hash, copy, value));
+    }
+    return value;
+  }
+
+  private synchronized void add(Entry newEntry) {
+    if (size >= maxSize) {
+      return;
+    }
+    int mask = entries.length - 1;
+    int slot = newEntry.hash & mask;
+    for (; entries[slot] != null; slot = (slot + 1) & mask) {
+      if (entries[slot].hash == newEntry.hash && entries[slot].matches(newEntry.bytes, newEntry.bytes.length)) {
+        // added by another thread in the meantime
+        return;
+      }
+    }
+    entries[slot] = newEntry;
+    size++;
+  }
+
+  private static int hash(byte[] bytes, int length) {
+    int h = 1;
+    for (int i = 0; i < length; i++) {
+      h = 31 * h + bytes[i];
+    }
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Immutable, so that the entries can be read by other threads than the one which added them without locking.
+   */
+  private static final class Entry {
+    private final int hash;
+    private final byte[] bytes;
+    private final CharSequence value;
+
+    private Entry(int hash, byte[] bytes, CharSequence value) {
+      this.hash = hash;
+      this.bytes = bytes;
+      this.value = value;
+    }
+
+    private boolean matches(byte[] otherBytes, int length) {
+      if (bytes.length != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (bytes[i] != otherBytes[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
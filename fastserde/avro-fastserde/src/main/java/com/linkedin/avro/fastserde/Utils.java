@@ -5,16 +5,21 @@ import com.linkedin.avroutil1.compatibility.AvroVersion;
 import com.linkedin.avroutil1.compatibility.AvscGenerationConfig;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
 import java.security.CodeSource;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Matcher;
-import java.util.stream.Collectors;
 import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.BlockingBinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
 
 
 public class Utils {
@@ -43,6 +48,27 @@ public class Utils {
   // Cache the mapping between Schema and the corresponding fingerprint
   private static final Map<Schema, Integer> SCHEMA_IDS_CACHE = new ConcurrentHashMap<>();
 
+  // Cache the mapping between Schema and the corresponding 64-bit fingerprint, weak keys let unused schemas be collected
+  private static final Map<Schema, Long> SCHEMA_FINGERPRINTS_CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+  // Identity based cache in front of SCHEMA_FINGERPRINTS_CACHE, indexed by identity hash code, see getSchemaFingerprint64
+  private static final int SCHEMA_FINGERPRINTS_IDENTITY_CACHE_SIZE = 4096;
+  private static final AtomicReferenceArray<SchemaFingerprint> SCHEMA_FINGERPRINTS_IDENTITY_CACHE =
+      new AtomicReferenceArray<>(SCHEMA_FINGERPRINTS_IDENTITY_CACHE_SIZE);
+
+  // CRC-64-AVRO, the Rabin fingerprint defined by the avro specification
+  private static final long FINGERPRINT64_EMPTY = 0xc15d213aa4d7a795L;
+  private static final long[] FINGERPRINT64_TABLE = new long[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      long fingerprint = i;
+      for (int j = 0; j < 8; j++) {
+        fingerprint = (fingerprint >>> 1) ^ (FINGERPRINT64_EMPTY & -(fingerprint & 1L));
+      }
+      FINGERPRINT64_TABLE[i] = fingerprint;
+    }
+  }
+
   private Utils() {
   }
 
@@ -50,11 +76,35 @@ public class Utils {
     return AvroCompatibilityHelper.getRuntimeAvroVersion().equals(AvroVersion.AVRO_1_4);
   }
 
+  /**
+   * Creates an encoder writing arrays and maps in blocks prefixed by their size in bytes, which lets the fast
+   * deserializers skip a whole block at once when their reader schema doesn't need it. Fast serializers write through
+   * it like through any other encoder. It buffers the blocks being written, so it must be flushed once done.
+   *
+   * @param out stream to write to
+   * @return blocking binary encoder
+   */
+  public static BinaryEncoder newBlockingBinaryEncoder(OutputStream out) {
+    if (isAvro14()) {
+      try {
+        return BlockingBinaryEncoder.class.getConstructor(OutputStream.class).newInstance(out);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Unable to create a BlockingBinaryEncoder", e);
+      }
+    }
+    return EncoderFactory.get().blockingBinaryEncoder(out, null);
+  }
+
   // enum default was added in avro 1.9
   public static boolean isAbleToSupportEnumDefault() {
     return AvroCompatibilityHelper.getRuntimeAvroVersion().laterThan(AvroVersion.AVRO_1_8);
   }
 
+  // logical type conversions are available through Conversions since avro 1.9
+  public static boolean isAbleToSupportLogicalTypes() {
+    return AvroCompatibilityHelper.getRuntimeAvroVersion().laterThan(AvroVersion.AVRO_1_8);
+  }
+
   public static boolean isAbleToSupportStringableProps() {
     return AvroCompatibilityHelper.getRuntimeAvroVersion().laterThan(AvroVersion.AVRO_1_6);
   }
@@ -136,6 +186,52 @@ public class Utils {
     return schemaId;
   }
 
+  /**
+   * This function will produce a 64-bit fingerprint for the provided schema: the avro Rabin fingerprint (CRC-64-AVRO)
+   * of its full json form. Unlike the parsing canonical form, the full form keeps defaults, aliases and properties,
+   * which all affect the generated code.
+   *
+   * Repeated lookups of the same schema instance are served by an identity based cache, without hashing the schema
+   * nor allocating.
+   *
+   * @param schema a schema
+   * @return 64-bit fingerprint for the given schema
+   */
+  public static long getSchemaFingerprint64(Schema schema) {
+    int slot = System.identityHashCode(schema) & (SCHEMA_FINGERPRINTS_IDENTITY_CACHE_SIZE - 1);
+    SchemaFingerprint cached = SCHEMA_FINGERPRINTS_IDENTITY_CACHE.get(slot);
+    if (cached != null && cached.get() == schema) {
+      return cached.fingerprint;
+    }
+
+    Long fingerprint = SCHEMA_FINGERPRINTS_CACHE.get(schema);
+    if (fingerprint == null) {
+      String schemaString = AvroCompatibilityHelper.toAvsc(schema, AvscGenerationConfig.CORRECT_ONELINE);
+      fingerprint = fingerprint64(schemaString.getBytes(StandardCharsets.UTF_8));
+      SCHEMA_FINGERPRINTS_CACHE.put(schema, fingerprint);
+    }
+    // schemas sharing a slot simply replace each other
+    SCHEMA_FINGERPRINTS_IDENTITY_CACHE.set(slot, new SchemaFingerprint(schema, fingerprint));
+    return fingerprint;
+  }
+
+  static long fingerprint64(byte[] bytes) {
+    long fingerprint = FINGERPRINT64_EMPTY;
+    for (byte b : bytes) {
+      fingerprint = (fingerprint >>> 8) ^ FINGERPRINT64_TABLE[(int) (fingerprint ^ b) & 0xff];
+    }
+    return fingerprint;
+  }
+
+  private static final class SchemaFingerprint extends WeakReference<Schema> {
+    private final long fingerprint;
+
+    SchemaFingerprint(Schema schema, long fingerprint) {
+      super(schema);
+      this.fingerprint = fingerprint;
+    }
+  }
+
   private static String replaceLast(String str, char target, char replacement) {
     if (str.indexOf(target) < 0) {
       // doesn't contain target char
@@ -162,67 +258,105 @@ public class Utils {
   }
 
   /**
-   * This class is used to infer all the compilation dependencies.
-   * @param existingCompileClasspath existing compile classpath
-   * @param filePath java source file to compile
-   * @param knownUsedFullyQualifiedClassNameSet: known fully qualified class name when generating the serialization/de-serialization classes
-   * @return classpath to compile given file
-   * @throws IOException on io issues
-   * @throws ClassNotFoundException on classloading issues
+   * Looks up a named type, record, enum or fixed, within a schema. Used by the generated serializers to get hold of
+   * the very schema instances their unions may be written with.
+   *
+   * @param schema schema to look into
+   * @param fullName full name of the named type
+   * @return the named type, or null if the schema doesn't use it
    */
-  public static String inferCompileDependencies(String existingCompileClasspath, String filePath, Set<String> knownUsedFullyQualifiedClassNameSet)
-      throws IOException, ClassNotFoundException {
-    Set<String> usedFullyQualifiedClassNameSet = new HashSet<>(knownUsedFullyQualifiedClassNameSet);
-    Set<String> libSet = Arrays.stream(existingCompileClasspath.split(File.pathSeparator)).collect(Collectors.toSet());
-    final String importPrefix = "import ";
-    // collect all the necessary dependencies for compilation
-    try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        if (line.startsWith(importPrefix)) {
-          // Get the qualified class name from "import" statements
-          String qualifiedClassName = line.substring(importPrefix.length(), line.length() - 1);
-
-          if (!qualifiedClassName.isEmpty()) {
-            usedFullyQualifiedClassNameSet.add(qualifiedClassName);
-          }
-        }
-      }
+  public static Schema findNamedSchema(Schema schema, String fullName) {
+    return findNamedSchema(schema, fullName, Collections.newSetFromMap(new IdentityHashMap<>()));
+  }
 
-      StringJoiner pathJoiner = new StringJoiner(File.pathSeparator);
-      if (existingCompileClasspath != null && !existingCompileClasspath.isEmpty()) {
-        pathJoiner.add(existingCompileClasspath);
-      }
-      for (String requiredClass : usedFullyQualifiedClassNameSet) {
-        CodeSource codeResource;
-        try {
-          codeResource = loadClass(requiredClass).getProtectionDomain().getCodeSource();
-        } catch (ClassNotFoundException e) {
-          /**
-           * Inner class couldn't be located directly by Class.forName in the formal way, so we have to replace the
-           * last '.' by '$'.
-           * For example, 'org.apache.avro.generic.GenericData.Record' could NOT be located by {@link Class#forName(String)},
-           * but 'org.apache.avro.generic.GenericData#Record' can be located.
-           *
-           * Here, we only try once since multiple layers of inner class is not expected in the generated java class,
-           * and in theory, the inner class being used could only be defined by Avro lib.
-           * If this assumption is not right, we need to do recursive search to find the right library.
-           */
-          codeResource = loadClass(replaceLast(requiredClass, '.', '$')).getProtectionDomain().getCodeSource();
+  private static Schema findNamedSchema(Schema schema, String fullName, Set<Schema> visitedSchemas) {
+    switch (schema.getType()) {
+      case RECORD:
+        if (!visitedSchemas.add(schema)) {
+          return null;
+        }
+        if (fullName.equals(AvroCompatibilityHelper.getSchemaFullName(schema))) {
+          return schema;
         }
-        if (codeResource != null) {
-          String libPath = codeResource.getLocation().getFile();
-          if (isWindows() && libPath.startsWith("/")) {
-            //avoid things like "/C:/what/ever" on windows
-            libPath = libPath.substring(1);
+        for (Schema.Field field : schema.getFields()) {
+          Schema namedSchema = findNamedSchema(field.schema(), fullName, visitedSchemas);
+          if (namedSchema != null) {
+            return namedSchema;
           }
-          if (!libSet.contains(libPath)) {
-            pathJoiner.add(libPath);
-            libSet.add(libPath);
+        }
+        return null;
+      case ENUM:
+      case FIXED:
+        return fullName.equals(AvroCompatibilityHelper.getSchemaFullName(schema)) ? schema : null;
+      case ARRAY:
+        return findNamedSchema(schema.getElementType(), fullName, visitedSchemas);
+      case MAP:
+        return findNamedSchema(schema.getValueType(), fullName, visitedSchemas);
+      case UNION:
+        for (Schema type : schema.getTypes()) {
+          Schema namedSchema = findNamedSchema(type, fullName, visitedSchemas);
+          if (namedSchema != null) {
+            return namedSchema;
           }
         }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @param reader java source
+   * @return fully qualified names of the classes imported by the given java source
+   * @throws IOException on io issues
+   */
+  static Set<String> getImportedClassNames(BufferedReader reader) throws IOException {
+    Set<String> importedClassNames = new HashSet<>();
+    final String importPrefix = "import ";
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.startsWith(importPrefix)) {
+        // Get the qualified class name from "import" statements
+        String qualifiedClassName = line.substring(importPrefix.length(), line.length() - 1);
+
+        if (!qualifiedClassName.isEmpty()) {
+          importedClassNames.add(qualifiedClassName);
+        }
       }
-      return pathJoiner.toString();
     }
+    return importedClassNames;
+  }
+
+  /**
+   * @param className fully qualified class name
+   * @return location of the library the given class is loaded from, or null if it has no code source
+   * @throws ClassNotFoundException on classloading issues
+   */
+  static String getLibraryPath(String className) throws ClassNotFoundException {
+    CodeSource codeResource;
+    try {
+      codeResource = loadClass(className).getProtectionDomain().getCodeSource();
+    } catch (ClassNotFoundException e) {
+      /**
+       * Inner class couldn't be located directly by Class.forName in the formal way, so we have to replace the
+       * last '.' by '$'.
+       * For example, 'org.apache.avro.generic.GenericData.Record' could NOT be located by {@link Class#forName(String)},
+       * but 'org.apache.avro.generic.GenericData#Record' can be located.
+       *
+       * Here, we only try once since multiple layers of inner class is not expected in the generated java class,
+       * and in theory, the inner class being used could only be defined by Avro lib.
+       * If this assumption is not right, we need to do recursive search to find the right library.
+       */
+      codeResource = loadClass(replaceLast(className, '.', '$')).getProtectionDomain().getCodeSource();
+    }
+    if (codeResource == null) {
+      return null;
+    }
+    String libPath = codeResource.getLocation().getFile();
+    if (isWindows() && libPath.startsWith("/")) {
+      //avoid things like "/C:/what/ever" on windows
+      libPath = libPath.substring(1);
+    }
+    return libPath;
   }
 }
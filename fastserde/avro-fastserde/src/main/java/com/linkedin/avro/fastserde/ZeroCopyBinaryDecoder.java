@@ -0,0 +1,346 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * Binary decoder over an in-memory source, which returns {@code bytes} values as read-only {@link ByteBuffer} slices
+ * of the source instead of copying them. Other values are decoded like {@link org.apache.avro.io.BinaryDecoder} does,
+ * {@code fixed} values are still copied, since {@link org.apache.avro.generic.GenericFixed} is backed by a byte array.
+ *
+ * Using this decoder is opt-in, and comes with a lifetime contract: the {@code bytes} values of the deserialized
+ * records point into the source, so the source must not be modified nor recycled (e.g. returned to a buffer pool)
+ * while any of those values is still in use. Every slice also keeps the whole source reachable. Values which need to
+ * outlive the source, such as ones stored in a cache or handed over to another thread, must be copied first with
+ * {@link #copyOf(ByteBuffer)}.
+ *
+ * Records deserialized by this decoder can be reused with any decoder: the generated deserializers never write into
+ * a read-only {@link ByteBuffer}.
+ */
+public class ZeroCopyBinaryDecoder extends Decoder {
+  private ByteBuffer source;
+  private int pos;
+  private int limit;
+
+  public ZeroCopyBinaryDecoder(byte[] bytes) {
+    this(bytes, 0, bytes.length);
+  }
+
+  public ZeroCopyBinaryDecoder(byte[] bytes, int offset, int length) {
+    configure(bytes, offset, length);
+  }
+
+  /**
+   * @param source source to decode, from its position to its limit. The position of the given buffer is not changed.
+   */
+  public ZeroCopyBinaryDecoder(ByteBuffer source) {
+    configure(source);
+  }
+
+  /**
+   * Points this decoder to a new source, so it can be reused like the decoders created by
+   * {@link org.apache.avro.io.DecoderFactory}.
+   */
+  public ZeroCopyBinaryDecoder configure(byte[] bytes, int offset, int length) {
+    return configure(ByteBuffer.wrap(bytes, offset, length));
+  }
+
+  /**
+   * Points this decoder to a new source, from its position to its limit. The position of the given buffer is not
+   * changed.
+   */
+  public ZeroCopyBinaryDecoder configure(ByteBuffer source) {
+    this.source = source.duplicate();
+    this.pos = source.position();
+    this.limit = source.limit();
+    return this;
+  }
+
+  /**
+   * @return position of the next value to decode, relative to the underlying byte array or buffer
+   */
+  public int getPosition() {
+    return pos;
+  }
+
+  /**
+   * @return the source being decoded, its position is the one the decoder started from
+   */
+  ByteBuffer getSource() {
+    return source;
+  }
+
+  /**
+   * Moves this decoder to the given position of its source, as returned by {@link #getPosition()}.
+   */
+  ZeroCopyBinaryDecoder seek(int position) {
+    if (position < source.position() || position > limit) {
+      throw new IndexOutOfBoundsException("Position " + position + " is out of the source: [" + source.position()
+          + ", " + limit + "]");
+    }
+    this.pos = position;
+    return this;
+  }
+
+  /**
+   * Copies a {@code bytes} value so that it no longer depends on the source it was decoded from.
+   *
+   * @param bytes value to copy, may be null
+   * @return a heap buffer holding the remaining bytes of the given value
+   */
+  public static ByteBuffer copyOf(ByteBuffer bytes) {
+    if (bytes == null) {
+      return null;
+    }
+    ByteBuffer copy = ByteBuffer.allocate(bytes.remaining());
+    copy.put(bytes.duplicate());
+    ((Buffer) copy).flip();
+    return copy;
+  }
+
+  /**
+   * @return true if the whole source has been decoded
+   */
+  public boolean isEnd() {
+    return pos == limit;
+  }
+
+  /**
+   * Needed by the avro-1.4 {@link Decoder}, this decoder can only decode in-memory sources.
+   */
+  public void init(InputStream in) {
+    throw new UnsupportedOperationException("ZeroCopyBinaryDecoder can only decode a byte array or a ByteBuffer");
+  }
+
+  @Override
+  public void readNull() {
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return readByte() == 1;
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    int b = readByte();
+    int n = b & 0x7f;
+    for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+      if (shift > 28) {
+        throw new IOException("Invalid int encoding");
+      }
+      b = readByte();
+      n |= (b & 0x7f) << shift;
+    }
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    int b = readByte();
+    long n = b & 0x7f;
+    for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+      if (shift > 63) {
+        throw new IOException("Invalid long encoding");
+      }
+      b = readByte();
+      n |= (b & 0x7fL) << shift;
+    }
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    return Float.intBitsToFloat(readLittleEndianInt());
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    long low = readLittleEndianInt() & 0xffffffffL;
+    long high = readLittleEndianInt() & 0xffffffffL;
+    return Double.longBitsToDouble((high << 32) | low);
+  }
+
+  /**
+   * Like {@link org.apache.avro.io.BinaryDecoder#readString(Utf8)}, the given instance is refilled if any, so that
+   * reusing it doesn't allocate.
+   */
+  @Override
+  @SuppressWarnings("deprecation")
+  public Utf8 readString(Utf8 old) throws IOException {
+    int length = readLength();
+    Utf8 result = old != null ? old : new Utf8();
+    if (Utils.isAvro14()) {
+      // Utf8#setByteLength is not available in avro-1.4
+      result.setLength(length);
+    } else {
+      result.setByteLength(length);
+    }
+    readFixed(result.getBytes(), 0, length);
+    return result;
+  }
+
+  @Override
+  public String readString() throws IOException {
+    int length = readLength();
+    if (!source.hasArray()) {
+      byte[] bytes = new byte[length];
+      readFixed(bytes, 0, length);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+    ensureAvailable(length);
+    String string = new String(source.array(), source.arrayOffset() + pos, length, StandardCharsets.UTF_8);
+    pos += length;
+    return string;
+  }
+
+  @Override
+  public void skipString() throws IOException {
+    skip(readLength());
+  }
+
+  /**
+   * @param old ignored, the value is never copied
+   * @return read-only slice of the source holding the value
+   */
+  @Override
+  public ByteBuffer readBytes(ByteBuffer old) throws IOException {
+    int length = readLength();
+    ensureAvailable(length);
+    ByteBuffer slice = source.duplicate();
+    ((Buffer) slice).limit(pos + length);
+    ((Buffer) slice).position(pos);
+    pos += length;
+    return slice.slice().asReadOnlyBuffer();
+  }
+
+  @Override
+  public void skipBytes() throws IOException {
+    skip(readLength());
+  }
+
+  @Override
+  public void readFixed(byte[] bytes, int start, int length) throws IOException {
+    ensureAvailable(length);
+    ByteBuffer slice = source.duplicate();
+    ((Buffer) slice).position(pos);
+    slice.get(bytes, start, length);
+    pos += length;
+  }
+
+  @Override
+  public void skipFixed(int length) throws IOException {
+    skip(length);
+  }
+
+  @Override
+  public int readEnum() throws IOException {
+    return readInt();
+  }
+
+  @Override
+  public long readArrayStart() throws IOException {
+    return readItemCount();
+  }
+
+  @Override
+  public long arrayNext() throws IOException {
+    return readItemCount();
+  }
+
+  @Override
+  public long skipArray() throws IOException {
+    return skipItems();
+  }
+
+  @Override
+  public long readMapStart() throws IOException {
+    return readItemCount();
+  }
+
+  @Override
+  public long mapNext() throws IOException {
+    return readItemCount();
+  }
+
+  @Override
+  public long skipMap() throws IOException {
+    return skipItems();
+  }
+
+  @Override
+  public int readIndex() throws IOException {
+    return readInt();
+  }
+
+  private int readByte() throws IOException {
+    ensureAvailable(1);
+    return source.get(pos++) & 0xff;
+  }
+
+  private int readLittleEndianInt() throws IOException {
+    ensureAvailable(4);
+    int n = (source.get(pos) & 0xff)
+        | (source.get(pos + 1) & 0xff) << 8
+        | (source.get(pos + 2) & 0xff) << 16
+        | (source.get(pos + 3) & 0xff) << 24;
+    pos += 4;
+    return n;
+  }
+
+  private int readLength() throws IOException {
+    long length = readLong();
+    if (length < 0L || length > Integer.MAX_VALUE) {
+      throw new AvroRuntimeException("Malformed data. Length is out of bounds: " + length);
+    }
+    return (int) length;
+  }
+
+  /**
+   * Reads the item count of the next block, a negative count is followed by the size of the block in bytes.
+   */
+  private long readItemCount() throws IOException {
+    long count = readLong();
+    if (count < 0L) {
+      readLong();
+      count = -count;
+    }
+    return count;
+  }
+
+  /**
+   * Skips the blocks whose size in bytes is known, and returns the item count of the first one which has to be
+   * skipped item by item.
+   */
+  private long skipItems() throws IOException {
+    long count = readLong();
+    while (count < 0L) {
+      long size = readLong();
+      if (size < 0L || size > limit - pos) {
+        throw new EOFException();
+      }
+      skip((int) size);
+      count = readLong();
+    }
+    return count;
+  }
+
+  private void skip(int length) throws IOException {
+    ensureAvailable(length);
+    pos += length;
+  }
+
+  private void ensureAvailable(int length) throws EOFException {
+    if (length > limit - pos) {
+      throw new EOFException();
+    }
+  }
+}
@@ -147,7 +147,8 @@ public abstract class PrimitiveArrayList<T, L, A> extends AbstractList<T>
   /**
    * A function used when appending an element to the end of the list. It increments the size as a side-effect.
    *
-   * N.B.: Since {@link #size} is private, this is the only size mutation operation allowed for child classes.
+   * N.B.: Since {@link #size} is private, this and {@link #addToSize(int)} are the only size mutation operations
+   * allowed for child classes.
    *
    * @return the index of the appended element
    */
@@ -155,6 +156,28 @@ public abstract class PrimitiveArrayList<T, L, A> extends AbstractList<T>
     return size++;
   }
 
+  /**
+   * A function used after appending elements in bulk, straight into the primitive array, at the end of the list.
+   *
+   * @param count number of appended elements
+   */
+  protected void addToSize(int count) {
+    size += count;
+  }
+
+  /**
+   * Makes sure the primitive array can hold the given number of elements, resizing it to at least 1.5x + 1 if not.
+   *
+   * @param minCapacity number of elements the primitive array must be able to hold
+   */
+  protected void ensureCapacity(int minCapacity) {
+    if (minCapacity > capacity()) {
+      A newElements = newArray(Math.max(minCapacity, (size * 3)/2 + 1));
+      System.arraycopy(elementsArray, 0, newElements, 0, size);
+      this.elementsArray = newElements;
+    }
+  }
+
   /** Checks if the primitve array is at capacity, and if so, resizes it to 1.5x + 1. */
   protected void capacityCheck() {
     if (size == capacity()) {
@@ -1,11 +1,19 @@
 package com.linkedin.avro.fastserde.primitive;
 
 import com.linkedin.avro.api.PrimitiveBooleanList;
+import java.io.IOException;
 import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
 
 
 public class PrimitiveBooleanArrayList extends PrimitiveArrayList<Boolean, PrimitiveBooleanList, boolean[]> implements PrimitiveBooleanList {
   public static final Schema SCHEMA = Schema.createArray(Schema.create(Schema.Type.BOOLEAN));
+  private static final byte[] EMPTY_BYTES = new byte[0];
+
+  /**
+   * The encoded bytes of the last block read, kept so that the reused lists don't allocate them again.
+   */
+  private byte[] blockBytes = EMPTY_BYTES;
 
   public PrimitiveBooleanArrayList(int capacity) {
     super(capacity);
@@ -15,6 +23,60 @@ public class PrimitiveBooleanArrayList extends PrimitiveArrayList<Boolean, Primi
     super();
   }
 
+  /**
+   * Instantiate (or re-use) and populate a {@link PrimitiveBooleanList} from a {@link Decoder}. Each block of the array is
+   * decoded straight into the primitive array, without any per-element capacity check nor boxing.
+   *
+   * @param old old list to reuse
+   * @param in {@link Decoder} to read new list from
+   * @return a {@link PrimitiveBooleanList} with data, possibly the old argument reused
+   * @throws IOException on io errors
+   */
+  public static PrimitiveBooleanList readPrimitiveBooleanArray(Object old, Decoder in) throws IOException {
+    long length = in.readArrayStart();
+    if (old instanceof PrimitiveBooleanArrayList) {
+      PrimitiveBooleanArrayList array = (PrimitiveBooleanArrayList) old;
+      array.clear();
+      array.readBlocks(length, in);
+      return array;
+    } else if (old instanceof PrimitiveBooleanList) {
+      // not our own type of primitive list, so it is populated through its regular API
+      PrimitiveBooleanList array = (PrimitiveBooleanList) old;
+      array.clear();
+      while (length > 0) {
+        for (long i = 0; i < length; i++) {
+          array.addPrimitive(in.readBoolean());
+        }
+        length = in.arrayNext();
+      }
+      return array;
+    } else {
+      PrimitiveBooleanArrayList array = new PrimitiveBooleanArrayList((int) length);
+      array.readBlocks(length, in);
+      return array;
+    }
+  }
+
+  private void readBlocks(long length, Decoder in) throws IOException {
+    while (length > 0) {
+      int start = size();
+      int end = start + (int) length;
+      ensureCapacity(end);
+      // booleans are encoded as a single byte each, so a whole block is read at once
+      if (blockBytes.length < length) {
+        blockBytes = new byte[(int) length];
+      }
+      byte[] bytes = blockBytes;
+      in.readFixed(bytes, 0, (int) length);
+      boolean[] elements = elementsArray;
+      for (int i = start; i < end; i++) {
+        elements[i] = bytes[i - start] == 1;
+      }
+      addToSize((int) length);
+      length = in.arrayNext();
+    }
+  }
+
   @Override
   public Boolean get(int index) {
     return getPrimitive(index);
@@ -2,7 +2,9 @@ package com.linkedin.avro.fastserde.primitive;
 
 import com.linkedin.avro.api.PrimitiveBooleanList;
 import com.linkedin.avro.api.PrimitiveIntList;
+import java.io.IOException;
 import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
 
 
 public class PrimitiveIntArrayList extends PrimitiveArrayList<Integer, PrimitiveIntList, int[]> implements PrimitiveIntList {
@@ -16,6 +18,54 @@ public class PrimitiveIntArrayList extends PrimitiveArrayList<Integer, Primitive
     super();
   }
 
+  /**
+   * Instantiate (or re-use) and populate a {@link PrimitiveIntList} from a {@link Decoder}. Each block of the array is
+   * decoded straight into the primitive array, without any per-element capacity check nor boxing.
+   *
+   * @param old old list to reuse
+   * @param in {@link Decoder} to read new list from
+   * @return a {@link PrimitiveIntList} with data, possibly the old argument reused
+   * @throws IOException on io errors
+   */
+  public static PrimitiveIntList readPrimitiveIntArray(Object old, Decoder in) throws IOException {
+    long length = in.readArrayStart();
+    if (old instanceof PrimitiveIntArrayList) {
+      PrimitiveIntArrayList array = (PrimitiveIntArrayList) old;
+      array.clear();
+      array.readBlocks(length, in);
+      return array;
+    } else if (old instanceof PrimitiveIntList) {
+      // not our own type of primitive list, so it is populated through its regular API
+      PrimitiveIntList array = (PrimitiveIntList) old;
+      array.clear();
+      while (length > 0) {
+        for (long i = 0; i < length; i++) {
+          array.addPrimitive(in.readInt());
+        }
+        length = in.arrayNext();
+      }
+      return array;
+    } else {
+      PrimitiveIntArrayList array = new PrimitiveIntArrayList((int) length);
+      array.readBlocks(length, in);
+      return array;
+    }
+  }
+
+  private void readBlocks(long length, Decoder in) throws IOException {
+    while (length > 0) {
+      int start = size();
+      int end = start + (int) length;
+      ensureCapacity(end);
+      int[] elements = elementsArray;
+      for (int i = start; i < end; i++) {
+        elements[i] = in.readInt();
+      }
+      addToSize((int) length);
+      length = in.arrayNext();
+    }
+  }
+
   @Override
   public Integer get(int index) {
     return getPrimitive(index);
@@ -2,7 +2,9 @@ package com.linkedin.avro.fastserde.primitive;
 
 import com.linkedin.avro.api.PrimitiveBooleanList;
 import com.linkedin.avro.api.PrimitiveLongList;
+import java.io.IOException;
 import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
 
 
 public class PrimitiveLongArrayList extends PrimitiveArrayList<Long, PrimitiveLongList, long[]> implements PrimitiveLongList {
@@ -16,6 +18,54 @@ public class PrimitiveLongArrayList extends PrimitiveArrayList<Long, PrimitiveLo
     super();
   }
 
+  /**
+   * Instantiate (or re-use) and populate a {@link PrimitiveLongList} from a {@link Decoder}. Each block of the array is
+   * decoded straight into the primitive array, without any per-element capacity check nor boxing.
+   *
+   * @param old old list to reuse
+   * @param in {@link Decoder} to read new list from
+   * @return a {@link PrimitiveLongList} with data, possibly the old argument reused
+   * @throws IOException on io errors
+   */
+  public static PrimitiveLongList readPrimitiveLongArray(Object old, Decoder in) throws IOException {
+    long length = in.readArrayStart();
+    if (old instanceof PrimitiveLongArrayList) {
+      PrimitiveLongArrayList array = (PrimitiveLongArrayList) old;
+      array.clear();
+      array.readBlocks(length, in);
+      return array;
+    } else if (old instanceof PrimitiveLongList) {
+      // not our own type of primitive list, so it is populated through its regular API
+      PrimitiveLongList array = (PrimitiveLongList) old;
+      array.clear();
+      while (length > 0) {
+        for (long i = 0; i < length; i++) {
+          array.addPrimitive(in.readLong());
+        }
+        length = in.arrayNext();
+      }
+      return array;
+    } else {
+      PrimitiveLongArrayList array = new PrimitiveLongArrayList((int) length);
+      array.readBlocks(length, in);
+      return array;
+    }
+  }
+
+  private void readBlocks(long length, Decoder in) throws IOException {
+    while (length > 0) {
+      int start = size();
+      int end = start + (int) length;
+      ensureCapacity(end);
+      long[] elements = elementsArray;
+      for (int i = start; i < end; i++) {
+        elements[i] = in.readLong();
+      }
+      addToSize((int) length);
+      length = in.arrayNext();
+    }
+  }
+
   @Override
   public Long get(int index) {
     return getPrimitive(index);
@@ -32,7 +32,6 @@ import org.apache.commons.lang3.ArrayUtils;
  *   Using VarHandle(JDK9+ API) to speed up float-array deserialization: We allocate byte array to store the raw bytes
  *   from BinaryDecoder and deserialize them only during array element access. We cache the results into the elements
  *   array after the first get access of the array so that sub-sequent array access are fast.
- *   TODO: Provide arrays for other primitive types.
  */
 public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
     implements GenericArray<Float>, Comparable<GenericArray<Float>>, PrimitiveFloatList {
@@ -215,10 +214,9 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
 
   /**
    * Add a primitive float inside the list, without boxing.
-
-   * TODO: verify if it's enough to simply store the data as primitives in order to benefit from the GC optimization.
+   *
    * @param o new float to add
-   * @return true?
+   * @return true
    */
   public boolean addPrimitive(float o) {
     cacheFromByteBuffer();
@@ -254,7 +252,7 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
 
   @Override
   public Float set(int i, Float o) {
-    return set(i, o);
+    return setPrimitive(i, o);
   }
 
   @Override
@@ -297,14 +295,18 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
     }
   }
 
+  /**
+   * @return the float past the last element of the list, which may be reused, or 0 if there is none
+   */
   public float peekPrimitive() {
     cacheFromByteBuffer();
-    return (size < elements.length) ? elements[size] : null;
+    return (size < elements.length) ? elements[size] : 0;
   }
 
   @Override
   public Float peek() {
-    return peekPrimitive();
+    cacheFromByteBuffer();
+    return (size < elements.length) ? elements[size] : null;
   }
 
   @Override
@@ -335,7 +337,7 @@ public class BufferBackedPrimitiveFloatList extends AbstractList<Float>
   public void reverse() {
     cacheFromByteBuffer();
     int left = 0;
-    int right = elements.length - 1;
+    int right = size - 1;
 
     while (left < right) {
       float tmp = elements[left];